@@ -13,6 +13,7 @@ public class WebConfig implements WebMvcConfigurer {
             .allowedOrigins("*")
             .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
             .allowedHeaders("*")
+            .exposedHeaders("ETag")
             .allowCredentials(false);
     }
 }
\ No newline at end of file
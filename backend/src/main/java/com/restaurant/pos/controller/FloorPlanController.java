@@ -7,12 +7,22 @@ import com.restaurant.pos.dto.FloorPlanRequest;
 import com.restaurant.pos.dto.AreaRequest;
 import com.restaurant.pos.service.FloorPlanService;
 import com.restaurant.pos.service.AreaService;
+import com.restaurant.pos.service.FloorPlanImportExportService;
 import com.restaurant.pos.service.DatabaseHealthService;
+import com.restaurant.pos.service.floorplan.FloorPlanView;
+import com.restaurant.pos.service.floorplan.FloorPlanViewCache;
+import com.restaurant.pos.service.floorplan.TableBoard;
+import com.restaurant.pos.service.floorplan.TableStatusBoard;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.List;
@@ -31,9 +41,21 @@ public class FloorPlanController {
 
     @Autowired
     private AreaService areaService;
+
+    @Autowired
+    private FloorPlanImportExportService floorPlanImportExportService;
     
     @Autowired
     private DatabaseHealthService databaseHealthService;
+    
+    @Autowired
+    private FloorPlanViewCache floorPlanViewCache;
+    
+    @Autowired
+    private TableBoard tableBoard;
+    
+    @Autowired
+    private TableStatusBoard tableStatusBoard;
 
     // Floor Plan Management
     @GetMapping
@@ -54,30 +76,62 @@ public class FloorPlanController {
         }
     }
 
+    /**
+     * Active plan from the pre-rendered view; 304 when the client's ETag is still current
+     */
     @GetMapping("/active")
-    public ResponseEntity<?> getActiveFloorPlan() {
+    public ResponseEntity<?> getActiveFloorPlan(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
-            logger.info("Getting active floor plan...");
+            FloorPlanViewCache.Rendered rendered = floorPlanViewCache.get();
             
+            if (!rendered.hasPlan()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Нема активен план"));
+            }
+            if (rendered.getETag().equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(rendered.getETag()).build();
+            }
+            return ResponseEntity.ok()
+                .eTag(rendered.getETag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(rendered.getJson());
+        } catch (Exception e) {
+            logger.error("Error getting active floor plan", e);
             if (!databaseHealthService.isDatabaseHealthy()) {
                 return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
                     .body(Map.of("error", "База на податоци недостапна"));
             }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при вчитување на активниот план"));
+        }
+    }
+
+    /**
+     * Active plan layout together with the active order of each table, in one response
+     */
+    @GetMapping("/active/board")
+    public ResponseEntity<?> getActiveBoard(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        try {
+            FloorPlanViewCache.Rendered layout = floorPlanViewCache.get();
+            TableBoard.Board board = tableBoard.getBoard();
+            TableStatusBoard.Snapshot statuses = tableStatusBoard.getSnapshot();
+            String eTag = "\"board-" + layout.getVersion() + "-" + board.getVersion() + "-" + statuses.getVersion() + "\"";
             
-            Optional<FloorPlan> activeFloorPlan = floorPlanService.getActiveFloorPlan();
-            
-            if (activeFloorPlan.isPresent()) {
-                logger.info("Found active floor plan: {}", activeFloorPlan.get().getName());
-                return ResponseEntity.ok(activeFloorPlan.get());
-            } else {
-                logger.info("No active floor plan found");
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Map.of("error", "Нема активен план"));
+            if (eTag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
             }
+            return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(tableBoard.render(layout, board, statuses));
         } catch (Exception e) {
-            logger.error("Error getting active floor plan", e);
+            logger.error("Error getting table board", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Грешка при вчитување на активниот план"));
+                .body(Map.of("error", "Грешка при вчитување на состојбата на масите"));
         }
     }
 
@@ -89,7 +143,7 @@ public class FloorPlanController {
                     .body(Map.of("error", "База на податоци недостапна"));
             }
             
-            Optional<FloorPlan> floorPlan = floorPlanService.getFloorPlanById(id);
+            Optional<FloorPlanView> floorPlan = floorPlanService.getFloorPlanById(id);
             
             if (floorPlan.isPresent()) {
                 return ResponseEntity.ok(floorPlan.get());
@@ -174,6 +228,46 @@ public class FloorPlanController {
         }
     }
 
+    /**
+     * The whole plan (areas and tables) as a JSON document for import elsewhere, streamed from the database
+     */
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportFloorPlan(@PathVariable Long id) {
+        try {
+            Optional<FloorPlan> floorPlan = floorPlanImportExportService.findFloorPlan(id);
+            if (floorPlan.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            StreamingResponseBody body = output -> floorPlanImportExportService.exportJson(floorPlan.get(), output);
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"floor-plan-" + id + ".json\"")
+                .body(body);
+        } catch (Exception e) {
+            logger.error("Error exporting floor plan: {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Create a new plan from an exported document; all or nothing
+     */
+    @PostMapping(value = "/import", consumes = "application/json")
+    public ResponseEntity<?> importFloorPlan(HttpServletRequest request,
+                                             @RequestParam(required = false) String name,
+                                             @RequestParam(defaultValue = "false") boolean activate) {
+        try {
+            Map<String, Object> result = floorPlanImportExportService.importJson(request.getInputStream(), name, activate);
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error importing floor plan", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при увоз на планот: " + e.getMessage()));
+        }
+    }
+
     @PostMapping("/default")
     public ResponseEntity<?> createDefaultFloorPlan() {
         try {
@@ -320,6 +414,59 @@ public class FloorPlanController {
         }
     }
 
+    /**
+     * Soft delete all tables of the area at once
+     */
+    @PostMapping("/areas/{id}/tables/deactivate")
+    public ResponseEntity<?> deactivateAreaTables(@PathVariable Long id) {
+        try {
+            int deactivated = areaService.deactivateTablesInArea(id);
+            return ResponseEntity.ok(Map.of("deactivated", deactivated));
+        } catch (RuntimeException e) {
+            logger.warn("Error deactivating tables in area {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Bring back the deleted tables of the area; numbers taken in the meantime are reported as skipped
+     */
+    @PostMapping("/areas/{id}/tables/reactivate")
+    public ResponseEntity<?> reactivateAreaTables(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(areaService.reactivateTablesInArea(id));
+        } catch (RuntimeException e) {
+            logger.warn("Error reactivating tables in area {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Move tables to another area: { "targetAreaId": 2, "tableIds": [1, 5] } (all tables when tableIds is missing)
+     */
+    @PostMapping("/areas/{id}/tables/move")
+    public ResponseEntity<?> moveAreaTables(@PathVariable Long id, @RequestBody Map<String, Object> request) {
+        try {
+            Object target = request.get("targetAreaId");
+            Long targetAreaId = target instanceof Number ? ((Number) target).longValue() : null;
+            List<Long> tableIds = null;
+            if (request.get("tableIds") instanceof List<?> ids) {
+                tableIds = ids.stream()
+                    .filter(Number.class::isInstance)
+                    .map(value -> ((Number) value).longValue())
+                    .toList();
+            }
+            int moved = areaService.moveTables(id, targetAreaId, tableIds);
+            return ResponseEntity.ok(Map.of("moved", moved));
+        } catch (IllegalArgumentException e) {
+            // A moved table would be outside the target area or overlap one of its tables
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.warn("Error moving tables from area {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/areas/{id}")
     public ResponseEntity<?> getAreaById(@PathVariable Long id) {
         try {
@@ -1,13 +1,25 @@
 package com.restaurant.pos.controller;
 
 import com.restaurant.pos.entity.MenuItem;
+import com.restaurant.pos.entity.AvailabilitySchedule;
+import com.restaurant.pos.entity.MenuItemPrice;
+import com.restaurant.pos.dto.AvailabilityScheduleRequest;
+import com.restaurant.pos.dto.MenuItemPriceRequest;
 import com.restaurant.pos.dto.MenuItemRequest;
+import com.restaurant.pos.service.MenuImportExportService;
 import com.restaurant.pos.service.MenuItemService;
+import com.restaurant.pos.service.menu.MenuSnapshot;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -19,29 +31,178 @@ public class MenuItemController {
     @Autowired
     private MenuItemService menuItemService;
     
+    @Autowired
+    private MenuImportExportService menuImportExportService;
+    
     @GetMapping
-    public ResponseEntity<List<MenuItem>> getAllItems() {
-        List<MenuItem> items = menuItemService.getAllItems();
-        return ResponseEntity.ok(items);
+    public ResponseEntity<List<MenuItem>> getAllItems(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        MenuSnapshot snapshot = menuItemService.getMenuSnapshot();
+        return cachedResponse(snapshot, ifNoneMatch, snapshot.getAllItems());
     }
     
     @GetMapping("/available")
-    public ResponseEntity<List<MenuItem>> getAvailableItems() {
-        List<MenuItem> items = menuItemService.getAllAvailableItems();
-        return ResponseEntity.ok(items);
+    public ResponseEntity<List<MenuItem>> getAvailableItems(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        MenuSnapshot snapshot = menuItemService.getMenuSnapshot();
+        return cachedResponse(snapshot, ifNoneMatch, snapshot.getAvailableItems());
     }
     
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<MenuItem>> getItemsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<MenuItem>> getItemsByCategory(@PathVariable String category,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
             MenuItem.Category cat = MenuItem.Category.valueOf(category);
-            List<MenuItem> items = menuItemService.getItemsByCategory(cat);
-            return ResponseEntity.ok(items);
+            MenuSnapshot snapshot = menuItemService.getMenuSnapshot();
+            return cachedResponse(snapshot, ifNoneMatch, snapshot.getAvailableItems(cat));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/destination/{destination}")
+    public ResponseEntity<List<MenuItem>> getItemsByDestination(@PathVariable String destination,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        try {
+            MenuItem.PrintDestination dest = MenuItem.PrintDestination.valueOf(destination);
+            MenuSnapshot snapshot = menuItemService.getMenuSnapshot();
+            return cachedResponse(snapshot, ifNoneMatch, snapshot.getAvailableItems(dest));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Changes since the catalog version a terminal already has (full menu when it is too old)
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) String terminal) {
+        try {
+            return ResponseEntity.ok(menuItemService.getChangesSince(since, terminal));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/top")
+    public ResponseEntity<List<MenuItem>> getTopItems(@RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String category) {
+        try {
+            MenuItem.Category cat = category != null ? MenuItem.Category.valueOf(category) : null;
+            return ResponseEntity.ok(menuItemService.getTopItems(cat, Math.min(limit, 100)));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    /**
+     * Bulk import from CSV (text/csv) or a JSON array (application/json), streamed row by row
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/json"})
+    public ResponseEntity<?> importItems(HttpServletRequest request) {
+        try {
+            String contentType = request.getContentType();
+            Map<String, Object> result = contentType != null && contentType.contains("json")
+                ? menuImportExportService.importJson(request.getInputStream())
+                : menuImportExportService.importCsv(request.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при увоз на менито: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Bulk export as CSV or JSON, streamed from the database
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestParam(defaultValue = "csv") String format) {
+        boolean json = "json".equalsIgnoreCase(format);
+        StreamingResponseBody body = json ? menuImportExportService::exportJson : menuImportExportService::exportCsv;
+        return ResponseEntity.ok()
+            .contentType(json ? MediaType.APPLICATION_JSON : new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"menu." + (json ? "json" : "csv") + "\"")
+            .body(body);
+    }
+    
+    /**
+     * Scheduled prices in effect right now (menu item id -> price) and the time of the next change
+     */
+    @GetMapping("/prices/current")
+    public ResponseEntity<Map<String, Object>> getCurrentPrices() {
+        return ResponseEntity.ok(menuItemService.getCurrentPrices());
+    }
+    
+    @GetMapping("/{id}/prices")
+    public ResponseEntity<?> getPrices(@PathVariable Long id) {
+        try {
+            List<MenuItemPrice> prices = menuItemService.getPrices(id);
+            return ResponseEntity.ok(prices);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Add a scheduled price (days of week, time window, optional date range) for an item
+     */
+    @PostMapping("/{id}/prices")
+    public ResponseEntity<?> addPrice(@PathVariable Long id, @Valid @RequestBody MenuItemPriceRequest request) {
+        try {
+            MenuItemPrice price = menuItemService.addPrice(id, request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(price);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @DeleteMapping("/prices/{priceId}")
+    public ResponseEntity<?> deletePrice(@PathVariable Long priceId) {
+        try {
+            menuItemService.deletePrice(priceId);
+            return ResponseEntity.ok(Map.of("message", "Цената е избришана успешно"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/schedules")
+    public ResponseEntity<?> getSchedules() {
+        try {
+            List<AvailabilitySchedule> schedules = menuItemService.getSchedules();
+            return ResponseEntity.ok(schedules);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Add an availability window (days of week, time of day) for an item or a whole category
+     */
+    @PostMapping("/schedules")
+    public ResponseEntity<?> addSchedule(@RequestBody AvailabilityScheduleRequest request) {
+        try {
+            AvailabilitySchedule schedule = menuItemService.addSchedule(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(schedule);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @DeleteMapping("/schedules/{scheduleId}")
+    public ResponseEntity<?> deleteSchedule(@PathVariable Long scheduleId) {
+        try {
+            menuItemService.deleteSchedule(scheduleId);
+            return ResponseEntity.ok(Map.of("message", "Распоредот е избришан успешно"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<MenuItem> getItemById(@PathVariable Long id) {
         return menuItemService.getItemById(id)
@@ -94,8 +255,24 @@ public class MenuItemController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<MenuItem>> searchItems(@RequestParam String q) {
-        List<MenuItem> items = menuItemService.searchItems(q);
-        return ResponseEntity.ok(items);
+    public ResponseEntity<List<MenuItem>> searchItems(@RequestParam String q,
+            @RequestParam(defaultValue = "true") boolean fuzzy) {
+        // No ETag: ties are ranked by live popularity, which changes with every sale, not with the menu version
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noStore())
+            .body(menuItemService.searchItems(q, fuzzy));
+    }
+    
+    /**
+     * 304 when the client already has this menu version, otherwise the items with the version ETag
+     */
+    private ResponseEntity<List<MenuItem>> cachedResponse(MenuSnapshot snapshot, String ifNoneMatch, List<MenuItem> items) {
+        if (snapshot.getETag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.getETag()).build();
+        }
+        return ResponseEntity.ok()
+            .eTag(snapshot.getETag())
+            .cacheControl(CacheControl.noCache())
+            .body(items);
     }
 }
\ No newline at end of file
@@ -74,6 +74,230 @@ public class PrinterController {
         }
     }
 
+    /**
+     * Get stored tickets and receipts of an order that can be reprinted
+     */
+    @GetMapping("/reprint/order/{orderId}")
+    public ResponseEntity<?> getStoredPrintouts(@PathVariable Long orderId,
+        @RequestHeader(value = "Admin-Code", required = false) String adminCode) {
+        try {
+            // Validate admin access
+            if (adminCode == null || !printerService.validateAdminCode(adminCode)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Неавторизиран пристап"));
+            }
+
+            return ResponseEntity.ok(Map.of("printouts", printerService.getStoredPrintouts(orderId)));
+        } catch (Exception e) {
+            logger.error("Error getting stored printouts for order {}", orderId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при вчитување на печатењата"));
+        }
+    }
+
+    /**
+     * Reprint a stored ticket or receipt (fiscal receipts print a device copy)
+     */
+    @PostMapping("/reprint/{jobId}")
+    public ResponseEntity<?> reprint(@PathVariable long jobId,
+        @RequestHeader(value = "Admin-Code", required = false) String adminCode) {
+        try {
+            // Validate admin access
+            if (adminCode == null || !printerService.validateAdminCode(adminCode)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Неавторизиран пристап"));
+            }
+
+            printerService.reprint(jobId);
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Повторно испечатено"
+            ));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error reprinting job {}", jobId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при повторно печатење: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get simulated tickets and receipts of an order (printed while printers were disabled or failing)
+     */
+    @GetMapping("/virtual/order/{orderId}")
+    public ResponseEntity<?> getSimulatedPrintouts(@PathVariable Long orderId,
+        @RequestHeader(value = "Admin-Code", required = false) String adminCode) {
+        try {
+            // Validate admin access
+            if (adminCode == null || !printerService.validateAdminCode(adminCode)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Неавторизиран пристап"));
+            }
+
+            return ResponseEntity.ok(Map.of("printouts", printerService.getSimulatedPrintouts(orderId)));
+        } catch (Exception e) {
+            logger.error("Error getting simulated printouts for order {}", orderId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при вчитување на симулираните печатења"));
+        }
+    }
+
+    /**
+     * Get real-time printer status (paper out, cover open, errors)
+     */
+    @GetMapping("/status")
+    public ResponseEntity<?> getPrinterStatus(@RequestParam(defaultValue = "false") boolean refresh) {
+        try {
+            return ResponseEntity.ok(printerService.getPrinterStatus(refresh));
+        } catch (Exception e) {
+            logger.error("Error getting printer status", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при вчитување на статусот на принтерите"));
+        }
+    }
+
+    /**
+     * Get kitchen/bar printer routes
+     */
+    @GetMapping("/routes")
+    public ResponseEntity<?> getPrinterRoutes(@RequestHeader(value = "Admin-Code", required = false) String adminCode) {
+        try {
+            // Validate admin access
+            if (adminCode == null || !printerService.validateAdminCode(adminCode)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Неавторизиран пристап"));
+            }
+
+            return ResponseEntity.ok(printerService.getPrinterRoutes());
+
+        } catch (Exception e) {
+            logger.error("Error getting printer routes", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при вчитување на рутите"));
+        }
+    }
+
+    /**
+     * Update kitchen/bar printer routes (primary first, then backups)
+     */
+    @PutMapping("/routes")
+    public ResponseEntity<?> updatePrinterRoutes(
+        @RequestBody Map<String, List<String>> routes,
+        @RequestHeader(value = "Admin-Code", required = false) String adminCode) {
+        try {
+            // Validate admin access
+            if (adminCode == null || !printerService.validateAdminCode(adminCode)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Неавторизиран пристап"));
+            }
+
+            printerService.updatePrinterRoutes(routes);
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "routes", printerService.getPrinterRoutes()
+            ));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Неважечка рута: " + e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error updating printer routes", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при ажурирање на рутите"));
+        }
+    }
+
+    /**
+     * Get fiscal receipts that did not complete (e.g. interrupted by a crash)
+     */
+    @GetMapping("/fiscal/spool")
+    public ResponseEntity<?> getIncompleteFiscalJobs(@RequestHeader(value = "Admin-Code", required = false) String adminCode) {
+        try {
+            // Validate admin access
+            if (adminCode == null || !printerService.validateAdminCode(adminCode)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Неавторизиран пристап"));
+            }
+
+            return ResponseEntity.ok(Map.of("jobs", printerService.getIncompleteFiscalJobs()));
+
+        } catch (Exception e) {
+            logger.error("Error getting incomplete fiscal jobs", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при вчитување на фискалните задачи"));
+        }
+    }
+
+    /**
+     * Issue the receipt of an incomplete fiscal job again
+     */
+    @PostMapping("/fiscal/spool/{jobId}/reissue")
+    public ResponseEntity<?> reissueFiscalJob(
+        @PathVariable long jobId,
+        @RequestHeader(value = "Admin-Code", required = false) String adminCode) {
+        try {
+            // Validate admin access
+            if (adminCode == null || !printerService.validateAdminCode(adminCode)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Неавторизиран пристап"));
+            }
+
+            printerService.reissueFiscalJob(jobId);
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Фискалната сметка е повторно издадена"
+            ));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error re-issuing fiscal job {}", jobId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при повторно издавање: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Mark an incomplete fiscal job as done after checking it on the device
+     */
+    @PostMapping("/fiscal/spool/{jobId}/resolve")
+    public ResponseEntity<?> resolveFiscalJob(
+        @PathVariable long jobId,
+        @RequestHeader(value = "Admin-Code", required = false) String adminCode) {
+        try {
+            // Validate admin access
+            if (adminCode == null || !printerService.validateAdminCode(adminCode)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Неавторизиран пристап"));
+            }
+
+            printerService.resolveFiscalJob(jobId);
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Фискалната задача е затворена"
+            ));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error resolving fiscal job {}", jobId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при затворање на задачата"));
+        }
+    }
+
     /**
      * Test printer connections
      */
@@ -122,7 +346,8 @@ public class PrinterController {
      * Get available thermal printers
      */
     @GetMapping("/thermal-printers")
-    public ResponseEntity<?> getAvailableThermalPrinters(@RequestHeader(value = "Admin-Code", required = false) String adminCode) {
+    public ResponseEntity<?> getAvailableThermalPrinters(@RequestHeader(value = "Admin-Code", required = false) String adminCode,
+                                                         @RequestParam(defaultValue = "false") boolean refresh) {
         try {
             // Validate admin access
             if (adminCode == null || !printerService.validateAdminCode(adminCode)) {
@@ -130,7 +355,7 @@ public class PrinterController {
                     .body(Map.of("error", "Неавторизиран пристап"));
             }
 
-            List < String > printers = printerService.getAvailableThermalPrinters();
+            List < String > printers = printerService.getAvailableThermalPrinters(refresh);
             return ResponseEntity.ok(Map.of("printers", printers));
 
         } catch (Exception e) {
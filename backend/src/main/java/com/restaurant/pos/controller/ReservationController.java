@@ -0,0 +1,141 @@
+package com.restaurant.pos.controller;
+
+import com.restaurant.pos.dto.ReservationRequest;
+import com.restaurant.pos.entity.Reservation;
+import com.restaurant.pos.service.ReservationService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/reservations")
+@CrossOrigin(origins = "*")
+public class ReservationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationController.class);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    /**
+     * All reservations overlapping the window, cancelled and no-show ones included
+     */
+    @GetMapping
+    public ResponseEntity<?> getReservations(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(reservationService.getReservations(from, to));
+        } catch (RuntimeException e) {
+            logger.warn("Error getting reservations: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getReservationById(@PathVariable Long id) {
+        try {
+            Optional<Reservation> reservation = reservationService.getReservationById(id);
+            if (reservation.isPresent()) {
+                return ResponseEntity.ok(reservation.get());
+            }
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Резервацијата не е пронајдена"));
+        } catch (Exception e) {
+            logger.error("Error getting reservation by ID: {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Грешка при вчитување на резервацијата"));
+        }
+    }
+
+    /**
+     * Upcoming bookings of one table, or of all tables without tableNumber, from memory
+     */
+    @GetMapping("/bookings")
+    public ResponseEntity<?> getBookings(
+            @RequestParam(required = false) Integer tableNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(reservationService.getBookings(tableNumber, from, to));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Tables seating at least partySize that are free for the whole window, smallest first
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<?> findAvailableTables(
+            @RequestParam(required = false) Long areaId,
+            @RequestParam(defaultValue = "1") int partySize,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(reservationService.findAvailableTables(areaId, partySize, from, to));
+        } catch (RuntimeException e) {
+            logger.warn("Error finding available tables: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createReservation(@Valid @RequestBody ReservationRequest request) {
+        try {
+            Reservation reservation = reservationService.createReservation(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+        } catch (IllegalStateException e) {
+            // The table is already booked for an overlapping time
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.warn("Error creating reservation: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateReservation(@PathVariable Long id, @Valid @RequestBody ReservationRequest request) {
+        try {
+            return ResponseEntity.ok(reservationService.updateReservation(id, request));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.warn("Error updating reservation {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<?> cancelReservation(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(reservationService.cancelReservation(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.warn("Error cancelling reservation {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/seat")
+    public ResponseEntity<?> seatReservation(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(reservationService.seatReservation(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.warn("Error seating reservation {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.restaurant.pos.controller;
 
+import com.restaurant.pos.dto.LayoutUpdateRequest;
 import com.restaurant.pos.entity.RestaurantTable;
 import com.restaurant.pos.service.TableService;
 import com.restaurant.pos.service.DatabaseHealthService;
+import com.restaurant.pos.service.floorplan.FloorPlanViewCache;
+import com.restaurant.pos.service.floorplan.TableSpatialIndex;
+import com.restaurant.pos.service.floorplan.TableStatusBoard;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -28,6 +33,12 @@ public class TableController {
     @Autowired
     private DatabaseHealthService databaseHealthService;
 
+    @Autowired
+    private FloorPlanViewCache floorPlanViewCache;
+
+    @Autowired
+    private TableStatusBoard tableStatusBoard;
+
     @GetMapping
     public ResponseEntity<?> getAllTables() {
         try {
@@ -99,6 +110,10 @@ public class TableController {
             
             RestaurantTable updatedTable = tableService.updateTable(id, tableData);
         return ResponseEntity.ok(updatedTable);
+    } catch (IllegalStateException | IllegalArgumentException e) {
+        // Outside the area, overlapping another table, or a status change the state machine does not allow
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(Map.of("error", e.getMessage()));
     } catch (RuntimeException e) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
             .body(Map.of("error", e.getMessage()));
@@ -124,6 +139,10 @@ public ResponseEntity <?> updateTablePosition(@PathVariable Long id, @RequestBod
 
             RestaurantTable updatedTable = tableService.updateTablePosition(id, x, y, width, height);
         return ResponseEntity.ok(updatedTable);
+    } catch (IllegalArgumentException e) {
+        // Outside the area or overlapping another table
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(Map.of("error", e.getMessage()));
     } catch (RuntimeException e) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
             .body(Map.of("error", e.getMessage()));
@@ -134,6 +153,28 @@ public ResponseEntity <?> updateTablePosition(@PathVariable Long id, @RequestBod
     }
 }
 
+/**
+ * Move and resize many tables and areas in one request; returns the new layout version
+ */
+@PatchMapping("/layout")
+public ResponseEntity <?> updateLayout(@RequestBody LayoutUpdateRequest request) {
+    try {
+        int updated = tableService.updateLayout(request);
+
+        // Committed - a view rendered after this change carries the new version
+        FloorPlanViewCache.Rendered layout = floorPlanViewCache.getLatest();
+        return ResponseEntity.ok()
+            .eTag(layout.getETag())
+            .body(Map.of("updated", updated, "version", layout.getVersion()));
+    } catch (IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (RuntimeException e) {
+        logger.error("Error updating layout: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(Map.of("error", e.getMessage()));
+    }
+}
+
 @PatchMapping("/{id}/status")
 public ResponseEntity <?> updateTableStatus(@PathVariable Long id, @RequestBody Map < String, String > statusData) {
     try {
@@ -151,6 +192,10 @@ public ResponseEntity <?> updateTableStatus(@PathVariable Long id, @RequestBody
         RestaurantTable.TableStatus tableStatus = RestaurantTable.TableStatus.valueOf(status);
             RestaurantTable updatedTable = tableService.updateTableStatus(id, tableStatus);
         return ResponseEntity.ok(updatedTable);
+    } catch (IllegalStateException e) {
+        // Not allowed by the table state machine
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(Map.of("error", e.getMessage()));
     } catch (IllegalArgumentException e) {
         return ResponseEntity.badRequest()
             .body(Map.of("error", "Неважечки статус"));
@@ -201,16 +246,77 @@ public ResponseEntity <?> getTablesByArea(@PathVariable Long areaId) {
     }
 }
 
-@GetMapping("/status/{status}")
-public ResponseEntity <?> getTablesByStatus(@PathVariable String status) {
+/**
+ * Table under a point of the area (hit-testing a click or tap on the floor plan)
+ */
+@GetMapping("/area/{areaId}/at")
+public ResponseEntity <?> getTableAt(@PathVariable Long areaId, @RequestParam int x, @RequestParam int y) {
     try {
-        if (!databaseHealthService.isDatabaseHealthy()) {
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(Map.of("error", "База на податоци недостапна"));
+        Optional < TableSpatialIndex.Placement > placement = tableService.getTableAt(areaId, x, y);
+        if (placement.isPresent()) {
+            return ResponseEntity.ok(placement.get());
         }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(Map.of("error", "Нема маса на оваа позиција"));
+    } catch (Exception e) {
+        logger.error("Error finding table at point in area: {}", areaId, e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(Map.of("error", "Грешка при вчитување на масите"));
+    }
+}
 
+/**
+ * Tables intersecting a rectangle of the area (selection box)
+ */
+@GetMapping("/area/{areaId}/within")
+public ResponseEntity <?> getTablesWithin(@PathVariable Long areaId, @RequestParam int x, @RequestParam int y,
+                                          @RequestParam int width, @RequestParam int height) {
+    try {
+        return ResponseEntity.ok(tableService.getTablesWithin(areaId, x, y, width, height));
+    } catch (Exception e) {
+        logger.error("Error finding tables within rectangle in area: {}", areaId, e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(Map.of("error", "Грешка при вчитување на масите"));
+    }
+}
+
+/**
+ * Overlapping tables and tables outside the area, e.g. from layouts saved before placement was checked
+ */
+@GetMapping("/area/{areaId}/conflicts")
+public ResponseEntity <?> getLayoutConflicts(@PathVariable Long areaId) {
+    try {
+        return ResponseEntity.ok(Map.of("conflicts", tableService.getLayoutConflicts(areaId)));
+    } catch (Exception e) {
+        logger.error("Error checking layout of area: {}", areaId, e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(Map.of("error", "Грешка при проверка на распоредот"));
+    }
+}
+
+/**
+ * Status of every table from the in-memory board; 304 when the client's ETag is still current
+ */
+@GetMapping("/statuses")
+public ResponseEntity <?> getTableStatuses(
+        @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+    TableStatusBoard.Snapshot statuses = tableStatusBoard.getSnapshot();
+    String eTag = "\"table-status-" + statuses.getVersion() + "\"";
+    if (eTag.equals(ifNoneMatch)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+    return ResponseEntity.ok()
+        .eTag(eTag)
+        .cacheControl(CacheControl.noCache())
+        .body(Map.of("version", statuses.getVersion(), "tables", statuses.getTables()));
+}
+
+@GetMapping("/status/{status}")
+public ResponseEntity <?> getTablesByStatus(@PathVariable String status) {
+    // Served from the in-memory status board, so no database check
+    try {
         RestaurantTable.TableStatus tableStatus = RestaurantTable.TableStatus.valueOf(status);
-        List < RestaurantTable > tables = tableService.getTablesByStatus(tableStatus);
+        List < TableStatusBoard.TableEntry > tables = tableService.getTablesByStatus(tableStatus);
         return ResponseEntity.ok(tables);
     } catch (IllegalArgumentException e) {
         return ResponseEntity.badRequest()
@@ -224,13 +330,9 @@ public ResponseEntity <?> getTablesByStatus(@PathVariable String status) {
 
 @GetMapping("/available")
 public ResponseEntity <?> getAvailableTables() {
+    // Served from the in-memory status board, so no database check
     try {
-        if (!databaseHealthService.isDatabaseHealthy()) {
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(Map.of("error", "База на податоци недостапна"));
-        }
-
-        List < RestaurantTable > tables = tableService.getAvailableTables();
+        List < TableStatusBoard.TableEntry > tables = tableService.getAvailableTables();
         return ResponseEntity.ok(tables);
     } catch (Exception e) {
         logger.error("Error getting available tables", e);
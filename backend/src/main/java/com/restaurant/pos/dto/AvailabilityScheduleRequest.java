@@ -0,0 +1,40 @@
+package com.restaurant.pos.dto;
+
+import java.time.LocalTime;
+import java.util.List;
+
+public class AvailabilityScheduleRequest {
+    // Either a menu item or a category (ХРАНА, ПИЈАЛОЦИ, ...)
+    private Long menuItemId;
+    private String category;
+
+    private String label;
+
+    // DayOfWeek names (MONDAY ... SUNDAY); empty means every day
+    private List<String> daysOfWeek;
+
+    private LocalTime startTime;
+    private LocalTime endTime;
+
+    // Constructors
+    public AvailabilityScheduleRequest() { }
+
+    // Getters and Setters
+    public Long getMenuItemId() { return menuItemId; }
+    public void setMenuItemId(Long menuItemId) { this.menuItemId = menuItemId; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+
+    public List<String> getDaysOfWeek() { return daysOfWeek; }
+    public void setDaysOfWeek(List<String> daysOfWeek) { this.daysOfWeek = daysOfWeek; }
+
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+}
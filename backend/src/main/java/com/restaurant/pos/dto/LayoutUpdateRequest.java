@@ -0,0 +1,50 @@
+package com.restaurant.pos.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Geometry changes of many tables and areas, applied together (drag-and-drop editing)
+ */
+public class LayoutUpdateRequest {
+    private List<Geometry> tables = new ArrayList<>();
+    private List<Geometry> areas = new ArrayList<>();
+
+    // Constructors
+    public LayoutUpdateRequest() { }
+
+    // Getters and Setters
+    public List<Geometry> getTables() { return tables; }
+    public void setTables(List<Geometry> tables) { this.tables = tables; }
+
+    public List<Geometry> getAreas() { return areas; }
+    public void setAreas(List<Geometry> areas) { this.areas = areas; }
+
+    /**
+     * New position and size of one table or area; missing values are left unchanged
+     */
+    public static class Geometry {
+        private Long id;
+        private Integer x;
+        private Integer y;
+        private Integer width;
+        private Integer height;
+
+        public Geometry() { }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public Integer getX() { return x; }
+        public void setX(Integer x) { this.x = x; }
+
+        public Integer getY() { return y; }
+        public void setY(Integer y) { this.y = y; }
+
+        public Integer getWidth() { return width; }
+        public void setWidth(Integer width) { this.width = width; }
+
+        public Integer getHeight() { return height; }
+        public void setHeight(Integer height) { this.height = height; }
+    }
+}
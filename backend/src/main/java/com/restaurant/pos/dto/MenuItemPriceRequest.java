@@ -0,0 +1,50 @@
+package com.restaurant.pos.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public class MenuItemPriceRequest {
+    @NotNull(message = "Цената е задолжителна")
+    @Positive(message = "Цената мора да биде позитивна")
+    private BigDecimal price;
+
+    private String label;
+
+    // DayOfWeek names (MONDAY ... SUNDAY); empty means every day
+    private List<String> daysOfWeek;
+
+    private LocalTime startTime;
+    private LocalTime endTime;
+
+    private LocalDate validFrom;
+    private LocalDate validTo;
+
+    // Constructors
+    public MenuItemPriceRequest() { }
+
+    // Getters and Setters
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+
+    public List<String> getDaysOfWeek() { return daysOfWeek; }
+    public void setDaysOfWeek(List<String> daysOfWeek) { this.daysOfWeek = daysOfWeek; }
+
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+
+    public LocalDate getValidFrom() { return validFrom; }
+    public void setValidFrom(LocalDate validFrom) { this.validFrom = validFrom; }
+
+    public LocalDate getValidTo() { return validTo; }
+    public void setValidTo(LocalDate validTo) { this.validTo = validTo; }
+}
@@ -31,6 +31,15 @@ public class PrinterConfiguration {
     @Max(value = 65535, message = "Портата мора да биде најмногу 65535")
     private int thermalPort;
 
+    // Ticket coalescing windows (0 = print immediately)
+    @Min(value = 0, message = "Прозорецот за спојување не може да биде негативен")
+    @Max(value = 60, message = "Прозорецот за спојување мора да биде најмногу 60 секунди")
+    private int kitchenCoalesceSeconds;
+
+    @Min(value = 0, message = "Прозорецот за спојување не може да биде негативен")
+    @Max(value = 60, message = "Прозорецот за спојување мора да биде најмногу 60 секунди")
+    private int barCoalesceSeconds;
+
     // Constructors
     public PrinterConfiguration() {
         // Default values
@@ -42,6 +51,8 @@ public class PrinterConfiguration {
         this.thermalConnection = "USB";
         this.thermalIP = "192.168.1.100";
         this.thermalPort = 9100;
+        this.kitchenCoalesceSeconds = 0;
+        this.barCoalesceSeconds = 0;
     }
 
     // Getters and Setters
@@ -108,4 +119,20 @@ public class PrinterConfiguration {
     public void setThermalPort(int thermalPort) {
         this.thermalPort = thermalPort;
     }
+
+    public int getKitchenCoalesceSeconds() {
+        return kitchenCoalesceSeconds;
+    }
+
+    public void setKitchenCoalesceSeconds(int kitchenCoalesceSeconds) {
+        this.kitchenCoalesceSeconds = kitchenCoalesceSeconds;
+    }
+
+    public int getBarCoalesceSeconds() {
+        return barCoalesceSeconds;
+    }
+
+    public void setBarCoalesceSeconds(int barCoalesceSeconds) {
+        this.barCoalesceSeconds = barCoalesceSeconds;
+    }
 }
\ No newline at end of file
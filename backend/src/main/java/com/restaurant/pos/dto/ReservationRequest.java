@@ -0,0 +1,52 @@
+package com.restaurant.pos.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.time.LocalDateTime;
+
+public class ReservationRequest {
+    @NotNull(message = "Бројот на маса е задолжителен")
+    private Integer tableNumber;
+
+    @NotNull(message = "Бројот на гости е задолжителен")
+    @Positive(message = "Бројот на гости мора да биде позитивен")
+    private Integer partySize;
+
+    @NotNull(message = "Почетокот е задолжителен")
+    private LocalDateTime startTime;
+
+    @NotNull(message = "Крајот е задолжителен")
+    private LocalDateTime endTime;
+
+    @NotBlank(message = "Името на гостинот е задолжително")
+    private String customerName;
+
+    private String phone;
+    private String notes;
+
+    // Constructors
+    public ReservationRequest() { }
+
+    // Getters and Setters
+    public Integer getTableNumber() { return tableNumber; }
+    public void setTableNumber(Integer tableNumber) { this.tableNumber = tableNumber; }
+
+    public Integer getPartySize() { return partySize; }
+    public void setPartySize(Integer partySize) { this.partySize = partySize; }
+
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+}
@@ -1,6 +1,7 @@
 package com.restaurant.pos.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.restaurant.pos.service.floorplan.FloorPlanChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,6 +10,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(FloorPlanChangeListener.class)
 @Table(name = "areas")
 public class Area {
     @Id
@@ -0,0 +1,71 @@
+package com.restaurant.pos.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Window in which a menu item, or every item of a category, can be ordered (breakfast,
+ * lunch, late menu). Items with schedules are off the menu outside all of their windows;
+ * an item's own schedules take precedence over those of its category.
+ */
+@Entity
+@Table(name = "availability_schedules")
+public class AvailabilitySchedule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Either a menu item or a whole category
+    @Column(name = "menu_item_id")
+    private Long menuItemId;
+
+    @Enumerated(EnumType.STRING)
+    private MenuItem.Category category;
+
+    private String label;
+
+    // Comma separated DayOfWeek names (MONDAY,FRIDAY); empty means every day
+    private String daysOfWeek;
+
+    // Window within the day; an end before the start runs past midnight. Both empty means all day.
+    private LocalTime startTime;
+    private LocalTime endTime;
+
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Constructors
+    public AvailabilitySchedule() { }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getMenuItemId() { return menuItemId; }
+    public void setMenuItemId(Long menuItemId) { this.menuItemId = menuItemId; }
+
+    public MenuItem.Category getCategory() { return category; }
+    public void setCategory(MenuItem.Category category) { this.category = category; }
+
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+
+    public String getDaysOfWeek() { return daysOfWeek; }
+    public void setDaysOfWeek(String daysOfWeek) { this.daysOfWeek = daysOfWeek; }
+
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
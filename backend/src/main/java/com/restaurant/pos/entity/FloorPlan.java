@@ -1,5 +1,6 @@
 package com.restaurant.pos.entity;
 
+import com.restaurant.pos.service.floorplan.FloorPlanChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,6 +9,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(FloorPlanChangeListener.class)
 @Table(name = "floor_plans")
 public class FloorPlan {
     @Id
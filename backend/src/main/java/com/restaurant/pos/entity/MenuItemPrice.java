@@ -0,0 +1,87 @@
+package com.restaurant.pos.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Price of a menu item that applies in a recurring time window (e.g. happy hour or weekends),
+ * optionally limited to a date range. Outside all windows the item's regular price applies.
+ */
+@Entity
+@Table(name = "menu_item_prices", indexes = {
+    @Index(name = "idx_menu_item_prices_item", columnList = "menu_item_id")
+})
+public class MenuItemPrice {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "menu_item_id", nullable = false)
+    private Long menuItemId;
+
+    @NotNull(message = "Цената е задолжителна")
+    @Positive(message = "Цената мора да биде позитивна")
+    @Column(nullable = false, precision = 8, scale = 2)
+    private BigDecimal price;
+
+    private String label;
+
+    // Comma separated DayOfWeek names (MONDAY,FRIDAY); empty means every day
+    private String daysOfWeek;
+
+    // Window within the day; an end before the start runs past midnight. Both empty means all day.
+    private LocalTime startTime;
+    private LocalTime endTime;
+
+    private LocalDate validFrom;
+    private LocalDate validTo;
+
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Constructors
+    public MenuItemPrice() { }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getMenuItemId() { return menuItemId; }
+    public void setMenuItemId(Long menuItemId) { this.menuItemId = menuItemId; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+
+    public String getDaysOfWeek() { return daysOfWeek; }
+    public void setDaysOfWeek(String daysOfWeek) { this.daysOfWeek = daysOfWeek; }
+
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+
+    public LocalDate getValidFrom() { return validFrom; }
+    public void setValidFrom(LocalDate validFrom) { this.validFrom = validFrom; }
+
+    public LocalDate getValidTo() { return validTo; }
+    public void setValidTo(LocalDate validTo) { this.validTo = validTo; }
+
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,108 @@
+package com.restaurant.pos.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.time.LocalDateTime;
+
+/**
+ * Booking of a table from startTime to endTime. Tables are referenced by number, like orders.
+ */
+@Entity
+@Table(name = "reservations",
+       indexes = {
+           @Index(name = "idx_reservation_end_status", columnList = "end_time, status"),
+           @Index(name = "idx_reservation_table_start", columnList = "table_number, start_time")
+       })
+public class Reservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull(message = "Бројот на маса е задолжителен")
+    @Column(nullable = false)
+    private Integer tableNumber;
+
+    @NotNull(message = "Бројот на гости е задолжителен")
+    @Positive(message = "Бројот на гости мора да биде позитивен")
+    @Column(nullable = false)
+    private Integer partySize;
+
+    @NotNull(message = "Почетокот е задолжителен")
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @NotNull(message = "Крајот е задолжителен")
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(nullable = false)
+    private String customerName;
+
+    private String phone;
+
+    private String notes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.BOOKED;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Constructors
+    public Reservation() { }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Integer getTableNumber() { return tableNumber; }
+    public void setTableNumber(Integer tableNumber) { this.tableNumber = tableNumber; }
+
+    public Integer getPartySize() { return partySize; }
+    public void setPartySize(Integer partySize) { this.partySize = partySize; }
+
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    // Business methods
+    public boolean holdsTable() {
+        return status == Status.BOOKED || status == Status.SEATED;
+    }
+
+    public enum Status {
+        BOOKED("Закажана"),
+        SEATED("Сместена"),
+        CANCELLED("Откажана"),
+        NO_SHOW("Не се појави");
+
+        private final String displayName;
+
+        Status(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+}
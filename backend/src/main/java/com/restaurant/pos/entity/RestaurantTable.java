@@ -1,12 +1,14 @@
 package com.restaurant.pos.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.restaurant.pos.service.floorplan.FloorPlanChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(FloorPlanChangeListener.class)
 @Table(name = "restaurant_tables", 
        indexes = {
            @Index(name = "idx_table_number_active", columnList = "table_number, active"),
@@ -0,0 +1,12 @@
+package com.restaurant.pos.repository;
+
+import com.restaurant.pos.entity.AvailabilitySchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface AvailabilityScheduleRepository extends JpaRepository<AvailabilitySchedule, Long> {
+    List<AvailabilitySchedule> findByActiveTrueOrderByIdAsc();
+    void deleteByMenuItemId(Long menuItemId);
+}
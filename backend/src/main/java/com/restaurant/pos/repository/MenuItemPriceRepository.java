@@ -0,0 +1,13 @@
+package com.restaurant.pos.repository;
+
+import com.restaurant.pos.entity.MenuItemPrice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface MenuItemPriceRepository extends JpaRepository<MenuItemPrice, Long> {
+    List<MenuItemPrice> findByActiveTrue();
+    List<MenuItemPrice> findByMenuItemIdAndActiveTrueOrderByIdAsc(Long menuItemId);
+    void deleteByMenuItemId(Long menuItemId);
+}
@@ -15,4 +15,10 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     @Query("SELECT o FROM Order o WHERE o.status IN ('ОТВОРЕНА', 'ИСПРАТЕНА') ORDER BY o.createdAt ASC")
     List<Order> findAllActiveOrders();
+
+    // Id, table, status, total, created at and item quantity of every active order, in one query
+    @Query("SELECT o.id, o.tableNumber, o.status, o.totalAmount, o.createdAt, o.updatedAt, COALESCE(SUM(i.quantity), 0) " +
+           "FROM Order o LEFT JOIN o.items i WHERE o.status IN ('ОТВОРЕНА', 'ИСПРАТЕНА') " +
+           "GROUP BY o.id, o.tableNumber, o.status, o.totalAmount, o.createdAt, o.updatedAt")
+    List<Object[]> summarizeActiveOrders();
 }
\ No newline at end of file
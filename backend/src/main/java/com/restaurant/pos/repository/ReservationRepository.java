@@ -0,0 +1,18 @@
+package com.restaurant.pos.repository;
+
+import com.restaurant.pos.entity.Reservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+    List<Reservation> findByStatusInAndEndTimeAfter(Collection<Reservation.Status> statuses, LocalDateTime time);
+
+    // Every reservation (cancelled ones too) overlapping the window
+    @Query("SELECT r FROM Reservation r WHERE r.startTime < :to AND r.endTime > :from ORDER BY r.startTime ASC, r.tableNumber ASC")
+    List<Reservation> findOverlapping(LocalDateTime from, LocalDateTime to);
+}
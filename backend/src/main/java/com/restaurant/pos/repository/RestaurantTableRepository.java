@@ -1,7 +1,9 @@
 package com.restaurant.pos.repository;
 
+import com.restaurant.pos.entity.Area;
 import com.restaurant.pos.entity.RestaurantTable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -20,8 +22,43 @@ public interface RestaurantTableRepository extends JpaRepository<RestaurantTable
     @Query("SELECT rt FROM RestaurantTable rt LEFT JOIN FETCH rt.area WHERE rt.tableNumber = :tableNumber AND rt.active = true")
     Optional<RestaurantTable> findByTableNumberWithArea(Integer tableNumber);
     
+    // All active tables in the active areas of a floor plan, in one query
+    @Query("SELECT rt FROM RestaurantTable rt WHERE rt.area.floorPlan.id = :floorPlanId " +
+           "AND rt.area.active = true AND rt.active = true ORDER BY rt.tableNumber ASC")
+    List<RestaurantTable> findActiveByFloorPlanId(Long floorPlanId);
+
     boolean existsByTableNumberAndActiveTrue(Integer tableNumber);
 
+    @Query("SELECT rt.tableNumber FROM RestaurantTable rt WHERE rt.active = true")
+    List<Integer> findActiveTableNumbers();
+
     @Query("SELECT COUNT(rt) FROM RestaurantTable rt WHERE rt.area.id = :areaId AND rt.active = true")
     Long countByAreaId(Long areaId);
+
+    @Query("SELECT rt.tableNumber FROM RestaurantTable rt WHERE rt.area.id = :areaId AND rt.active = true")
+    List<Integer> findActiveTableNumbersByAreaId(Long areaId);
+
+    // Newest first, so the latest of several deleted tables with the same number is the one brought back
+    @Query("SELECT rt.id, rt.tableNumber FROM RestaurantTable rt WHERE rt.area.id = :areaId AND rt.active = false " +
+           "ORDER BY rt.id DESC")
+    List<Object[]> findInactiveIdsAndNumbersByAreaId(Long areaId);
+
+    // Bulk updates - one statement for the whole set, bypassing the entity listeners
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RestaurantTable rt SET rt.active = false WHERE rt.area.id = :areaId AND rt.active = true")
+    int deactivateByAreaId(Long areaId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RestaurantTable rt SET rt.active = true, rt.status = :status WHERE rt.id IN :ids AND rt.active = false")
+    int reactivateByIds(List<Long> ids, RestaurantTable.TableStatus status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RestaurantTable rt SET rt.area = :target WHERE rt.area.id = :sourceAreaId AND rt.active = true")
+    int moveAllToArea(Long sourceAreaId, Area target);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RestaurantTable rt SET rt.area = :target WHERE rt.area.id = :sourceAreaId AND rt.id IN :ids " +
+           "AND rt.active = true")
+    int moveToArea(Long sourceAreaId, List<Long> ids, Area target);
 }
\ No newline at end of file
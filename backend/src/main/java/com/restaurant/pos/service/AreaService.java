@@ -6,6 +6,10 @@ import com.restaurant.pos.entity.RestaurantTable;
 import com.restaurant.pos.repository.AreaRepository;
 import com.restaurant.pos.repository.FloorPlanRepository;
 import com.restaurant.pos.repository.RestaurantTableRepository;
+import com.restaurant.pos.service.floorplan.FloorPlanViewCache;
+import com.restaurant.pos.service.floorplan.TableNumberAllocator;
+import com.restaurant.pos.service.floorplan.TableSpatialIndex;
+import com.restaurant.pos.service.floorplan.TableStatusBoard;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,9 +17,13 @@ import org.springframework.dao.DataAccessException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -38,6 +46,18 @@ public class AreaService {
     @Autowired
     private TableService tableService;
 
+    @Autowired
+    private TableNumberAllocator tableNumberAllocator;
+
+    @Autowired
+    private FloorPlanViewCache floorPlanViewCache;
+
+    @Autowired
+    private TableSpatialIndex spatialIndex;
+
+    @Autowired
+    private TableStatusBoard tableStatusBoard;
+
     @Transactional(readOnly = true)
     public List<Area> getAllActiveAreas() {
         try {
@@ -100,46 +120,29 @@ public class AreaService {
             Integer tableNumber = extractInteger(tableData, "tableNumber");
             Integer capacity = extractInteger(tableData, "capacity");
 
-            // If no table number provided, find the next available one
-            if (tableNumber == null || tableNumber <= 0) {
-                tableNumber = tableService.getNextTableNumber();
-                logger.info("No table number provided, using next available: {}", tableNumber);
-            }
-
             // Validate required fields
             if (capacity == null || capacity <= 0) {
                 throw new RuntimeException("Капацитетот е задолжителен и мора да биде позитивен");
             }
 
-            // UPDATED: Check if table number is available (only among active tables)
-            if (!tableService.isTableNumberAvailable(tableNumber)) {
-                // Try to find the next available number
-                tableNumber = tableService.getNextTableNumber();
+            // Reserve the requested number, or the next available one if none was given or it is taken
+            if (tableNumber == null || tableNumber <= 0) {
+                tableNumber = tableNumberAllocator.reserveNext();
+                logger.info("No table number provided, using next available: {}", tableNumber);
+            } else if (!tableNumberAllocator.reserve(tableNumber)) {
+                tableNumber = tableNumberAllocator.reserveNext();
                 logger.info("Requested table number not available, using: {}", tableNumber);
-                
-                // Double-check the new number
-                if (!tableService.isTableNumberAvailable(tableNumber)) {
-                    throw new RuntimeException("Не можам да најдам достапен број на маса");
-                }
             }
             
             // Create new table with simplified grid positioning
             RestaurantTable table = new RestaurantTable(tableNumber, capacity, area);
             
-            // Calculate grid position based on existing active tables count
-            List<RestaurantTable> activeTables = area.getTables() != null 
-                ? area.getTables().stream().filter(RestaurantTable::getActive).toList()
-                : List.of();
-            
-            int existingTablesCount = activeTables.size();
-            int gridRow = existingTablesCount / 2;  // 2 columns
-            int gridCol = existingTablesCount % 2;
-            
-            // Set simplified grid position
-            table.setPositionX(gridCol * 150);  // Column spacing
-            table.setPositionY(gridRow * 100);  // Row spacing
-            table.setWidth(120);
-            table.setHeight(80);
+            // First free grid spot inside the area (150 column / 100 row spacing)
+            TableSpatialIndex.Rect spot = spatialIndex.findFreeSpot(areaId, 120, 80, 150, 100);
+            table.setPositionX(spot.getX());
+            table.setPositionY(spot.getY());
+            table.setWidth(spot.getWidth());
+            table.setHeight(spot.getHeight());
             table.setShape(RestaurantTable.TableShape.RECTANGLE);
             table.setStatus(RestaurantTable.TableStatus.AVAILABLE);
 
@@ -147,8 +150,8 @@ public class AreaService {
             RestaurantTable savedTable = tableRepository.save(table);
             tableRepository.flush();
             
-            logger.info("Successfully created table {} (ID: {}) in simplified grid position ({},{})", 
-                tableNumber, savedTable.getId(), gridCol, gridRow);
+            logger.info("Successfully created table {} (ID: {}) at ({},{})", 
+                tableNumber, savedTable.getId(), spot.getX(), spot.getY());
 
             // Return the updated area
             Area updatedArea = areaRepository.findByIdWithTables(areaId).orElse(area);
@@ -190,6 +193,7 @@ public class AreaService {
             table.setActive(false);
             tableRepository.save(table);
             tableRepository.flush();
+            tableNumberAllocator.releaseAfterCommit(table.getTableNumber());
             
             // Reorganize remaining active tables in grid
             reorganizeTableGrid(area);
@@ -222,6 +226,7 @@ public class AreaService {
             table.setActive(false);
             tableRepository.save(table);
             tableRepository.flush();
+            tableNumberAllocator.releaseAfterCommit(tableNumber);
             
             // Reorganize remaining active tables in grid
             reorganizeTableGrid(area);
@@ -427,34 +432,15 @@ public class AreaService {
                 throw new RuntimeException("ID на област е задолжително");
             }
             
-            Area area = areaRepository.findByIdWithTables(id)
+            Area area = areaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Областа не е пронајдена"));
 
-            logger.info("Found area: {} with {} tables", area.getName(), 
-                area.getTables() != null ? area.getTables().size() : 0);
-
-            // Soft delete all tables in this area (both active and inactive)
-            if (area.getTables() != null && !area.getTables().isEmpty()) {
-                logger.info("Deactivating {} tables in area", area.getTables().size());
-                for (RestaurantTable table : area.getTables()) {
-                    table.setActive(false);
-                    tableRepository.save(table);
-                }
-                tableRepository.flush();
-                logger.info("Deactivated all tables in area");
-                
-                // Clear the tables list to avoid constraint issues
-                area.getTables().clear();
-                areaRepository.save(area);
-                areaRepository.flush();
-            }
-
-            // Then deactivate the area
+            // Deactivate the area, then all its tables in one statement
             area.setActive(false);
             areaRepository.save(area);
-            areaRepository.flush();
+            int deactivated = deactivateTables(id);
             
-            logger.info("Successfully force deleted area: {} with all its tables", area.getName());
+            logger.info("Successfully force deleted area: {} with its {} tables", area.getName(), deactivated);
 
         } catch (DataAccessException e) {
             logger.error("Database error force deleting area: {}", id, e);
@@ -468,6 +454,136 @@ public class AreaService {
         }
     }
 
+    /**
+     * Soft delete all active tables of the area in one statement; their numbers become free on commit
+     */
+    public int deactivateTablesInArea(Long areaId) {
+        try {
+            if (!databaseHealthService.isDatabaseHealthy()) {
+                throw new RuntimeException("База на податоци недостапна");
+            }
+            if (areaId == null || !areaRepository.existsById(areaId)) {
+                throw new RuntimeException("Областа не е пронајдена");
+            }
+
+            int deactivated = deactivateTables(areaId);
+            logger.info("Deactivated {} tables in area {}", deactivated, areaId);
+            return deactivated;
+        } catch (DataAccessException e) {
+            logger.error("Database error deactivating tables in area: {}", areaId, e);
+            throw new RuntimeException("Грешка при бришење на масите");
+        }
+    }
+
+    /**
+     * Bring back the deleted tables of the area in one statement. Of several deleted tables with
+     * the same number the newest comes back; numbers now used by other tables are skipped.
+     */
+    public Map<String, Object> reactivateTablesInArea(Long areaId) {
+        try {
+            if (!databaseHealthService.isDatabaseHealthy()) {
+                throw new RuntimeException("База на податоци недостапна");
+            }
+            Area area = areaRepository.findById(areaId)
+                .orElseThrow(() -> new RuntimeException("Областа не е пронајдена"));
+            if (!Boolean.TRUE.equals(area.getActive())) {
+                throw new RuntimeException("Областа не е активна");
+            }
+
+            List<Long> ids = new ArrayList<>();
+            List<Integer> skipped = new ArrayList<>();
+            Set<Integer> seen = new HashSet<>();
+            for (Object[] row : tableRepository.findInactiveIdsAndNumbersByAreaId(areaId)) {
+                Integer tableNumber = (Integer) row[1];
+                if (!seen.add(tableNumber)) {
+                    continue;
+                }
+                // Reserved now, released again if the update rolls back
+                if (tableNumberAllocator.reserve(tableNumber)) {
+                    ids.add((Long) row[0]);
+                } else {
+                    skipped.add(tableNumber);
+                }
+            }
+
+            int reactivated = ids.isEmpty() ? 0 : tableRepository.reactivateByIds(ids, RestaurantTable.TableStatus.AVAILABLE);
+            tablesChangedInBulk();
+            logger.info("Reactivated {} tables in area {}, {} numbers already in use", reactivated, area.getName(), skipped.size());
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("reactivated", reactivated);
+            result.put("skipped", skipped);
+            return result;
+        } catch (DataAccessException e) {
+            logger.error("Database error reactivating tables in area: {}", areaId, e);
+            throw new RuntimeException("Грешка при враќање на масите");
+        }
+    }
+
+    /**
+     * Move the given tables (all active tables when none are given) to another area in one statement.
+     * Positions are kept, as they are relative to the area.
+     */
+    public int moveTables(Long sourceAreaId, Long targetAreaId, List<Long> tableIds) {
+        try {
+            if (!databaseHealthService.isDatabaseHealthy()) {
+                throw new RuntimeException("База на податоци недостапна");
+            }
+            if (targetAreaId == null) {
+                throw new RuntimeException("Целната област е задолжителна");
+            }
+            if (targetAreaId.equals(sourceAreaId)) {
+                throw new RuntimeException("Масите се веќе во оваа област");
+            }
+            if (sourceAreaId == null || !areaRepository.existsById(sourceAreaId)) {
+                throw new RuntimeException("Областа не е пронајдена");
+            }
+            Area target = areaRepository.findById(targetAreaId)
+                .orElseThrow(() -> new RuntimeException("Целната област не е пронајдена"));
+            if (!Boolean.TRUE.equals(target.getActive())) {
+                throw new RuntimeException("Целната област не е активна");
+            }
+
+            // Positions are kept, so they must fit the target area (IllegalArgumentException otherwise)
+            List<Long> requested = tableIds == null || tableIds.isEmpty() ? null : tableIds;
+            spatialIndex.validateAreaMove(sourceAreaId, requested, targetAreaId);
+
+            int moved;
+            if (requested == null) {
+                moved = tableRepository.moveAllToArea(sourceAreaId, target);
+            } else {
+                List<Long> distinctIds = tableIds.stream().distinct().toList();
+                moved = tableRepository.moveToArea(sourceAreaId, distinctIds, target);
+                if (moved != distinctIds.size()) {
+                    // Rolls the move back
+                    throw new RuntimeException("Некои од масите не се активни маси од оваа област");
+                }
+            }
+
+            tablesChangedInBulk();
+            logger.info("Moved {} tables from area {} to area {}", moved, sourceAreaId, target.getName());
+            return moved;
+        } catch (DataAccessException e) {
+            logger.error("Database error moving tables from area {} to area {}", sourceAreaId, targetAreaId, e);
+            throw new RuntimeException("Грешка при преместување на масите");
+        }
+    }
+
+    private int deactivateTables(Long areaId) {
+        List<Integer> tableNumbers = tableRepository.findActiveTableNumbersByAreaId(areaId);
+        int deactivated = tableRepository.deactivateByAreaId(areaId);
+        tableNumbers.forEach(tableNumberAllocator::releaseAfterCommit);
+        tablesChangedInBulk();
+        return deactivated;
+    }
+
+    // Bulk updates bypass the entity listeners
+    private void tablesChangedInBulk() {
+        floorPlanViewCache.invalidateAfterCommit();
+        spatialIndex.resetAfterCommit();
+        tableStatusBoard.reloadAfterCommit();
+    }
+
     public Area updateAreaPosition(Long id, Integer x, Integer y, Integer width, Integer height) {
         try {
             if (!databaseHealthService.isDatabaseHealthy()) {
@@ -0,0 +1,441 @@
+package com.restaurant.pos.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.pos.entity.Area;
+import com.restaurant.pos.entity.FloorPlan;
+import com.restaurant.pos.entity.RestaurantTable;
+import com.restaurant.pos.repository.AreaRepository;
+import com.restaurant.pos.repository.FloorPlanRepository;
+import com.restaurant.pos.service.floorplan.FloorPlanViewCache;
+import com.restaurant.pos.service.floorplan.TableNumberAllocator;
+import com.restaurant.pos.service.floorplan.TableSpatialIndex;
+import com.restaurant.pos.service.floorplan.TableStatusBoard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Whole floor plans (plan, areas and tables) exported to and imported from one JSON document.
+ *
+ * An import is validated in memory first - table numbers must be unique in the file and not
+ * used by any active table - and then written in one transaction: the plan and its areas
+ * through JPA, the tables with JDBC batch statements. Exports stream areas and tables from
+ * a database cursor straight to the response.
+ */
+@Service
+public class FloorPlanImportExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FloorPlanImportExportService.class);
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private static final String INSERT_TABLE_SQL =
+        "INSERT INTO restaurant_tables (table_number, capacity, status, shape, position_x, position_y, width, height, " +
+        "active, created_at, area_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, TRUE, ?, ?)";
+    // Areas without tables come through the left join with null table columns
+    private static final String EXPORT_SQL =
+        "SELECT a.id AS area_id, a.name AS area_name, a.description AS area_description, a.type AS area_type, " +
+        "a.color AS area_color, a.position_x AS area_x, a.position_y AS area_y, a.width AS area_width, " +
+        "a.height AS area_height, t.table_number, t.capacity, t.shape, t.position_x, t.position_y, t.width, t.height " +
+        "FROM areas a LEFT JOIN restaurant_tables t ON t.area_id = a.id AND t.active = TRUE " +
+        "WHERE a.floor_plan_id = ? AND a.active = TRUE ORDER BY a.name, a.id, t.table_number";
+
+    @Autowired
+    private FloorPlanRepository floorPlanRepository;
+
+    @Autowired
+    private AreaRepository areaRepository;
+
+    @Autowired
+    private FloorPlanService floorPlanService;
+
+    @Autowired
+    private TableNumberAllocator tableNumberAllocator;
+
+    @Autowired
+    private FloorPlanViewCache floorPlanViewCache;
+
+    @Autowired
+    private TableSpatialIndex spatialIndex;
+
+    @Autowired
+    private TableStatusBoard tableStatusBoard;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DatabaseHealthService databaseHealthService;
+
+    @Value("${floorplan.import.batch.size:500}")
+    private int batchSize;
+
+    public Optional<FloorPlan> findFloorPlan(Long id) {
+        try {
+            return id != null ? floorPlanRepository.findById(id) : Optional.empty();
+        } catch (DataAccessException e) {
+            logger.error("Database error getting floor plan by ID: {}", id, e);
+            throw new RuntimeException("Грешка при пристап до базата на податоци");
+        }
+    }
+
+    /**
+     * Write the plan with its active areas and tables as JSON without loading it into memory
+     */
+    public void exportJson(FloorPlan floorPlan, OutputStream output) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        generator.writeStartObject();
+        generator.writeNumberField("version", FORMAT_VERSION);
+        generator.writeStringField("name", floorPlan.getName());
+        generator.writeStringField("description", floorPlan.getDescription());
+        generator.writeArrayFieldStart("areas");
+
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(EXPORT_FETCH_SIZE);
+        long[] currentArea = {-1};
+        try {
+            streaming.query(EXPORT_SQL, (RowCallbackHandler) resultSet -> {
+                try {
+                    long areaId = resultSet.getLong("area_id");
+                    if (areaId != currentArea[0]) {
+                        if (currentArea[0] >= 0) {
+                            generator.writeEndArray();
+                            generator.writeEndObject();
+                        }
+                        currentArea[0] = areaId;
+                        generator.writeStartObject();
+                        generator.writeStringField("name", resultSet.getString("area_name"));
+                        generator.writeStringField("description", resultSet.getString("area_description"));
+                        generator.writeStringField("type", resultSet.getString("area_type"));
+                        generator.writeStringField("color", resultSet.getString("area_color"));
+                        generator.writeNumberField("positionX", resultSet.getInt("area_x"));
+                        generator.writeNumberField("positionY", resultSet.getInt("area_y"));
+                        generator.writeNumberField("width", resultSet.getInt("area_width"));
+                        generator.writeNumberField("height", resultSet.getInt("area_height"));
+                        generator.writeArrayFieldStart("tables");
+                    }
+                    if (resultSet.getObject("table_number") != null) {
+                        generator.writeStartObject();
+                        generator.writeNumberField("tableNumber", resultSet.getInt("table_number"));
+                        generator.writeNumberField("capacity", resultSet.getInt("capacity"));
+                        generator.writeStringField("shape", resultSet.getString("shape"));
+                        generator.writeNumberField("positionX", resultSet.getInt("position_x"));
+                        generator.writeNumberField("positionY", resultSet.getInt("position_y"));
+                        generator.writeNumberField("width", resultSet.getInt("width"));
+                        generator.writeNumberField("height", resultSet.getInt("height"));
+                        generator.writeEndObject();
+                    }
+                } catch (IOException e) {
+                    throw new ExportAbortedException(e);
+                }
+            }, floorPlan.getId());
+        } catch (ExportAbortedException e) {
+            throw (IOException) e.getCause();
+        }
+
+        if (currentArea[0] >= 0) {
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    /**
+     * Create a new floor plan from an exported document. Nothing is written unless the whole
+     * document is valid; the plan can be renamed and made the active plan on the way in.
+     */
+    public Map<String, Object> importJson(InputStream input, String name, boolean activate) throws IOException {
+        if (!databaseHealthService.isDatabaseHealthy()) {
+            throw new RuntimeException("Базата на податоци не е достапна");
+        }
+        JsonNode document = objectMapper.readTree(input);
+        if (document == null || !document.isObject()) {
+            throw new IllegalArgumentException("Се очекува JSON објект со план");
+        }
+        if (document.path("version").asInt(FORMAT_VERSION) > FORMAT_VERSION) {
+            throw new IllegalArgumentException("Непозната верзија на форматот: " + document.get("version").asText());
+        }
+        PlanImport plan = PlanImport.parse(document, name);
+        plan.checkTableNumbers(tableNumberAllocator);
+
+        try {
+            Long planId = transactionTemplate.execute(status -> write(plan, activate));
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("id", planId);
+            result.put("name", plan.name);
+            result.put("areas", plan.areas.size());
+            result.put("tables", plan.tableCount());
+            logger.info("Imported floor plan {} with {} areas and {} tables", plan.name, plan.areas.size(), plan.tableCount());
+            return result;
+        } catch (DataAccessException e) {
+            logger.error("Database error importing floor plan", e);
+            throw new RuntimeException("Грешка при увоз на планот: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private Long write(PlanImport plan, boolean activate) {
+        FloorPlan floorPlan = floorPlanRepository.save(new FloorPlan(plan.name, plan.description));
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (AreaImport areaImport : plan.areas) {
+            Area area = new Area(areaImport.name, areaImport.type, floorPlan);
+            area.setDescription(areaImport.description);
+            area.setColor(areaImport.color);
+            area.setPositionX(areaImport.positionX);
+            area.setPositionY(areaImport.positionY);
+            area.setWidth(areaImport.width);
+            area.setHeight(areaImport.height);
+            Long areaId = areaRepository.save(area).getId();
+
+            for (TableImport table : areaImport.tables) {
+                // Checked above; only a table created since then can take the number
+                if (!tableNumberAllocator.reserve(table.tableNumber)) {
+                    throw new IllegalArgumentException("Масата со број " + table.tableNumber + " веќе постои");
+                }
+                rows.add(new Object[]{table.tableNumber, table.capacity, RestaurantTable.TableStatus.AVAILABLE.name(),
+                    table.shape.name(), table.positionX, table.positionY, table.width, table.height, now, areaId});
+            }
+        }
+
+        int size = Math.max(batchSize, 1);
+        for (int from = 0; from < rows.size(); from += size) {
+            jdbcTemplate.batchUpdate(INSERT_TABLE_SQL, rows.subList(from, Math.min(from + size, rows.size())));
+        }
+
+        // The tables were inserted with plain JDBC, bypassing the entity listeners
+        floorPlanViewCache.invalidateAfterCommit();
+        spatialIndex.resetAfterCommit();
+        tableStatusBoard.reloadAfterCommit();
+
+        if (activate) {
+            floorPlanService.setActiveFloorPlan(floorPlan.getId());
+        }
+        return floorPlan.getId();
+    }
+
+    /**
+     * A validated plan document
+     */
+    private static final class PlanImport {
+        private final String name;
+        private final String description;
+        private final List<AreaImport> areas = new ArrayList<>();
+
+        private PlanImport(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        static PlanImport parse(JsonNode document, String nameOverride) {
+            String name = nameOverride != null && !nameOverride.isBlank() ? nameOverride.trim() : text(document.get("name"));
+            if (name == null) {
+                throw new IllegalArgumentException("Името на планот е задолжително");
+            }
+            PlanImport plan = new PlanImport(name, text(document.get("description")));
+
+            List<String> errors = new ArrayList<>();
+            Set<Integer> numbers = new HashSet<>();
+            JsonNode areas = document.path("areas");
+            for (int a = 0; a < areas.size(); a++) {
+                try {
+                    AreaImport area = AreaImport.parse(areas.get(a));
+                    JsonNode tables = areas.get(a).path("tables");
+                    for (int t = 0; t < tables.size(); t++) {
+                        try {
+                            TableImport table = TableImport.parse(tables.get(t));
+                            if (!numbers.add(table.tableNumber)) {
+                                throw new IllegalArgumentException("Бројот " + table.tableNumber + " се повторува во датотеката");
+                            }
+                            area.tables.add(table);
+                        } catch (IllegalArgumentException e) {
+                            addError(errors, "Област " + (a + 1) + ", маса " + (t + 1) + ": " + e.getMessage());
+                        }
+                    }
+                    plan.areas.add(area);
+                } catch (IllegalArgumentException e) {
+                    addError(errors, "Област " + (a + 1) + ": " + e.getMessage());
+                }
+            }
+            if (!errors.isEmpty()) {
+                throw new IllegalArgumentException(String.join("; ", errors));
+            }
+            return plan;
+        }
+
+        void checkTableNumbers(TableNumberAllocator allocator) {
+            List<String> taken = new ArrayList<>();
+            for (AreaImport area : areas) {
+                for (TableImport table : area.tables) {
+                    if (!allocator.isFree(table.tableNumber)) {
+                        addError(taken, String.valueOf(table.tableNumber));
+                    }
+                }
+            }
+            if (!taken.isEmpty()) {
+                throw new IllegalArgumentException("Масите со броеви " + String.join(", ", taken) + " веќе постојат");
+            }
+        }
+
+        int tableCount() {
+            return areas.stream().mapToInt(area -> area.tables.size()).sum();
+        }
+    }
+
+    private static final class AreaImport {
+        private final String name;
+        private final String description;
+        private final Area.AreaType type;
+        private final String color;
+        private final int positionX;
+        private final int positionY;
+        private final int width;
+        private final int height;
+        private final List<TableImport> tables = new ArrayList<>();
+
+        private AreaImport(String name, String description, Area.AreaType type, String color,
+                           int positionX, int positionY, int width, int height) {
+            this.name = name;
+            this.description = description;
+            this.type = type;
+            this.color = color;
+            this.positionX = positionX;
+            this.positionY = positionY;
+            this.width = width;
+            this.height = height;
+        }
+
+        static AreaImport parse(JsonNode node) {
+            String name = text(node.get("name"));
+            if (name == null) {
+                throw new IllegalArgumentException("Името на областа е задолжително");
+            }
+            Area.AreaType type = parseType(text(node.get("type")));
+            String color = text(node.get("color"));
+            return new AreaImport(name, text(node.get("description")), type, color != null ? color : "#3B82F6",
+                number(node, "positionX", 0, 0), number(node, "positionY", 0, 0),
+                number(node, "width", 200, 1), number(node, "height", 150, 1));
+        }
+
+        // Accepts the enum name (DINING) or the display name (Трпезарија)
+        private static Area.AreaType parseType(String value) {
+            if (value != null) {
+                for (Area.AreaType type : Area.AreaType.values()) {
+                    if (type.name().equalsIgnoreCase(value) || type.getDisplayName().equalsIgnoreCase(value)) {
+                        return type;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Неважечки тип на област: " + value);
+        }
+    }
+
+    private static final class TableImport {
+        private final int tableNumber;
+        private final int capacity;
+        private final RestaurantTable.TableShape shape;
+        private final int positionX;
+        private final int positionY;
+        private final int width;
+        private final int height;
+
+        private TableImport(int tableNumber, int capacity, RestaurantTable.TableShape shape,
+                            int positionX, int positionY, int width, int height) {
+            this.tableNumber = tableNumber;
+            this.capacity = capacity;
+            this.shape = shape;
+            this.positionX = positionX;
+            this.positionY = positionY;
+            this.width = width;
+            this.height = height;
+        }
+
+        static TableImport parse(JsonNode node) {
+            if (!node.path("tableNumber").canConvertToInt() || node.get("tableNumber").asInt() <= 0) {
+                throw new IllegalArgumentException("Неважечки број на маса");
+            }
+            if (!node.path("capacity").canConvertToInt() || node.get("capacity").asInt() <= 0) {
+                throw new IllegalArgumentException("Капацитетот мора да биде позитивен");
+            }
+            RestaurantTable.TableShape shape = RestaurantTable.TableShape.RECTANGLE;
+            String shapeText = text(node.get("shape"));
+            if (shapeText != null) {
+                try {
+                    shape = RestaurantTable.TableShape.valueOf(shapeText.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Неважечка форма: " + shapeText);
+                }
+            }
+            return new TableImport(node.get("tableNumber").asInt(), node.get("capacity").asInt(), shape,
+                number(node, "positionX", 0, 0), number(node, "positionY", 0, 0),
+                number(node, "width", 80, 1), number(node, "height", 80, 1));
+        }
+    }
+
+    // Missing values take the default; present ones must be whole numbers of at least the minimum
+    private static int number(JsonNode node, String field, int whenMissing, int minimum) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return whenMissing;
+        }
+        if (!value.canConvertToInt() || value.asInt() < minimum) {
+            throw new IllegalArgumentException("Неважечка вредност за " + field + ": " + value.asText());
+        }
+        return value.asInt();
+    }
+
+    private static String text(JsonNode value) {
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static void addError(List<String> errors, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(message);
+        }
+    }
+
+    private static final class ExportAbortedException extends RuntimeException {
+        ExportAbortedException(IOException cause) {
+            super(cause);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.restaurant.pos.entity.RestaurantTable;
 import com.restaurant.pos.repository.FloorPlanRepository;
 import com.restaurant.pos.repository.AreaRepository;
 import com.restaurant.pos.repository.RestaurantTableRepository;
+import com.restaurant.pos.service.floorplan.FloorPlanView;
+import com.restaurant.pos.service.floorplan.TableNumberAllocator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,6 +33,9 @@ public class FloorPlanService {
     @Autowired
     private RestaurantTableRepository tableRepository;
 
+    @Autowired
+    private TableNumberAllocator tableNumberAllocator;
+
     @Transactional(readOnly = true)
     public List<FloorPlan> getAllActiveFloorPlans() {
         try {
@@ -44,46 +49,17 @@ public class FloorPlanService {
     }
 
     @Transactional(readOnly = true)
-    public Optional<FloorPlan> getActiveFloorPlan() {
+    public Optional<FloorPlanView> getActiveFloorPlan() {
         try {
-            logger.info("Looking for active floor plan...");
-            
             // Get the first active floor plan
             List<FloorPlan> activeFloorPlans = floorPlanRepository.findByActiveTrueOrderByNameAsc();
             
             if (activeFloorPlans.isEmpty()) {
-                logger.info("No active floor plan found");
+                logger.debug("No active floor plan found");
                 return Optional.empty();
             }
             
-            FloorPlan floorPlan = activeFloorPlans.get(0);
-            logger.info("Found active floor plan: {}", floorPlan.getName());
-            
-            // Manually load areas for this floor plan
-            try {
-                List<Area> areas = areaRepository.findByFloorPlanIdAndActiveTrueOrderByNameAsc(floorPlan.getId());
-                logger.info("Found {} areas for floor plan", areas.size());
-                
-                // Load tables for each area
-                for (Area area : areas) {
-                    try {
-                        List<RestaurantTable> tables = tableRepository.findByAreaIdAndActiveTrueOrderByTableNumberAsc(area.getId());
-                        area.setTables(tables);
-                        logger.info("Area '{}' has {} tables", area.getName(), tables.size());
-                    } catch (Exception e) {
-                        logger.warn("Error loading tables for area {}: {}", area.getName(), e.getMessage());
-                        area.setTables(List.of()); // Set empty list on error
-                    }
-                }
-                
-                floorPlan.setAreas(areas);
-                
-            } catch (Exception e) {
-                logger.warn("Error loading areas for floor plan: {}", e.getMessage());
-                floorPlan.setAreas(List.of()); // Set empty list on error
-            }
-            
-            return Optional.of(floorPlan);
+            return Optional.of(loadView(activeFloorPlans.get(0)));
             
         } catch (DataAccessException e) {
             logger.error("Database error getting active floor plan", e);
@@ -92,49 +68,34 @@ public class FloorPlanService {
     }
 
     @Transactional(readOnly = true)
-    public Optional<FloorPlan> getFloorPlanById(Long id) {
+    public Optional<FloorPlanView> getFloorPlanById(Long id) {
         try {
             if (id == null) {
                 return Optional.empty();
             }
             
-            Optional<FloorPlan> floorPlanOpt = floorPlanRepository.findById(id);
-            
-            if (floorPlanOpt.isPresent()) {
-                FloorPlan floorPlan = floorPlanOpt.get();
-                
-                // Load areas manually
-                try {
-                    List<Area> areas = areaRepository.findByFloorPlanIdAndActiveTrueOrderByNameAsc(id);
-                    
-                    // Load tables for each area
-                    for (Area area : areas) {
-                        try {
-                            List<RestaurantTable> tables = tableRepository.findByAreaIdAndActiveTrueOrderByTableNumberAsc(area.getId());
-                            area.setTables(tables);
-                        } catch (Exception e) {
-                            logger.warn("Error loading tables for area {}: {}", area.getName(), e.getMessage());
-                            area.setTables(List.of());
-                        }
-                    }
-                    
-                    floorPlan.setAreas(areas);
-                    
-                } catch (Exception e) {
-                    logger.warn("Error loading areas for floor plan {}: {}", id, e.getMessage());
-                    floorPlan.setAreas(List.of());
-                }
-                
-                logger.info("Loaded floor plan {} with {} areas", floorPlan.getName(), floorPlan.getAreas().size());
-            }
-            
-            return floorPlanOpt;
+            return floorPlanRepository.findById(id).map(this::loadView);
         } catch (DataAccessException e) {
             logger.error("Database error getting floor plan by ID: {}", id, e);
             throw new RuntimeException("Грешка при пристап до базата на податоци");
         }
     }
 
+    /**
+     * Areas and tables of the plan in two set-based queries, however many areas it has
+     */
+    private FloorPlanView loadView(FloorPlan floorPlan) {
+        List<Area> areas = areaRepository.findByFloorPlanIdAndActiveTrueOrderByNameAsc(floorPlan.getId());
+        List<RestaurantTable> tables = areas.isEmpty()
+            ? List.of()
+            : tableRepository.findActiveByFloorPlanId(floorPlan.getId());
+        
+        FloorPlanView view = FloorPlanView.of(floorPlan, areas, tables);
+        logger.debug("Loaded floor plan {} with {} areas and {} tables",
+            view.getName(), view.getAreas().size(), view.getTotalTables());
+        return view;
+    }
+
     public FloorPlan createFloorPlan(String name, String description) {
         try {
             if (name == null || name.trim().isEmpty()) {
@@ -284,7 +245,7 @@ public class FloorPlanService {
                 int tableNumber = startTableNumber + i;
                 
                 // Check if table already exists to avoid unique constraint violation
-                if (!tableRepository.existsByTableNumberAndActiveTrue(tableNumber)) {
+                if (tableNumberAllocator.reserve(tableNumber)) {
                     RestaurantTable table = new RestaurantTable(tableNumber, 4, area);
                     
                     // Simple positioning
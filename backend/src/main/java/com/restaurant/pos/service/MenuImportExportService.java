@@ -0,0 +1,512 @@
+package com.restaurant.pos.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.pos.entity.MenuItem;
+import com.restaurant.pos.service.menu.MenuCatalog;
+import com.restaurant.pos.service.menu.MenuSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk menu import and export.
+ *
+ * Imports are parsed row by row from the request stream (CSV or a JSON array) and
+ * written with JDBC batch statements, one transaction per batch. Rows are matched by
+ * id, or else by name, and updated; anything else is inserted. Invalid rows are
+ * skipped and reported with their line/position. Exports stream straight from a
+ * database cursor to the response.
+ */
+@Service
+public class MenuImportExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuImportExportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 500;
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private static final String INSERT_SQL =
+        "INSERT INTO menu_items (name, price, category, print_destination, available, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+        "UPDATE menu_items SET name = ?, price = ?, category = ?, print_destination = ?, available = ? WHERE id = ?";
+    private static final String EXPORT_SQL =
+        "SELECT id, name, price, category, print_destination, available FROM menu_items ORDER BY id";
+
+    private static final String[] CSV_COLUMNS = {"id", "name", "price", "category", "printDestination", "available"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Autowired
+    private DatabaseHealthService databaseHealthService;
+
+    @Value("${menu.import.batch.size:200}")
+    private int batchSize;
+
+    /**
+     * Import menu items from a CSV stream (header row with the export column names)
+     */
+    public Map<String, Object> importCsv(InputStream input) throws IOException {
+        ImportRun run = startImport();
+        try {
+            return readCsv(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), run);
+        } finally {
+            run.invalidateCatalog();
+        }
+    }
+
+    /**
+     * Import menu items from a JSON array of objects, read one element at a time
+     */
+    public Map<String, Object> importJson(InputStream input) throws IOException {
+        ImportRun run = startImport();
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            return readJson(parser, run);
+        } finally {
+            run.invalidateCatalog();
+        }
+    }
+
+    private Map<String, Object> readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new IllegalArgumentException("Празна датотека");
+        }
+        if (headerLine.startsWith("\uFEFF")) {
+            headerLine = headerLine.substring(1);
+        }
+        List<String> header = parseCsvLine(headerLine);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(normalizeColumn(header.get(i)), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")
+                || !columns.containsKey("category") || !columns.containsKey("printdestination")) {
+            throw new IllegalArgumentException("Недостасуваат колони: name, price, category, printDestination");
+        }
+
+        String line;
+        int lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            List<String> values = parseCsvLine(line);
+            Map<String, Object> fields = new HashMap<>();
+            columns.forEach((column, index) -> fields.put(column, index < values.size() ? values.get(index) : null));
+            run.accept(lineNumber, fields);
+        }
+        return run.finish();
+    }
+
+    private Map<String, Object> readJson(JsonParser parser, ImportRun run) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Се очекува JSON низа од производи");
+        }
+        // Position of the element being read
+        int position = 1;
+        try {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                if (token == JsonToken.START_OBJECT) {
+                    Map<?, ?> element = objectMapper.readValue(parser, Map.class);
+                    Map<String, Object> fields = new HashMap<>();
+                    element.forEach((key, value) -> fields.put(normalizeColumn(String.valueOf(key)), value));
+                    run.accept(position, fields);
+                } else {
+                    run.reportError(position, "Елементот не е објект");
+                    parser.skipChildren();
+                }
+                position++;
+            }
+        } catch (JsonProcessingException e) {
+            // The rest of the stream cannot be read; the rows before it are still imported
+            run.reportError(position, "Неважечки JSON: " + e.getOriginalMessage());
+        }
+        return run.finish();
+    }
+
+    /**
+     * Write all menu items as CSV without loading the table into memory
+     */
+    public void exportCsv(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(String.join(",", CSV_COLUMNS));
+        writer.write("\n");
+        streamRows(row -> {
+            List<String> values = new ArrayList<>();
+            for (Object value : row.values()) {
+                values.add(csvEscape(value != null ? value.toString() : ""));
+            }
+            writer.write(String.join(",", values));
+            writer.write("\n");
+        });
+        writer.flush();
+    }
+
+    /**
+     * Write all menu items as a JSON array without loading the table into memory
+     */
+    public void exportJson(OutputStream output) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        generator.writeStartArray();
+        streamRows(generator::writeObject);
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    private ImportRun startImport() {
+        if (!databaseHealthService.isDatabaseHealthy()) {
+            throw new RuntimeException("Базата на податоци не е достапна");
+        }
+        return new ImportRun(menuCatalog.getSnapshot());
+    }
+
+    private void streamRows(RowWriter rowWriter) throws IOException {
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(EXPORT_FETCH_SIZE);
+        try {
+            streaming.query(EXPORT_SQL, (RowCallbackHandler) resultSet -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("id", resultSet.getLong("id"));
+                row.put("name", resultSet.getString("name"));
+                row.put("price", resultSet.getBigDecimal("price"));
+                row.put("category", resultSet.getString("category"));
+                row.put("printDestination", resultSet.getString("print_destination"));
+                row.put("available", resultSet.getBoolean("available"));
+                try {
+                    rowWriter.write(row);
+                } catch (IOException e) {
+                    throw new ExportAbortedException(e);
+                }
+            });
+        } catch (ExportAbortedException e) {
+            throw (IOException) e.getCause();
+        }
+    }
+
+    /**
+     * State of one import: pending batch, name lookup and the report
+     */
+    private final class ImportRun {
+        private final Map<String, Long> idsByName = new HashMap<>();
+        private final Set<Long> existingIds = new HashSet<>();
+        private final Set<String> namesInFile = new HashSet<>();
+        private final List<ImportRow> batch = new ArrayList<>();
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+        private int created;
+        private int updated;
+        private int failed;
+        private boolean written;
+
+        ImportRun(MenuSnapshot snapshot) {
+            for (MenuItem item : snapshot.getAllItems()) {
+                idsByName.put(nameKey(item.getName()), item.getId());
+                existingIds.add(item.getId());
+            }
+        }
+
+        void accept(int position, Map<String, Object> fields) {
+            ImportRow row;
+            try {
+                row = ImportRow.parse(position, fields);
+            } catch (IllegalArgumentException e) {
+                reportError(position, e.getMessage());
+                return;
+            }
+
+            if (!namesInFile.add(nameKey(row.name))) {
+                reportError(position, "Производот се повторува во датотеката: " + row.name);
+                return;
+            }
+            if (row.id != null && !existingIds.contains(row.id)) {
+                reportError(position, "Производ со ID " + row.id + " не постои");
+                return;
+            }
+            if (row.id == null) {
+                row.id = idsByName.get(nameKey(row.name));
+            }
+
+            batch.add(row);
+            if (batch.size() >= Math.max(batchSize, 1)) {
+                flush();
+            }
+        }
+
+        Map<String, Object> finish() {
+            flush();
+            logger.info("Menu import finished: {} created, {} updated, {} failed", created, updated, failed);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("created", created);
+            result.put("updated", updated);
+            result.put("failed", failed);
+            result.put("errors", errors);
+            return result;
+        }
+
+        /**
+         * Make committed batches visible to the catalog, also when the import stopped part way
+         */
+        void invalidateCatalog() {
+            if (written) {
+                menuCatalog.invalidate();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<ImportRow> rows = new ArrayList<>(batch);
+            batch.clear();
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(rows));
+                count(rows);
+            } catch (DataAccessException e) {
+                // Find the rows that failed - each one in its own transaction
+                logger.warn("Menu import batch failed, retrying {} rows one by one: {}", rows.size(), e.getMessage());
+                for (ImportRow row : rows) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> write(List.of(row)));
+                        count(List.of(row));
+                    } catch (DataAccessException rowError) {
+                        reportError(row.position, "Грешка при зачувување: " + rowError.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+        }
+
+        private void write(List<ImportRow> rows) {
+            List<Object[]> inserts = new ArrayList<>();
+            List<Object[]> updates = new ArrayList<>();
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (ImportRow row : rows) {
+                if (row.id != null) {
+                    updates.add(new Object[]{row.name, row.price, row.category.name(), row.printDestination.name(),
+                        row.available != null ? row.available : Boolean.TRUE, row.id});
+                } else {
+                    inserts.add(new Object[]{row.name, row.price, row.category.name(), row.printDestination.name(),
+                        row.available != null ? row.available : Boolean.TRUE, now});
+                }
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            }
+        }
+
+        private void count(List<ImportRow> rows) {
+            written = true;
+            for (ImportRow row : rows) {
+                if (row.id != null) {
+                    updated++;
+                } else {
+                    created++;
+                }
+            }
+        }
+
+        void reportError(int position, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(Map.of("row", position, "error", message));
+            }
+        }
+    }
+
+    /**
+     * One validated import row
+     */
+    private static final class ImportRow {
+        private final int position;
+        private Long id;
+        private final String name;
+        private final BigDecimal price;
+        private final MenuItem.Category category;
+        private final MenuItem.PrintDestination printDestination;
+        private final Boolean available;
+
+        private ImportRow(int position, Long id, String name, BigDecimal price, MenuItem.Category category,
+                          MenuItem.PrintDestination printDestination, Boolean available) {
+            this.position = position;
+            this.id = id;
+            this.name = name;
+            this.price = price;
+            this.category = category;
+            this.printDestination = printDestination;
+            this.available = available;
+        }
+
+        static ImportRow parse(int position, Map<String, Object> fields) {
+            String name = text(fields.get("name"));
+            if (name == null) {
+                throw new IllegalArgumentException("Името е задолжително");
+            }
+
+            BigDecimal price;
+            try {
+                String priceText = text(fields.get("price"));
+                price = priceText != null ? new BigDecimal(priceText.replace(',', '.')) : null;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Неважечка цена: " + fields.get("price"));
+            }
+            if (price == null || price.signum() <= 0) {
+                throw new IllegalArgumentException("Цената мора да биде позитивна");
+            }
+
+            MenuItem.Category category = parseCategory(text(fields.get("category")));
+            MenuItem.PrintDestination destination = parseDestination(text(fields.get("printdestination")));
+
+            Long id = null;
+            String idText = text(fields.get("id"));
+            if (idText != null) {
+                try {
+                    id = Long.parseLong(idText);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Неважечко ID: " + idText);
+                }
+            }
+
+            String availableText = text(fields.get("available"));
+            Boolean available = availableText != null ? Boolean.valueOf(availableText.trim()) : null;
+
+            return new ImportRow(position, id, name, price, category, destination, available);
+        }
+
+        // Accepts the enum name (ХРАНА) or the display name (Храна)
+        private static MenuItem.Category parseCategory(String value) {
+            if (value != null) {
+                for (MenuItem.Category category : MenuItem.Category.values()) {
+                    if (category.name().equalsIgnoreCase(value) || category.getDisplayName().equalsIgnoreCase(value)) {
+                        return category;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Неважечка категорија: " + value);
+        }
+
+        private static MenuItem.PrintDestination parseDestination(String value) {
+            if (value != null) {
+                for (MenuItem.PrintDestination destination : MenuItem.PrintDestination.values()) {
+                    if (destination.name().equalsIgnoreCase(value) || destination.getDisplayName().equalsIgnoreCase(value)) {
+                        return destination;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Неважечка дестинација: " + value);
+        }
+
+        private static String text(Object value) {
+            if (value == null) {
+                return null;
+            }
+            String text = value.toString().trim();
+            return text.isEmpty() ? null : text;
+        }
+    }
+
+    // Column names are matched without case, spaces and underscores (printDestination = print_destination)
+    private static String normalizeColumn(String column) {
+        return column.trim().replace("_", "").replace(" ", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String nameKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Split one CSV line (RFC 4180 quoting, no line breaks inside fields)
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String csvEscape(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private interface RowWriter {
+        void write(Map<String, Object> row) throws IOException;
+    }
+
+    private static final class ExportAbortedException extends RuntimeException {
+        ExportAbortedException(IOException cause) {
+            super(cause);
+        }
+    }
+}
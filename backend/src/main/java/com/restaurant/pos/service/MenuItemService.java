@@ -1,8 +1,21 @@
 package com.restaurant.pos.service;
 
+import com.restaurant.pos.entity.AvailabilitySchedule;
 import com.restaurant.pos.entity.MenuItem;
+import com.restaurant.pos.entity.MenuItemPrice;
+import com.restaurant.pos.dto.AvailabilityScheduleRequest;
+import com.restaurant.pos.dto.MenuItemPriceRequest;
 import com.restaurant.pos.dto.MenuItemRequest;
+import com.restaurant.pos.repository.AvailabilityScheduleRepository;
+import com.restaurant.pos.repository.MenuItemPriceRepository;
 import com.restaurant.pos.repository.MenuItemRepository;
+import com.restaurant.pos.service.menu.AvailabilityIndex;
+import com.restaurant.pos.service.menu.MenuCatalog;
+import com.restaurant.pos.service.menu.MenuChangeLog;
+import com.restaurant.pos.service.menu.MenuPopularity;
+import com.restaurant.pos.service.menu.MenuSearchIndex;
+import com.restaurant.pos.service.menu.MenuSnapshot;
+import com.restaurant.pos.service.menu.PriceTimeline;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -10,7 +23,11 @@ import org.springframework.dao.DataAccessException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -24,11 +41,47 @@ public class MenuItemService {
     
     @Autowired
     private DatabaseHealthService databaseHealthService;
+    
+    @Autowired
+    private MenuCatalog menuCatalog;
+    
+    @Autowired
+    private MenuSearchIndex menuSearchIndex;
+    
+    @Autowired
+    private MenuPopularity menuPopularity;
+    
+    @Autowired
+    private MenuChangeLog menuChangeLog;
+    
+    @Autowired
+    private MenuItemPriceRepository menuItemPriceRepository;
+    
+    @Autowired
+    private PriceTimeline priceTimeline;
+    
+    @Autowired
+    private AvailabilityScheduleRepository availabilityScheduleRepository;
+    
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    /**
+     * Current menu snapshot (its version is the ETag of the menu endpoints)
+     */
+    public MenuSnapshot getMenuSnapshot() {
+        try {
+            return menuCatalog.getSnapshot();
+        } catch (DataAccessException e) {
+            logger.error("Database error loading menu catalog", e);
+            throw new RuntimeException("Грешка при пристап до базата на податоци");
+        }
+    }
 
     @Transactional(readOnly = true)
     public List<MenuItem> getAllAvailableItems() {
         try {
-            return menuItemRepository.findByAvailableTrueOrderByNameAsc();
+            return menuCatalog.getSnapshot().getAvailableItems();
         } catch (DataAccessException e) {
             logger.error("Database error getting available items", e);
             throw new RuntimeException("Грешка при пристап до базата на податоци");
@@ -38,7 +91,7 @@ public class MenuItemService {
     @Transactional(readOnly = true)
     public List<MenuItem> getAllItems() {
         try {
-            return menuItemRepository.findAllByOrderByNameAsc();
+            return menuCatalog.getSnapshot().getAllItems();
         } catch (DataAccessException e) {
             logger.error("Database error getting all items", e);
             throw new RuntimeException("Грешка при пристап до базата на податоци");
@@ -48,7 +101,7 @@ public class MenuItemService {
     @Transactional(readOnly = true)
     public List<MenuItem> getItemsByCategory(MenuItem.Category category) {
         try {
-            return menuItemRepository.findByCategoryAndAvailableTrueOrderByNameAsc(category);
+            return menuCatalog.getSnapshot().getAvailableItems(category);
         } catch (DataAccessException e) {
             logger.error("Database error getting items by category", e);
             throw new RuntimeException("Грешка при пристап до базата на податоци");
@@ -83,6 +136,7 @@ public class MenuItemService {
             menuItem.setAvailable(true);
 
             MenuItem savedItem = menuItemRepository.save(menuItem);
+            menuCatalog.invalidateAfterCommit();
             logger.info("Created menu item: {} with ID: {}", savedItem.getName(), savedItem.getId());
             return savedItem;
         } catch (DataAccessException e) {
@@ -110,6 +164,7 @@ public class MenuItemService {
             menuItem.setPrintDestination(MenuItem.PrintDestination.valueOf(request.getPrintDestination()));
 
             MenuItem updatedItem = menuItemRepository.save(menuItem);
+            menuCatalog.invalidateAfterCommit();
             logger.info("Updated menu item: {} with ID: {}", updatedItem.getName(), updatedItem.getId());
             return updatedItem;
         } catch (DataAccessException e) {
@@ -135,6 +190,11 @@ public class MenuItemService {
             }
             
             menuItemRepository.deleteById(id);
+            menuItemPriceRepository.deleteByMenuItemId(id);
+            availabilityScheduleRepository.deleteByMenuItemId(id);
+            availabilityIndex.reloadAfterCommit();
+            menuCatalog.invalidateAfterCommit();
+            priceTimeline.reloadAfterCommit();
             logger.info("Deleted menu item with ID: {}", id);
         } catch (DataAccessException e) {
             logger.error("Database error deleting item with ID: {}", id, e);
@@ -154,6 +214,7 @@ public class MenuItemService {
 
             menuItem.setAvailable(!menuItem.getAvailable());
             MenuItem updatedItem = menuItemRepository.save(menuItem);
+            menuCatalog.invalidateAfterCommit();
             
             logger.info("Toggled availability for menu item: {} (ID: {}) to: {}", 
                 updatedItem.getName(), updatedItem.getId(), updatedItem.getAvailable());
@@ -164,13 +225,219 @@ public class MenuItemService {
         }
     }
 
+    /**
+     * Price of the item right now: a scheduled price (happy hour, weekend) if one applies, else the regular price
+     */
+    public BigDecimal getCurrentPrice(MenuItem menuItem) {
+        BigDecimal override = priceTimeline.getCurrentPrice(menuItem.getId());
+        return override != null ? override : menuItem.getPrice();
+    }
+
+    /**
+     * Scheduled prices in effect right now, by menu item id, and when they change next
+     */
+    public Map<String, Object> getCurrentPrices() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("prices", priceTimeline.getCurrentPrices());
+        result.put("nextSwitch", priceTimeline.getNextSwitch());
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public List<MenuItemPrice> getPrices(Long menuItemId) {
+        try {
+            return menuItemPriceRepository.findByMenuItemIdAndActiveTrueOrderByIdAsc(menuItemId);
+        } catch (DataAccessException e) {
+            logger.error("Database error getting prices for item: {}", menuItemId, e);
+            throw new RuntimeException("Грешка при пристап до базата на податоци");
+        }
+    }
+
+    public MenuItemPrice addPrice(Long menuItemId, MenuItemPriceRequest request) {
+        try {
+            if (!menuItemRepository.existsById(menuItemId)) {
+                throw new RuntimeException("Производот не е пронајден");
+            }
+            if (request.getValidFrom() != null && request.getValidTo() != null
+                    && request.getValidTo().isBefore(request.getValidFrom())) {
+                throw new RuntimeException("Крајниот датум е пред почетниот");
+            }
+            if ((request.getStartTime() == null) != (request.getEndTime() == null)) {
+                throw new RuntimeException("Внесете почетно и крајно време");
+            }
+
+            MenuItemPrice price = new MenuItemPrice();
+            price.setMenuItemId(menuItemId);
+            price.setPrice(request.getPrice());
+            price.setLabel(request.getLabel());
+            price.setDaysOfWeek(joinDays(request.getDaysOfWeek()));
+            price.setStartTime(request.getStartTime());
+            price.setEndTime(request.getEndTime());
+            price.setValidFrom(request.getValidFrom());
+            price.setValidTo(request.getValidTo());
+
+            MenuItemPrice saved = menuItemPriceRepository.save(price);
+            priceTimeline.reloadAfterCommit();
+            logger.info("Added price {} for menu item {} (days: {}, {} - {})", saved.getPrice(), menuItemId,
+                saved.getDaysOfWeek(), saved.getStartTime(), saved.getEndTime());
+            return saved;
+        } catch (DataAccessException e) {
+            logger.error("Database error adding price for item: {}", menuItemId, e);
+            throw new RuntimeException("Грешка при зачувување на цената");
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid day of week for item price: {}", menuItemId, e);
+            throw new RuntimeException("Неважечки ден во неделата");
+        }
+    }
+
+    public void deletePrice(Long priceId) {
+        try {
+            MenuItemPrice price = menuItemPriceRepository.findById(priceId)
+                .orElseThrow(() -> new RuntimeException("Цената не е пронајдена"));
+            price.setActive(false);
+            menuItemPriceRepository.save(price);
+            priceTimeline.reloadAfterCommit();
+            logger.info("Removed price {} of menu item {}", priceId, price.getMenuItemId());
+        } catch (DataAccessException e) {
+            logger.error("Database error deleting price: {}", priceId, e);
+            throw new RuntimeException("Грешка при бришење на цената");
+        }
+    }
+
+    /**
+     * Whether the item's availability schedule allows ordering it right now (in-memory bitmap lookup)
+     */
+    public boolean isInScheduleNow(MenuItem menuItem) {
+        return availabilityIndex.isInScheduleNow(menuItem);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AvailabilitySchedule> getSchedules() {
+        try {
+            return availabilityScheduleRepository.findByActiveTrueOrderByIdAsc();
+        } catch (DataAccessException e) {
+            logger.error("Database error getting availability schedules", e);
+            throw new RuntimeException("Грешка при пристап до базата на податоци");
+        }
+    }
+
+    public AvailabilitySchedule addSchedule(AvailabilityScheduleRequest request) {
+        try {
+            boolean forItem = request.getMenuItemId() != null;
+            boolean forCategory = request.getCategory() != null && !request.getCategory().isBlank();
+            if (forItem == forCategory) {
+                throw new RuntimeException("Изберете производ или категорија");
+            }
+            if (forItem && !menuItemRepository.existsById(request.getMenuItemId())) {
+                throw new RuntimeException("Производот не е пронајден");
+            }
+            if ((request.getStartTime() == null) != (request.getEndTime() == null)) {
+                throw new RuntimeException("Внесете почетно и крајно време");
+            }
+
+            AvailabilitySchedule schedule = new AvailabilitySchedule();
+            schedule.setMenuItemId(request.getMenuItemId());
+            schedule.setCategory(forCategory ? MenuItem.Category.valueOf(request.getCategory()) : null);
+            schedule.setLabel(request.getLabel());
+            schedule.setDaysOfWeek(joinDays(request.getDaysOfWeek()));
+            schedule.setStartTime(request.getStartTime());
+            schedule.setEndTime(request.getEndTime());
+
+            AvailabilitySchedule saved = availabilityScheduleRepository.save(schedule);
+            availabilityIndex.reloadAfterCommit();
+            menuCatalog.invalidateAfterCommit();
+            logger.info("Added availability schedule {} for {} (days: {}, {} - {})", saved.getId(),
+                forItem ? "item " + saved.getMenuItemId() : saved.getCategory(),
+                saved.getDaysOfWeek(), saved.getStartTime(), saved.getEndTime());
+            return saved;
+        } catch (DataAccessException e) {
+            logger.error("Database error adding availability schedule", e);
+            throw new RuntimeException("Грешка при зачувување на распоредот");
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid category or day of week for availability schedule", e);
+            throw new RuntimeException("Неважечка категорија или ден во неделата");
+        }
+    }
+
+    public void deleteSchedule(Long scheduleId) {
+        try {
+            AvailabilitySchedule schedule = availabilityScheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new RuntimeException("Распоредот не е пронајден"));
+            schedule.setActive(false);
+            availabilityScheduleRepository.save(schedule);
+            availabilityIndex.reloadAfterCommit();
+            menuCatalog.invalidateAfterCommit();
+            logger.info("Removed availability schedule {}", scheduleId);
+        } catch (DataAccessException e) {
+            logger.error("Database error deleting availability schedule: {}", scheduleId, e);
+            throw new RuntimeException("Грешка при бришење на распоредот");
+        }
+    }
+
+    private static String joinDays(List<String> days) {
+        if (days == null || days.isEmpty()) {
+            return null;
+        }
+        return days.stream()
+            .map(day -> DayOfWeek.valueOf(day.trim().toUpperCase()).name())
+            .distinct()
+            .reduce((a, b) -> a + "," + b)
+            .orElse(null);
+    }
+
+    /**
+     * Menu changes since a catalog version for a terminal's local copy.
+     * When the version is too old (or from before a restart) the full menu is returned instead.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getChangesSince(long since, String terminalId) {
+        MenuSnapshot snapshot = getMenuSnapshot();
+        List<Map<String, Object>> changes = menuChangeLog.changesSince(since, snapshot, terminalId);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", snapshot.getVersion());
+        result.put("full", changes == null);
+        if (changes == null) {
+            result.put("items", snapshot.getAllItems());
+        } else {
+            result.put("changes", changes);
+        }
+        return result;
+    }
+
+    /**
+     * Most sold available items (optionally of one category), from the live sales counters
+     */
+    @Transactional(readOnly = true)
+    public List<MenuItem> getTopItems(MenuItem.Category category, int limit) {
+        MenuSnapshot snapshot = getMenuSnapshot();
+        List<MenuItem> items = category != null ? snapshot.getAvailableItems(category) : snapshot.getAvailableItems();
+        return menuPopularity.top(items, limit);
+    }
+
+    /**
+     * Count quantities sent to the kitchen/bar towards item popularity (after the order commits)
+     */
+    public void recordSales(Map<Long, Integer> quantitiesByMenuItem) {
+        menuPopularity.recordSalesAfterCommit(quantitiesByMenuItem);
+    }
+
     @Transactional(readOnly = true)
     public List<MenuItem> searchItems(String searchTerm) {
+        return searchItems(searchTerm, true);
+    }
+
+    /**
+     * Search available items; with fuzzy matching, misspelled words match too (ranked lower)
+     */
+    @Transactional(readOnly = true)
+    public List<MenuItem> searchItems(String searchTerm, boolean fuzzy) {
         try {
             if (searchTerm == null || searchTerm.trim().isEmpty()) {
                 return getAllAvailableItems();
             }
-            return menuItemRepository.findByNameContainingIgnoreCaseAndAvailableTrueOrderByNameAsc(searchTerm.trim());
+            // Ranked, transliteration-aware lookup in the catalog's search index
+            return menuSearchIndex.search(searchTerm, menuCatalog.getSnapshot(), fuzzy);
         } catch (DataAccessException e) {
             logger.error("Database error searching items with term: {}", searchTerm, e);
             throw new RuntimeException("Грешка при пребарување на производи");
@@ -6,15 +6,20 @@ import com.restaurant.pos.entity.MenuItem;
 import com.restaurant.pos.dto.OrderItemRequest;
 import com.restaurant.pos.repository.OrderRepository;
 import com.restaurant.pos.repository.OrderItemRepository;
+import com.restaurant.pos.service.floorplan.TableBoard;
+import com.restaurant.pos.service.printing.StationTicket;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -38,6 +43,9 @@ public class OrderService {
     @Autowired
     private DatabaseHealthService databaseHealthService;
 
+    @Autowired
+    private TableBoard tableBoard;
+
     @Transactional(readOnly = true)
     public List<Order> getAllActiveOrders() {
         try {
@@ -125,6 +133,7 @@ public class OrderService {
             
             Order savedOrder = orderRepository.save(newOrder);
             orderRepository.flush(); // Ensure immediate persistence
+            tableBoard.updateAfterCommit(savedOrder);
             
             logger.info("Successfully created new order for table {}: ID {}", 
                 tableNumber, savedOrder.getId());
@@ -176,6 +185,7 @@ public class OrderService {
             
             Order savedOrder = orderRepository.save(order);
             orderRepository.flush();
+            tableBoard.updateAfterCommit(savedOrder);
             
             logger.info("Successfully moved order {} from table {} to table {}", 
                 orderId, oldTableNumber, newTableNumber);
@@ -205,10 +215,18 @@ public class OrderService {
                 throw new RuntimeException("Производот не е достапен");
             }
 
-            // Check for existing item
+            if (!menuItemService.isInScheduleNow(menuItem)) {
+                throw new RuntimeException("Производот не е достапен во ова време");
+            }
+
+            // Price in effect right now (scheduled prices are resolved in memory)
+            BigDecimal unitPrice = menuItemService.getCurrentPrice(menuItem);
+
+            // Check for existing item at the same price
             Optional<OrderItem> existingItem = order.getItems().stream()
                 .filter(item -> item.getMenuItem().getId().equals(menuItemId) && 
-                               (notes == null ? item.getNotes() == null : notes.equals(item.getNotes())))
+                               (notes == null ? item.getNotes() == null : notes.equals(item.getNotes())) &&
+                               item.getUnitPrice().compareTo(unitPrice) == 0)
                 .findFirst();
 
             if (existingItem.isPresent()) {
@@ -221,6 +239,8 @@ public class OrderService {
             } else {
                 // Create new item
                 OrderItem newItem = new OrderItem(order, menuItem, quantity, notes);
+                newItem.setUnitPrice(unitPrice);
+                newItem.calculateTotalPrice();
                 order.getItems().add(newItem);
                 orderItemRepository.save(newItem);
                 logger.info("Added new item to order");
@@ -238,6 +258,7 @@ public class OrderService {
             
             Order savedOrder = orderRepository.save(order);
             orderRepository.flush();
+            tableBoard.updateAfterCommit(savedOrder);
             
             logger.info("Successfully added item to order {}. New total: {}, New status: {}", 
                 orderId, savedOrder.getTotalAmount(), savedOrder.getStatus());
@@ -278,6 +299,7 @@ public class OrderService {
             
             Order savedOrder = orderRepository.save(order);
             orderRepository.flush();
+            tableBoard.updateAfterCommit(savedOrder);
             
             logger.info("Successfully removed item from order {}. New total: {}", 
                 orderId, savedOrder.getTotalAmount());
@@ -314,6 +336,7 @@ public class OrderService {
             
             Order savedOrder = orderRepository.save(order);
             orderRepository.flush();
+            tableBoard.updateAfterCommit(savedOrder);
             
             logger.info("Admin successfully removed item from order {}. New total: {}", 
                 orderId, savedOrder.getTotalAmount());
@@ -370,6 +393,7 @@ public class OrderService {
             
             Order savedOrder = orderRepository.save(order);
             orderRepository.flush();
+            tableBoard.updateAfterCommit(savedOrder);
             
             logger.info("Successfully updated item quantity in order {}. New total: {}, New status: {}", 
                 orderId, savedOrder.getTotalAmount(), savedOrder.getStatus());
@@ -414,9 +438,14 @@ public class OrderService {
                 throw new RuntimeException("Нема нови производи за испраќање");
             }
 
+            // Snapshot the new items per kitchen/bar before they are marked as sent
+            List<StationTicket> tickets = printerService.collectPendingTickets(order);
+
             // Mark items as sent
+            Map<Long, Integer> sentQuantities = new HashMap<>();
             for (OrderItem item : order.getItems()) {
                 if (item.getPendingQuantity() > 0) {
+                    sentQuantities.merge(item.getMenuItem().getId(), item.getPendingQuantity(), Integer::sum);
                     item.markAllAsSent();
                     orderItemRepository.save(item);
                 }
@@ -427,10 +456,12 @@ public class OrderService {
             order.setUpdatedAt(LocalDateTime.now());
             orderRepository.save(order);
             orderRepository.flush();
+            tableBoard.updateAfterCommit(order);
+            menuItemService.recordSales(sentQuantities);
 
             // Print tickets to kitchen/bar
             try {
-                printerService.printOrderTickets(order);
+                printerService.printStationTickets(tickets);
                 logger.info("Order tickets printed for order {}", orderId);
             } catch (Exception e) {
                 logger.warn("Failed to print order tickets for order {}: {}", orderId, e.getMessage());
@@ -471,6 +502,7 @@ public class OrderService {
             order.setUpdatedAt(LocalDateTime.now());
             orderRepository.save(order);
             orderRepository.flush();
+            tableBoard.updateAfterCommit(order);
             
             logger.info("Order {} status changed to CLOSED", orderId);
 
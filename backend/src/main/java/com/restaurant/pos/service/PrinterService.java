@@ -3,19 +3,36 @@ package com.restaurant.pos.service;
 import com.restaurant.pos.entity.Order;
 import com.restaurant.pos.entity.OrderItem;
 import com.restaurant.pos.entity.MenuItem;
+import com.restaurant.pos.repository.OrderRepository;
+import com.restaurant.pos.service.fiscal.FiscalSpoolJournal;
 import com.restaurant.pos.service.fiscal.MacedonianFiscalPrinter;
 import com.restaurant.pos.service.thermal.EpsonThermalPrinter;
+import com.restaurant.pos.service.thermal.PrintServiceRegistry;
+import com.restaurant.pos.service.printing.PrinterRoutingTable;
+import com.restaurant.pos.service.printing.PrinterStatusPoller;
+import com.restaurant.pos.service.printing.PrinterTarget;
+import com.restaurant.pos.service.printing.RenderedPayloadStore;
+import com.restaurant.pos.service.printing.StationDispatcher;
+import com.restaurant.pos.service.printing.StationTicket;
+import com.restaurant.pos.service.printing.TicketCoalescer;
+import com.restaurant.pos.service.printing.TicketLine;
+import com.restaurant.pos.service.printing.VirtualPrinter;
 import com.restaurant.pos.dto.PrinterConfiguration;
 import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.HashMap;
 import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.time.format.DateTimeFormatter;
 
 @Service
@@ -49,6 +66,30 @@ public class PrinterService {
     @Value("${printer.thermal.port:9100}")
     private int thermalPrinterPort;
     
+    @Autowired
+    private TicketCoalescer ticketCoalescer;
+    
+    @Autowired
+    private FiscalSpoolJournal fiscalSpoolJournal;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private PrinterRoutingTable routingTable;
+    
+    @Autowired
+    private StationDispatcher stationDispatcher;
+    
+    @Autowired
+    private RenderedPayloadStore payloadStore;
+    
+    @Autowired
+    private PrinterStatusPoller statusPoller;
+    
+    @Autowired
+    private VirtualPrinter virtualPrinter;
+    
     // Printer instances
     private MacedonianFiscalPrinter fiscalPrinter;
     private EpsonThermalPrinter thermalPrinter;
@@ -64,8 +105,12 @@ public class PrinterService {
             
             // Initialize thermal printer
             if (thermalPrinterEnabled) {
-                thermalPrinter = new EpsonThermalPrinter(thermalPrinterName, thermalConnection, thermalPrinterIP, thermalPrinterPort);
+                PrinterTarget defaultTarget = new PrinterTarget(thermalConnection, thermalPrinterName, thermalPrinterIP, thermalPrinterPort);
+                thermalPrinter = defaultTarget.getPrinter();
+                routingTable.setDefaultTarget(defaultTarget);
                 logger.info("Thermal printer initialized: {} via {}", thermalPrinterName, thermalConnection);
+            } else {
+                routingTable.setDefaultTarget(null);
             }
         } catch (Exception e) {
             logger.error("Error initializing printers", e);
@@ -77,59 +122,87 @@ public class PrinterService {
      * Now only prints NEW (unsent) items
      */
     public void printOrderTickets(Order order) {
-        try {
-            if (!thermalPrinterEnabled || thermalPrinter == null) {
-                logger.warn("Thermal printer is disabled or not initialized");
-                printSimulatedTickets(order);
-                return;
-            }
-            
-            // FIXED: Separate NEW items by print destination
-            List<OrderItem> newKitchenItems = order.getItems().stream()
-                .filter(item -> {
-                    // Check if it's a kitchen item
-                    boolean isKitchen = item.getMenuItem().getPrintDestination() == MenuItem.PrintDestination.КУЈНА;
-                    // Check if it has pending (unsent) quantity
-                    int pendingQty = item.getQuantity() - (item.getSentQuantity() != null ? item.getSentQuantity() : 0);
-                    return isKitchen && pendingQty > 0;
-                })
-                .toList();
-            
-            List<OrderItem> newBarItems = order.getItems().stream()
-                .filter(item -> {
-                    // Check if it's a bar item
-                    boolean isBar = item.getMenuItem().getPrintDestination() == MenuItem.PrintDestination.БАР;
-                    // Check if it has pending (unsent) quantity
-                    int pendingQty = item.getQuantity() - (item.getSentQuantity() != null ? item.getSentQuantity() : 0);
-                    return isBar && pendingQty > 0;
-                })
-                .toList();
-            
-            logger.info("Printing tickets for order {}: {} new kitchen items, {} new bar items", 
-                order.getId(), newKitchenItems.size(), newBarItems.size());
-            
-            // Print kitchen ticket if there are NEW kitchen items
-            if (!newKitchenItems.isEmpty()) {
-                thermalPrinter.printKitchenTicket(order, newKitchenItems);
-                logger.info("Kitchen ticket printed for order {} with {} new items", order.getId(), newKitchenItems.size());
-            }
-            
-            // Print bar ticket if there are NEW bar items
-            if (!newBarItems.isEmpty()) {
-                thermalPrinter.printBarTicket(order, newBarItems);
-                logger.info("Bar ticket printed for order {} with {} new items", order.getId(), newBarItems.size());
-            }
-            
-            // Log if no new items to print
-            if (newKitchenItems.isEmpty() && newBarItems.isEmpty()) {
-                logger.info("No new items to print for order {}", order.getId());
+        printStationTickets(collectPendingTickets(order));
+    }
+    
+    /**
+     * Snapshot the NEW (unsent) items of an order as one ticket per print destination.
+     * Must be called before the items are marked as sent.
+     */
+    public List<StationTicket> collectPendingTickets(Order order) {
+        Map<MenuItem.PrintDestination, List<TicketLine>> linesByDestination = new EnumMap<>(MenuItem.PrintDestination.class);
+        
+        for (OrderItem item : order.getItems()) {
+            int pendingQty = item.getQuantity() - (item.getSentQuantity() != null ? item.getSentQuantity() : 0);
+            if (pendingQty <= 0) {
+                continue;
             }
-            
-        } catch (Exception e) {
-            logger.error("Error printing order tickets for order {}", order.getId(), e);
-            // Fallback to simulated printing
-            printSimulatedTickets(order);
+            MenuItem menuItem = item.getMenuItem();
+            linesByDestination
+                .computeIfAbsent(menuItem.getPrintDestination(), destination -> new ArrayList<>())
+                .add(new TicketLine(menuItem.getId(), menuItem.getName(), pendingQty, item.getNotes()));
         }
+        
+        List<StationTicket> tickets = new ArrayList<>();
+        linesByDestination.forEach((destination, lines) -> tickets.add(
+            new StationTicket(order.getId(), order.getTableNumber(), destination, order.getCreatedAt(), lines)));
+        return tickets;
+    }
+    
+    /**
+     * Print kitchen/bar tickets, merging rapid successive sends for the same
+     * table when a coalescing window is configured for the destination
+     */
+    public void printStationTickets(List<StationTicket> tickets) {
+        if (tickets.isEmpty()) {
+            logger.info("No new items to print");
+            return;
+        }
+        
+        for (StationTicket ticket : tickets) {
+            logger.info("Queueing {} ticket for order {} with {} new items", 
+                ticket.getDestination(), ticket.getOrderId(), ticket.getLines().size());
+            ticketCoalescer.submit(ticket, this::dispatchStationTicket);
+        }
+    }
+    
+    private void dispatchStationTicket(StationTicket ticket) {
+        if (!thermalPrinterEnabled || routingTable.getTargets(ticket.getDestination()).isEmpty()) {
+            logger.warn("Thermal printer is disabled or no printer is routed for {}", ticket.getDestination());
+            printSimulatedTicket(ticket);
+            return;
+        }
+        
+        // Printed on the station's own worker, falling back to simulated printing
+        stationDispatcher.dispatch(ticket, this::printSimulatedTicket);
+    }
+    
+    /**
+     * Get kitchen/bar printer routes (primary first, then backups)
+     */
+    public Map<String, Object> getPrinterRoutes() {
+        return routingTable.describeRoutes();
+    }
+    
+    /**
+     * Routes with the real-time status of each printer (paper, cover, errors)
+     */
+    public Map<String, Object> getPrinterStatus(boolean refresh) {
+        if (refresh) {
+            statusPoller.pollAll();
+        }
+        return routingTable.describeRoutes();
+    }
+    
+    /**
+     * Update kitchen/bar printer routes at runtime
+     */
+    public void updatePrinterRoutes(Map<String, List<String>> routes) {
+        Map<MenuItem.PrintDestination, List<String>> specs = new EnumMap<>(MenuItem.PrintDestination.class);
+        routes.forEach((destination, targets) -> 
+            specs.put(MenuItem.PrintDestination.valueOf(destination), targets != null ? targets : List.of()));
+        routingTable.updateRoutes(specs);
+        logger.info("Printer routes updated");
     }
     
     /**
@@ -143,7 +216,7 @@ public class PrinterService {
                 return;
             }
             
-            fiscalPrinter.printFiscalReceipt(order);
+            issueFiscalReceipt(order, null);
             logger.info("Fiscal receipt printed for order {}", order.getId());
             
         } catch (Exception e) {
@@ -153,6 +226,121 @@ public class PrinterService {
         }
     }
     
+    /**
+     * Print fiscal receipt through the spool journal, so an interrupted receipt
+     * can be reconciled after a crash. A re-issued job (replacedJobId) stays open
+     * until the new job has taken over the receipt.
+     */
+    private void issueFiscalReceipt(Order order, Long replacedJobId) throws Exception {
+        long jobId = fiscalSpoolJournal.accept(order.getId(), order.getTotalAmount());
+        AtomicBoolean framesSent = new AtomicBoolean(false);
+        
+        try {
+            fiscalPrinter.printFiscalReceipt(order, () -> {
+                fiscalSpoolJournal.framesSent(jobId);
+                framesSent.set(true);
+            });
+            fiscalSpoolJournal.deviceAcknowledged(jobId);
+        } catch (Exception e) {
+            if (!framesSent.get()) {
+                // Nothing reached the device - a replaced job stays open for the next attempt
+                fiscalSpoolJournal.aborted(jobId);
+            } else {
+                logger.warn("Fiscal job {} for order {} was interrupted on the device and needs reconciliation", 
+                    jobId, order.getId());
+                // The new job is now the open one for this order; issuing the old one again could duplicate the receipt
+                if (replacedJobId != null) {
+                    fiscalSpoolJournal.aborted(replacedJobId);
+                }
+            }
+            throw e;
+        }
+        
+        if (replacedJobId != null) {
+            fiscalSpoolJournal.aborted(replacedJobId);
+        }
+        
+        fiscalSpoolJournal.closed(jobId);
+        payloadStore.store(order.getId(), RenderedPayloadStore.PayloadKind.FISCAL_RECEIPT, null);
+    }
+    
+    /**
+     * Re-issue fiscal receipts that were accepted but never reached the device
+     * before the application stopped
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverFiscalSpool() {
+        List<FiscalSpoolJournal.Job> unsent = fiscalSpoolJournal.getIncompleteJobs().stream()
+            .filter(FiscalSpoolJournal.Job::isSafeToReissue)
+            .toList();
+        if (unsent.isEmpty() || !fiscalPrinterEnabled) {
+            return;
+        }
+        
+        logger.info("Recovering {} unsent fiscal receipts from spool journal", unsent.size());
+        for (FiscalSpoolJournal.Job job : unsent) {
+            try {
+                reissueFiscalJob(job.getJobId());
+            } catch (Exception e) {
+                logger.error("Error recovering fiscal job {} for order {}", job.getJobId(), job.getOrderId(), e);
+            }
+        }
+    }
+    
+    /**
+     * Get fiscal jobs that did not complete
+     */
+    public List<Map<String, Object>> getIncompleteFiscalJobs() {
+        List<Map<String, Object>> jobs = new ArrayList<>();
+        for (FiscalSpoolJournal.Job job : fiscalSpoolJournal.getIncompleteJobs()) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("jobId", job.getJobId());
+            entry.put("orderId", job.getOrderId());
+            entry.put("amount", BigDecimal.valueOf(job.getAmountCents(), 2));
+            entry.put("acceptedAt", job.getAcceptedAt());
+            entry.put("state", job.getState().name());
+            entry.put("safeToReissue", job.isSafeToReissue());
+            jobs.add(entry);
+        }
+        return jobs;
+    }
+    
+    /**
+     * Issue the receipt of an incomplete fiscal job again
+     */
+    public void reissueFiscalJob(long jobId) throws Exception {
+        FiscalSpoolJournal.Job job = fiscalSpoolJournal.getIncompleteJob(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Фискалната задача не е пронајдена");
+        }
+        
+        Order order = orderRepository.findById(job.getOrderId()).orElse(null);
+        if (order == null || order.getStatus() != Order.Status.ЗАТВОРЕНА) {
+            // The close was never committed - the order will be closed (and fiscalized) again
+            logger.info("Order {} of fiscal job {} is not closed, discarding job", job.getOrderId(), jobId);
+            fiscalSpoolJournal.aborted(jobId);
+            return;
+        }
+        
+        if (fiscalPrinter == null) {
+            fiscalPrinter = new MacedonianFiscalPrinter(fiscalPrinterPort, fiscalPrinterType);
+        }
+        
+        issueFiscalReceipt(order, jobId);
+        logger.info("Re-issued fiscal receipt for order {} (job {})", order.getId(), jobId);
+    }
+    
+    /**
+     * Close an incomplete fiscal job after it was checked on the device
+     */
+    public void resolveFiscalJob(long jobId) {
+        if (fiscalSpoolJournal.getIncompleteJob(jobId) == null) {
+            throw new IllegalArgumentException("Фискалната задача не е пронајдена");
+        }
+        fiscalSpoolJournal.closed(jobId);
+        logger.info("Fiscal job {} resolved manually", jobId);
+    }
+    
     /**
      * Print regular receipt using thermal printer (default)
      */
@@ -164,7 +352,9 @@ public class PrinterService {
                 return;
             }
             
-            thermalPrinter.printReceipt(order);
+            byte[] payload = thermalPrinter.renderReceipt(order);
+            payloadStore.store(order.getId(), RenderedPayloadStore.PayloadKind.RECEIPT, payload);
+            thermalPrinter.printRaw(payload);
             logger.info("Thermal receipt printed for order {}", order.getId());
             
         } catch (Exception e) {
@@ -174,6 +364,59 @@ public class PrinterService {
         }
     }
     
+    /**
+     * Get stored tickets and receipts of an order that can be reprinted
+     */
+    public List<Map<String, Object>> getStoredPrintouts(Long orderId) {
+        List<Map<String, Object>> printouts = new ArrayList<>();
+        for (RenderedPayloadStore.StoredPayload payload : payloadStore.findByOrder(orderId)) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("jobId", payload.getJobId());
+            entry.put("orderId", payload.getOrderId());
+            entry.put("kind", payload.getKind().name());
+            entry.put("createdAt", payload.getCreatedAt());
+            printouts.add(entry);
+        }
+        return printouts;
+    }
+    
+    /**
+     * Reprint a stored ticket or receipt without reloading the order.
+     * Fiscal receipts are copied by the fiscal printer (only the last one is possible).
+     */
+    public void reprint(long jobId) throws Exception {
+        RenderedPayloadStore.StoredPayload payload = payloadStore.get(jobId)
+            .orElseThrow(() -> new IllegalArgumentException("Печатењето не е пронајдено"));
+        
+        switch (payload.getKind()) {
+            case FISCAL_RECEIPT -> {
+                long lastFiscalJob = payloadStore.findLatest(RenderedPayloadStore.PayloadKind.FISCAL_RECEIPT)
+                    .map(RenderedPayloadStore.StoredPayload::getJobId)
+                    .orElse(-1L);
+                if (lastFiscalJob != jobId) {
+                    throw new IllegalStateException("Само последната фискална сметка може да се копира");
+                }
+                if (!fiscalPrinterEnabled || fiscalPrinter == null) {
+                    throw new IllegalStateException("Фискалниот принтер не е иницијализиран");
+                }
+                fiscalPrinter.printCopy();
+            }
+            case RECEIPT -> {
+                if (!thermalPrinterEnabled || thermalPrinter == null) {
+                    throw new IllegalStateException("Термалниот принтер не е иницијализиран");
+                }
+                thermalPrinter.printRaw(payload.getBytes());
+            }
+            default -> {
+                MenuItem.PrintDestination destination = payload.getKind().getDestination();
+                if (!stationDispatcher.sendWithFailover(destination, payload.getBytes(), "reprint of job " + jobId)) {
+                    throw new IllegalStateException("Нема достапен принтер за " + destination.getDisplayName());
+                }
+            }
+        }
+        logger.info("Reprinted {} for order {} (job {})", payload.getKind(), payload.getOrderId(), jobId);
+    }
+    
     /**
      * Test printer connections
      */
@@ -260,6 +503,10 @@ public class PrinterService {
         config.setThermalIP(thermalPrinterIP);
         config.setThermalPort(thermalPrinterPort);
         
+        // Ticket coalescing windows
+        config.setKitchenCoalesceSeconds(ticketCoalescer.getWindowSeconds(MenuItem.PrintDestination.КУЈНА));
+        config.setBarCoalesceSeconds(ticketCoalescer.getWindowSeconds(MenuItem.PrintDestination.БАР));
+        
         return config;
     }
     
@@ -279,6 +526,10 @@ public class PrinterService {
         this.thermalPrinterIP = config.getThermalIP();
         this.thermalPrinterPort = config.getThermalPort();
         
+        // Update ticket coalescing windows
+        ticketCoalescer.setWindowSeconds(MenuItem.PrintDestination.КУЈНА, config.getKitchenCoalesceSeconds());
+        ticketCoalescer.setWindowSeconds(MenuItem.PrintDestination.БАР, config.getBarCoalesceSeconds());
+        
         // Reinitialize printers with new settings
         initializePrinters();
         
@@ -318,9 +569,12 @@ public class PrinterService {
     /**
      * Get available thermal printers
      */
-    public List<String> getAvailableThermalPrinters() {
+    public List<String> getAvailableThermalPrinters(boolean refresh) {
         List<String> printers = new ArrayList<>();
         try {
+            if (refresh) {
+                PrintServiceRegistry.getInstance().refresh();
+            }
             if (thermalPrinter != null) {
                 printers = thermalPrinter.getAvailablePrinters();
             } else {
@@ -341,113 +595,55 @@ public class PrinterService {
     }
     
     // FIXED: Fallback methods for when printers are not available
-    // Now correctly shows only NEW items
-    private void printSimulatedTickets(Order order) {
+    // Now correctly shows only NEW items, written to the virtual printer files
+    private void printSimulatedTicket(StationTicket ticket) {
         try {
-            // FIXED: Separate NEW items by print destination
-            List<OrderItem> newKitchenItems = order.getItems().stream()
-                .filter(item -> {
-                    boolean isKitchen = item.getMenuItem().getPrintDestination() == MenuItem.PrintDestination.КУЈНА;
-                    int pendingQty = item.getQuantity() - (item.getSentQuantity() != null ? item.getSentQuantity() : 0);
-                    return isKitchen && pendingQty > 0;
-                })
-                .toList();
-            
-            List<OrderItem> newBarItems = order.getItems().stream()
-                .filter(item -> {
-                    boolean isBar = item.getMenuItem().getPrintDestination() == MenuItem.PrintDestination.БАР;
-                    int pendingQty = item.getQuantity() - (item.getSentQuantity() != null ? item.getSentQuantity() : 0);
-                    return isBar && pendingQty > 0;
-                })
-                .toList();
-            
-            // Print kitchen ticket if there are NEW kitchen items
-            if (!newKitchenItems.isEmpty()) {
-                printSimulatedKitchenTicket(order, newKitchenItems);
-            }
-            
-            // Print bar ticket if there are NEW bar items
-            if (!newBarItems.isEmpty()) {
-                printSimulatedBarTicket(order, newBarItems);
-            }
-            
-            // Log if no new items
-            if (newKitchenItems.isEmpty() && newBarItems.isEmpty()) {
-                System.out.println("=== НЕ ДОСТАПЕН ПРИНТЕР ===");
-                System.out.println("Нема нови производи за печатење во нарачка " + order.getId());
-                System.out.println("===========================");
-            }
-            
+            virtualPrinter.print(VirtualPrinter.Channel.forDestination(ticket.getDestination()), ticket.getOrderId(),
+                ticket.getDestination().name() + " БИЛЕТ (СИМУЛИРАН)", formatStationTicket(ticket));
         } catch (Exception e) {
             logger.error("Error printing simulated tickets", e);
         }
     }
     
-    private void printSimulatedKitchenTicket(Order order, List<OrderItem> newItems) {
-        String ticketContent = formatKitchenTicket(order, newItems);
-        System.out.println("=== КУЈНА БИЛЕТ (СИМУЛИРАН) ===");
-        System.out.println(ticketContent);
-        System.out.println("===============================");
-    }
-    
-    private void printSimulatedBarTicket(Order order, List<OrderItem> newItems) {
-        String ticketContent = formatBarTicket(order, newItems);
-        System.out.println("=== БАР БИЛЕТ (СИМУЛИРАН) ===");
-        System.out.println(ticketContent);
-        System.out.println("=============================");
-    }
-    
     private void printSimulatedReceipt(Order order) {
-        String receiptContent = formatReceipt(order);
-        System.out.println("=== СМЕТКА (СИМУЛИРАНА) ===");
-        System.out.println(receiptContent);
-        System.out.println("===========================");
+        virtualPrinter.print(VirtualPrinter.Channel.RECEIPT, order.getId(), "СМЕТКА (СИМУЛИРАНА)", formatReceipt(order));
     }
     
-    // FIXED: Format methods now correctly show only NEW items and their pending quantities
-    private String formatKitchenTicket(Order order, List<OrderItem> newItems) {
-        StringBuilder ticket = new StringBuilder();
-        ticket.append("========== КУЈНА ==========\n");
-        ticket.append("Маса: ").append(getOrderDisplayName(order)).append("\n");
-        ticket.append("Време: ").append(DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy").format(order.getCreatedAt())).append("\n");
-        ticket.append("===========================\n\n");
-        
-        for (OrderItem item : newItems) {
-            int pendingQty = item.getQuantity() - (item.getSentQuantity() != null ? item.getSentQuantity() : 0);
-            
-            ticket.append(pendingQty).append("x ")  // Show only pending quantity
-                  .append(item.getMenuItem().getName()).append("\n");
-            if (item.getNotes() != null && !item.getNotes().trim().isEmpty()) {
-                ticket.append("   Забелешка: ").append(item.getNotes()).append("\n");
-            }
-            ticket.append("\n");
+    /**
+     * Simulated tickets and receipts of an order, read back from the virtual printer files
+     */
+    public List<Map<String, Object>> getSimulatedPrintouts(Long orderId) {
+        List<Map<String, Object>> printouts = new ArrayList<>();
+        for (VirtualPrinter.Entry entry : virtualPrinter.findByOrder(orderId)) {
+            Map<String, Object> printout = new HashMap<>();
+            printout.put("channel", entry.getChannel().name());
+            printout.put("title", entry.getTitle());
+            printout.put("printedAt", entry.getPrintedAt());
+            printout.put("content", virtualPrinter.read(entry).orElse(""));
+            printouts.add(printout);
         }
-        
-        ticket.append("===========================\n");
-        ticket.append("НОВИ ПРОИЗВОДИ: ").append(newItems.size()).append("\n");
-        return ticket.toString();
+        return printouts;
     }
     
-    private String formatBarTicket(Order order, List<OrderItem> newItems) {
+    // FIXED: Format methods now correctly show only NEW items and their pending quantities
+    private String formatStationTicket(StationTicket stationTicket) {
         StringBuilder ticket = new StringBuilder();
-        ticket.append("=========== БАР ===========\n");
-        ticket.append("Маса: ").append(getOrderDisplayName(order)).append("\n");
-        ticket.append("Време: ").append(DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy").format(order.getCreatedAt())).append("\n");
+        ticket.append(stationTicket.getHeader()).append("\n");
+        ticket.append("Маса: ").append(stationTicket.getTableDisplayName()).append("\n");
+        ticket.append("Време: ").append(DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy").format(stationTicket.getOrderCreatedAt())).append("\n");
         ticket.append("===========================\n\n");
         
-        for (OrderItem item : newItems) {
-            int pendingQty = item.getQuantity() - (item.getSentQuantity() != null ? item.getSentQuantity() : 0);
-            
-            ticket.append(pendingQty).append("x ")  // Show only pending quantity
-                  .append(item.getMenuItem().getName()).append("\n");
-            if (item.getNotes() != null && !item.getNotes().trim().isEmpty()) {
-                ticket.append("   Забелешка: ").append(item.getNotes()).append("\n");
+        for (TicketLine line : stationTicket.getLines()) {
+            ticket.append(line.getQuantity()).append("x ")  // Show only pending quantity
+                  .append(line.getName()).append("\n");
+            if (line.hasNotes()) {
+                ticket.append("   Забелешка: ").append(line.getNotes()).append("\n");
             }
             ticket.append("\n");
         }
         
         ticket.append("===========================\n");
-        ticket.append("НОВИ ПРОИЗВОДИ: ").append(newItems.size()).append("\n");
+        ticket.append("НОВИ ПРОИЗВОДИ: ").append(stationTicket.getLines().size()).append("\n");
         return ticket.toString();
     }
     
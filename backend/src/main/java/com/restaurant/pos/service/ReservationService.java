@@ -0,0 +1,203 @@
+package com.restaurant.pos.service;
+
+import com.restaurant.pos.dto.ReservationRequest;
+import com.restaurant.pos.entity.Reservation;
+import com.restaurant.pos.entity.RestaurantTable;
+import com.restaurant.pos.repository.ReservationRepository;
+import com.restaurant.pos.repository.RestaurantTableRepository;
+import com.restaurant.pos.service.floorplan.TableStatusBoard;
+import com.restaurant.pos.service.reservation.ReservationBook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.dao.DataAccessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@Transactional
+public class ReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
+
+    @Value("${reservations.max.hours:12}")
+    private long maxHours;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RestaurantTableRepository tableRepository;
+
+    @Autowired
+    private ReservationBook reservationBook;
+
+    @Autowired
+    private TableStatusBoard tableStatusBoard;
+
+    @Transactional(readOnly = true)
+    public List<Reservation> getReservations(LocalDateTime from, LocalDateTime to) {
+        try {
+            validateWindow(from, to);
+            return reservationRepository.findOverlapping(from, to);
+        } catch (DataAccessException e) {
+            logger.error("Database error getting reservations", e);
+            throw new RuntimeException("Грешка при вчитување на резервациите");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Reservation> getReservationById(Long id) {
+        try {
+            return reservationRepository.findById(id);
+        } catch (DataAccessException e) {
+            logger.error("Database error getting reservation by ID: {}", id, e);
+            throw new RuntimeException("Грешка при вчитување на резервацијата");
+        }
+    }
+
+    /**
+     * Upcoming bookings of a table (or of all tables) from the in-memory book
+     */
+    public List<ReservationBook.Booking> getBookings(Integer tableNumber, LocalDateTime from, LocalDateTime to) {
+        validateWindow(from, to);
+        return reservationBook.getBookings(tableNumber, from, to);
+    }
+
+    /**
+     * Active tables seating at least partySize with no booking overlapping [from, to), in one
+     * area or in all of them. Smallest fitting tables first. Out of order tables are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<RestaurantTable> findAvailableTables(Long areaId, int partySize, LocalDateTime from, LocalDateTime to) {
+        try {
+            validateWindow(from, to);
+            List<RestaurantTable> candidates = (areaId != null
+                    ? tableRepository.findByAreaIdAndActiveTrueOrderByTableNumberAsc(areaId)
+                    : tableRepository.findByActiveTrueOrderByTableNumberAsc())
+                .stream()
+                .filter(table -> table.getCapacity() != null && table.getCapacity() >= partySize)
+                .filter(table -> {
+                    TableStatusBoard.TableState state = tableStatusBoard.getState(table.getTableNumber());
+                    return state == null || state.getStatus() != RestaurantTable.TableStatus.OUT_OF_ORDER;
+                })
+                .toList();
+
+            Set<Integer> free = reservationBook.findFree(
+                candidates.stream().map(RestaurantTable::getTableNumber).toList(), from, to);
+            return candidates.stream()
+                .filter(table -> free.contains(table.getTableNumber()))
+                .sorted(Comparator.comparing(RestaurantTable::getCapacity).thenComparing(RestaurantTable::getTableNumber))
+                .toList();
+        } catch (DataAccessException e) {
+            logger.error("Database error finding available tables", e);
+            throw new RuntimeException("Грешка при пребарување на слободни маси");
+        }
+    }
+
+    public Reservation createReservation(ReservationRequest request) {
+        try {
+            Reservation reservation = new Reservation();
+            apply(reservation, request);
+            if (!reservation.getEndTime().isAfter(LocalDateTime.now())) {
+                throw new RuntimeException("Терминот е веќе поминат");
+            }
+            Reservation saved = reservationRepository.save(reservation);
+            // Rejects an overlapping booking, which rolls the insert back
+            reservationBook.put(saved);
+            logger.info("Reservation {} for table {} at {} created", saved.getId(), saved.getTableNumber(),
+                saved.getStartTime());
+            return saved;
+        } catch (DataAccessException e) {
+            logger.error("Database error creating reservation", e);
+            throw new RuntimeException("Грешка при креирање на резервацијата");
+        }
+    }
+
+    public Reservation updateReservation(Long id, ReservationRequest request) {
+        try {
+            Reservation reservation = reservationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Резервацијата не е пронајдена"));
+            if (reservation.getStatus() != Reservation.Status.BOOKED) {
+                throw new IllegalStateException("Може да се менуваат само закажани резервации");
+            }
+            apply(reservation, request);
+            Reservation saved = reservationRepository.save(reservation);
+            reservationBook.put(saved);
+            return saved;
+        } catch (DataAccessException e) {
+            logger.error("Database error updating reservation {}", id, e);
+            throw new RuntimeException("Грешка при ажурирање на резервацијата");
+        }
+    }
+
+    public Reservation cancelReservation(Long id) {
+        return changeStatus(id, Reservation.Status.CANCELLED);
+    }
+
+    /**
+     * The guests arrived; the table stays booked until the reservation ends
+     */
+    public Reservation seatReservation(Long id) {
+        return changeStatus(id, Reservation.Status.SEATED);
+    }
+
+    private Reservation changeStatus(Long id, Reservation.Status status) {
+        try {
+            Reservation reservation = reservationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Резервацијата не е пронајдена"));
+            if (reservation.getStatus() != Reservation.Status.BOOKED) {
+                throw new IllegalStateException("Резервацијата е со статус „" +
+                    reservation.getStatus().getDisplayName() + "“");
+            }
+            reservation.setStatus(status);
+            Reservation saved = reservationRepository.save(reservation);
+            reservationBook.put(saved);
+            logger.info("Reservation {} for table {} marked {}", id, saved.getTableNumber(), status);
+            return saved;
+        } catch (DataAccessException e) {
+            logger.error("Database error changing reservation {} to {}", id, status, e);
+            throw new RuntimeException("Грешка при ажурирање на резервацијата");
+        }
+    }
+
+    private void apply(Reservation reservation, ReservationRequest request) {
+        validateWindow(request.getStartTime(), request.getEndTime());
+        if (Duration.between(request.getStartTime(), request.getEndTime()).compareTo(Duration.ofHours(maxHours)) > 0) {
+            throw new RuntimeException("Резервацијата може да трае најмногу " + maxHours + " часа");
+        }
+        RestaurantTable table = tableRepository.findByTableNumberAndActiveTrue(request.getTableNumber())
+            .orElseThrow(() -> new RuntimeException("Масата " + request.getTableNumber() + " не е пронајдена"));
+        if (request.getPartySize() == null || request.getPartySize() <= 0) {
+            throw new RuntimeException("Бројот на гости мора да биде позитивен");
+        }
+        if (request.getPartySize() > table.getCapacity()) {
+            throw new RuntimeException("Масата " + table.getTableNumber() + " има само " + table.getCapacity() + " места");
+        }
+
+        reservation.setTableNumber(table.getTableNumber());
+        reservation.setPartySize(request.getPartySize());
+        reservation.setStartTime(request.getStartTime());
+        reservation.setEndTime(request.getEndTime());
+        reservation.setCustomerName(request.getCustomerName() != null ? request.getCustomerName().trim() : null);
+        reservation.setPhone(request.getPhone());
+        reservation.setNotes(request.getNotes());
+    }
+
+    private static void validateWindow(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new RuntimeException("Почетокот и крајот се задолжителни");
+        }
+        if (!to.isAfter(from)) {
+            throw new RuntimeException("Крајот мора да биде после почетокот");
+        }
+    }
+}
@@ -2,18 +2,29 @@ package com.restaurant.pos.service;
 
 import com.restaurant.pos.entity.RestaurantTable;
 import com.restaurant.pos.entity.Area;
+import com.restaurant.pos.dto.LayoutUpdateRequest;
 import com.restaurant.pos.repository.RestaurantTableRepository;
 import com.restaurant.pos.repository.AreaRepository;
+import com.restaurant.pos.service.floorplan.FloorPlanViewCache;
+import com.restaurant.pos.service.floorplan.TableNumberAllocator;
+import com.restaurant.pos.service.floorplan.TableSpatialIndex;
+import com.restaurant.pos.service.floorplan.TableStatusBoard;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -21,12 +32,36 @@ public class TableService {
 
     private static final Logger logger = LoggerFactory.getLogger(TableService.class);
 
+    // Missing values keep the current geometry
+    private static final String UPDATE_TABLE_GEOMETRY_SQL =
+        "UPDATE restaurant_tables SET position_x = COALESCE(?, position_x), position_y = COALESCE(?, position_y), " +
+        "width = COALESCE(?, width), height = COALESCE(?, height) WHERE id = ? AND active = TRUE";
+    private static final String UPDATE_AREA_GEOMETRY_SQL =
+        "UPDATE areas SET position_x = COALESCE(?, position_x), position_y = COALESCE(?, position_y), " +
+        "width = COALESCE(?, width), height = COALESCE(?, height) WHERE id = ? AND active = TRUE";
+    private static final int[] GEOMETRY_TYPES = {Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.BIGINT};
+
     @Autowired
     private RestaurantTableRepository tableRepository;
 
     @Autowired
     private AreaRepository areaRepository;
 
+    @Autowired
+    private TableNumberAllocator tableNumberAllocator;
+
+    @Autowired
+    private FloorPlanViewCache floorPlanViewCache;
+
+    @Autowired
+    private TableSpatialIndex spatialIndex;
+
+    @Autowired
+    private TableStatusBoard tableStatusBoard;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Transactional(readOnly = true)
     public List<RestaurantTable> getAllActiveTables() {
         try {
@@ -73,24 +108,15 @@ public class TableService {
         }
     }
 
-    @Transactional(readOnly = true)
-    public List<RestaurantTable> getTablesByStatus(RestaurantTable.TableStatus status) {
-        try {
-            return tableRepository.findByStatusAndActiveTrueOrderByTableNumberAsc(status);
-        } catch (DataAccessException e) {
-            logger.error("Database error getting tables by status: {}", status, e);
-            throw new RuntimeException("Грешка при пристап до базата на податоци");
-        }
+    /**
+     * Tables in the given status, from the in-memory status board
+     */
+    public List<TableStatusBoard.TableEntry> getTablesByStatus(RestaurantTable.TableStatus status) {
+        return tableStatusBoard.getByStatus(status);
     }
 
-    @Transactional(readOnly = true)
-    public List<RestaurantTable> getAvailableTables() {
-        try {
-            return tableRepository.findByStatusAndActiveTrueOrderByTableNumberAsc(RestaurantTable.TableStatus.AVAILABLE);
-        } catch (DataAccessException e) {
-            logger.error("Database error getting available tables", e);
-            throw new RuntimeException("Грешка при пристап до базата на податоци");
-        }
+    public List<TableStatusBoard.TableEntry> getAvailableTables() {
+        return tableStatusBoard.getByStatus(RestaurantTable.TableStatus.AVAILABLE);
     }
 
     public RestaurantTable createTable(Long areaId, Map<String, Object> tableData) {
@@ -115,8 +141,8 @@ public class TableService {
                 throw new RuntimeException("Капацитетот е задолжителен");
             }
 
-            // Check if table number is available (only among active tables)
-            if (!isTableNumberAvailable(tableNumber)) {
+            // Reserve the table number (only among active tables)
+            if (!tableNumberAllocator.reserve(tableNumber)) {
                 throw new RuntimeException("Масата со овој број веќе постои");
             }
 
@@ -135,6 +161,9 @@ public class TableService {
             table.setPositionY(positionY != null ? positionY : 0);
             table.setWidth(width != null ? width : 80);
             table.setHeight(height != null ? height : 80);
+            if (positionX != null || positionY != null) {
+                spatialIndex.validatePlacement(areaId, null, TableSpatialIndex.Rect.of(table), null);
+            }
 
             RestaurantTable savedTable = tableRepository.save(table);
             logger.info("Created table: {} in area: {}", savedTable.getTableNumber(), area.getName());
@@ -161,11 +190,25 @@ public class TableService {
             Integer width = getIntegerFromMap(tableData, "width");
             Integer height = getIntegerFromMap(tableData, "height");
 
+            if (statusStr != null) {
+                try {
+                    RestaurantTable.TableStatus status = RestaurantTable.TableStatus.valueOf(statusStr);
+                    tableStatusBoard.transitionAfterCommit(table, status);
+                    table.setStatus(status);
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Invalid table status: {}", statusStr);
+                }
+            }
+
             if (tableNumber != null) {
                 // Check if new table number conflicts only with active tables
-                if (!table.getTableNumber().equals(tableNumber) && 
-                    !isTableNumberAvailable(tableNumber)) {
-                    throw new RuntimeException("Масата со овој број веќе постои");
+                if (!table.getTableNumber().equals(tableNumber)) {
+                    if (!tableNumberAllocator.reserve(tableNumber)) {
+                        throw new RuntimeException("Масата со овој број веќе постои");
+                    }
+                    tableNumberAllocator.releaseAfterCommit(table.getTableNumber());
+                    // The status board is keyed by table number
+                    tableStatusBoard.reloadAfterCommit();
                 }
                 table.setTableNumber(tableNumber);
             }
@@ -182,18 +225,15 @@ public class TableService {
                 }
             }
 
-            if (statusStr != null) {
-                try {
-                    table.setStatus(RestaurantTable.TableStatus.valueOf(statusStr));
-                } catch (IllegalArgumentException e) {
-                    logger.warn("Invalid table status: {}", statusStr);
-                }
-            }
-
+            // Editors send the position with every change; only a moved or resized table is checked
+            TableSpatialIndex.Rect before = TableSpatialIndex.Rect.of(table);
             if (positionX != null) table.setPositionX(positionX);
             if (positionY != null) table.setPositionY(positionY);
             if (width != null) table.setWidth(width);
             if (height != null) table.setHeight(height);
+            if (!TableSpatialIndex.Rect.of(table).equals(before)) {
+                validatePlacement(table);
+            }
 
             RestaurantTable updatedTable = tableRepository.save(table);
             logger.info("Updated table: {}", updatedTable.getTableNumber());
@@ -210,10 +250,14 @@ public class TableService {
             RestaurantTable table = tableRepository.findById(tableId)
                 .orElseThrow(() -> new RuntimeException("Масата не е пронајдена"));
 
+            TableSpatialIndex.Rect before = TableSpatialIndex.Rect.of(table);
             if (x != null) table.setPositionX(x);
             if (y != null) table.setPositionY(y);
             if (width != null) table.setWidth(width);
             if (height != null) table.setHeight(height);
+            if (!TableSpatialIndex.Rect.of(table).equals(before)) {
+                validatePlacement(table);
+            }
 
             RestaurantTable updatedTable = tableRepository.save(table);
             logger.info("Updated position for table: {}", updatedTable.getTableNumber());
@@ -225,11 +269,67 @@ public class TableService {
         }
     }
 
+    /**
+     * Apply many table and area geometry changes as two JDBC batches in one transaction.
+     * Fails as a whole if any table or area is unknown or inactive.
+     */
+    public int updateLayout(LayoutUpdateRequest request) {
+        try {
+            List<Object[]> tableRows = geometryRows(request.getTables(), "Масата");
+            List<Object[]> areaRows = geometryRows(request.getAreas(), "Областа");
+
+            // Check the tables at their new places against each other and the unmoved tables
+            Map<Long, TableSpatialIndex.Rect> moves = new LinkedHashMap<>();
+            if (request.getTables() != null) {
+                for (LayoutUpdateRequest.Geometry change : request.getTables()) {
+                    TableSpatialIndex.Rect rect = spatialIndex.merge(change.getId(),
+                        change.getX(), change.getY(), change.getWidth(), change.getHeight());
+                    if (rect == null) {
+                        throw new RuntimeException("Масата " + change.getId() + " не е пронајдена");
+                    }
+                    moves.put(change.getId(), rect);
+                }
+            }
+            // Areas resized in the same request bound the moves at their new size
+            Map<Long, TableSpatialIndex.Rect> areaBounds = new LinkedHashMap<>();
+            if (request.getAreas() != null) {
+                for (LayoutUpdateRequest.Geometry change : request.getAreas()) {
+                    TableSpatialIndex.Rect bounds = spatialIndex.mergeArea(change.getId(),
+                        change.getWidth(), change.getHeight());
+                    // Unknown areas are rejected below when their update matches no row
+                    if (bounds != null) {
+                        areaBounds.put(change.getId(), bounds);
+                    }
+                }
+            }
+            spatialIndex.validateMoves(moves, areaBounds);
+
+            checkUpdated(jdbcTemplate.batchUpdate(UPDATE_TABLE_GEOMETRY_SQL, tableRows, GEOMETRY_TYPES), tableRows, "Масата");
+            checkUpdated(jdbcTemplate.batchUpdate(UPDATE_AREA_GEOMETRY_SQL, areaRows, GEOMETRY_TYPES), areaRows, "Областа");
+
+            // Plain JDBC bypasses the entity listeners
+            floorPlanViewCache.invalidateAfterCommit();
+            if (areaRows.isEmpty()) {
+                spatialIndex.tablesMovedAfterCommit(moves);
+            } else {
+                // Resized areas change the bounds the tables are checked against
+                spatialIndex.resetAfterCommit();
+            }
+            logger.info("Updated layout of {} tables and {} areas", tableRows.size(), areaRows.size());
+            return tableRows.size() + areaRows.size();
+        } catch (DataAccessException e) {
+            logger.error("Database error updating layout", e);
+            throw new RuntimeException("Грешка при ажурирање на распоредот");
+        }
+    }
+
     public RestaurantTable updateTableStatus(Long tableId, RestaurantTable.TableStatus status) {
         try {
             RestaurantTable table = tableRepository.findById(tableId)
                 .orElseThrow(() -> new RuntimeException("Масата не е пронајдена"));
 
+            // Throws IllegalStateException for a transition the state machine does not allow
+            tableStatusBoard.transitionAfterCommit(table, status);
             table.setStatus(status);
             RestaurantTable updatedTable = tableRepository.save(table);
 
@@ -250,6 +350,7 @@ public class TableService {
             // Soft delete - mark as inactive (allows table number reuse)
             table.setActive(false);
             tableRepository.save(table);
+            tableNumberAllocator.releaseAfterCommit(table.getTableNumber());
 
             logger.info("Soft deleted table: {} (table number {} is now available for reuse)", 
                 table.getId(), table.getTableNumber());
@@ -267,6 +368,9 @@ public class TableService {
 
             // Hard delete - remove from database
             tableRepository.delete(table);
+            if (Boolean.TRUE.equals(table.getActive())) {
+                tableNumberAllocator.releaseAfterCommit(table.getTableNumber());
+            }
 
             logger.info("Hard deleted table: {}", table.getTableNumber());
 
@@ -286,30 +390,13 @@ public class TableService {
         }
     }
 
+    /**
+     * Lowest table number not used by an active table
+     */
     @Transactional(readOnly = true)
     public Integer getNextTableNumber() {
         try {
-            // Simple approach: get all active tables and find first gap
-            List<RestaurantTable> activeTables = tableRepository.findByActiveTrueOrderByTableNumberAsc();
-            if (activeTables.isEmpty()) {
-                return 1;
-            }
-            
-            // Find first gap in sequence
-            for (int i = 1; i <= activeTables.size() + 1; i++) {
-                final int number = i;
-                boolean exists = activeTables.stream()
-                    .anyMatch(table -> table.getTableNumber().equals(number));
-                if (!exists) {
-                    return number;
-                }
-            }
-            
-            // Fallback: max + 1
-            return activeTables.stream()
-                .mapToInt(RestaurantTable::getTableNumber)
-                .max()
-                .orElse(0) + 1;
+            return tableNumberAllocator.nextFree();
         } catch (DataAccessException e) {
             logger.error("Database error getting next table number", e);
             return 1; // Fallback to 1
@@ -319,13 +406,85 @@ public class TableService {
     @Transactional(readOnly = true)
     public boolean isTableNumberAvailable(Integer tableNumber) {
         try {
-            return !tableRepository.findByTableNumberAndActiveTrue(tableNumber).isPresent();
+            return tableNumber != null && tableNumberAllocator.isFree(tableNumber);
         } catch (DataAccessException e) {
             logger.error("Database error checking table number availability: {}", tableNumber, e);
             return false; // Assume not available on error
         }
     }
 
+    /**
+     * Tables inside an area whose rectangle intersects the given one, for hit-testing and selection
+     */
+    @Transactional(readOnly = true)
+    public List<TableSpatialIndex.Placement> getTablesWithin(Long areaId, int x, int y, int width, int height) {
+        try {
+            return spatialIndex.tablesIn(areaId, new TableSpatialIndex.Rect(x, y, width, height));
+        } catch (DataAccessException e) {
+            logger.error("Database error finding tables in area: {}", areaId, e);
+            throw new RuntimeException("Грешка при пристап до базата на податоци");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<TableSpatialIndex.Placement> getTableAt(Long areaId, int x, int y) {
+        try {
+            return Optional.ofNullable(spatialIndex.tableAt(areaId, x, y));
+        } catch (DataAccessException e) {
+            logger.error("Database error finding table at point in area: {}", areaId, e);
+            throw new RuntimeException("Грешка при пристап до базата на податоци");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> getLayoutConflicts(Long areaId) {
+        try {
+            return spatialIndex.findConflicts(areaId);
+        } catch (DataAccessException e) {
+            logger.error("Database error checking layout of area: {}", areaId, e);
+            throw new RuntimeException("Грешка при пристап до базата на податоци");
+        }
+    }
+
+    // Tables placed by hand must stay inside their area and off other tables
+    private void validatePlacement(RestaurantTable table) {
+        if (table.getArea() != null && Boolean.TRUE.equals(table.getActive())) {
+            spatialIndex.validatePlacement(table.getArea().getId(), table.getId(), TableSpatialIndex.Rect.of(table), null);
+        }
+    }
+
+    private static List<Object[]> geometryRows(List<LayoutUpdateRequest.Geometry> changes, String what) {
+        List<Object[]> rows = new ArrayList<>();
+        if (changes == null) {
+            return rows;
+        }
+        Set<Long> seen = new HashSet<>();
+        for (LayoutUpdateRequest.Geometry change : changes) {
+            if (change.getId() == null) {
+                throw new IllegalArgumentException(what + " нема ID");
+            }
+            if (!seen.add(change.getId())) {
+                throw new IllegalArgumentException(what + " " + change.getId() + " е наведена повеќе пати");
+            }
+            if ((change.getX() != null && change.getX() < 0) || (change.getY() != null && change.getY() < 0)
+                    || (change.getWidth() != null && change.getWidth() <= 0)
+                    || (change.getHeight() != null && change.getHeight() <= 0)) {
+                throw new IllegalArgumentException("Неважечка позиција или големина за " + change.getId());
+            }
+            rows.add(new Object[]{change.getX(), change.getY(), change.getWidth(), change.getHeight(), change.getId()});
+        }
+        return rows;
+    }
+
+    // Drivers may report SUCCESS_NO_INFO (-2) instead of a row count; only 0 means not found
+    private static void checkUpdated(int[] counts, List<Object[]> rows, String what) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new RuntimeException(what + " " + rows.get(i)[4] + " не е пронајдена");
+            }
+        }
+    }
+
     // Helper method to safely extract integers from map
     private Integer getIntegerFromMap(Map<String, Object> map, String key) {
         Object value = map.get(key);
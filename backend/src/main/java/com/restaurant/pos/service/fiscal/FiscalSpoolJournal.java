@@ -0,0 +1,392 @@
+package com.restaurant.pos.service.fiscal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of fiscal receipt jobs.
+ *
+ * Every job goes through ACCEPTED -> FRAMES_SENT -> DEVICE_ACK -> CLOSED (or ABORTED
+ * when nothing reached the device). Records are fixed size and CRC-checked, so a
+ * record torn by a JVM crash is detected on replay and ignored. The CRC also covers
+ * the segment epoch, so records left over from an older epoch are never replayed.
+ *
+ * Two files are used alternately: when the active one is full, the still open jobs
+ * are copied to the other file under a higher epoch, which then becomes active.
+ */
+@Component
+public class FiscalSpoolJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(FiscalSpoolJournal.class);
+
+    private static final int HEADER_MAGIC = 0x46535031; // "FSP1"
+    private static final int HEADER_SIZE = 16;          // magic(4) + epoch(8) + crc(4)
+    private static final short RECORD_MARKER = 0x5352;
+    private static final int RECORD_SIZE = 40;          // marker(2) + type(1) + pad(1) + job(8) + order(8) + time(8) + amount(8) + crc(4)
+    private static final int RECORD_CRC_OFFSET = 36;
+
+    @Value("${printer.fiscal.journal.path:./data/fiscal-spool}")
+    private String journalPath;
+
+    @Value("${printer.fiscal.journal.size.kb:1024}")
+    private int journalSizeKb;
+
+    @Value("${printer.fiscal.journal.sync:false}")
+    private boolean syncOnWrite;
+
+    private final MappedByteBuffer[] segments = new MappedByteBuffer[2];
+    private int activeSegment;
+    private long activeEpoch;
+    private int writePosition;
+    private long lastJobId;
+
+    // Jobs that are not CLOSED or ABORTED yet, in acceptance order
+    private final Map<Long, Job> openJobs = new LinkedHashMap<>();
+
+    private final CRC32 crc = new CRC32();
+    private final byte[] scratch = new byte[RECORD_SIZE];
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        int capacity = Math.max(journalSizeKb, 4) * 1024;
+        for (int i = 0; i < segments.length; i++) {
+            File file = new File(journalPath + "-" + i + ".journal");
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                 FileChannel channel = raf.getChannel()) {
+                // The mapping stays valid after the channel is closed
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            }
+        }
+
+        // Job ids stay unique across restarts even after a roll-over dropped all closed jobs
+        lastJobId = System.currentTimeMillis();
+
+        long epoch0 = readEpoch(segments[0]);
+        long epoch1 = readEpoch(segments[1]);
+        if (epoch0 < 0 && epoch1 < 0) {
+            activeSegment = 0;
+            activeEpoch = 1;
+            writeHeader(segments[0], activeEpoch);
+            writePosition = HEADER_SIZE;
+            logger.info("Created new fiscal spool journal at {}", journalPath);
+            return;
+        }
+
+        activeSegment = epoch1 > epoch0 ? 1 : 0;
+        activeEpoch = Math.max(epoch0, epoch1);
+        replay(segments[activeSegment]);
+
+        logger.info("Fiscal spool journal replayed: epoch {}, {} incomplete jobs", activeEpoch, openJobs.size());
+        reconcileAcknowledgedJobs();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (MappedByteBuffer segment : segments) {
+            if (segment != null) {
+                segment.force();
+            }
+        }
+    }
+
+    /**
+     * Record that a fiscal receipt for the order was accepted for printing
+     */
+    public synchronized long accept(Long orderId, BigDecimal amount) {
+        // Open jobs are copied on roll-over; keeping them to half a segment leaves room to close them
+        int maxOpenJobs = (segments[activeSegment].capacity() - HEADER_SIZE) / RECORD_SIZE / 2;
+        if (openJobs.size() >= maxOpenJobs) {
+            logger.error("Fiscal spool journal is full: {} incomplete jobs, rejecting receipt for order {}",
+                openJobs.size(), orderId);
+            throw new IllegalStateException("Фискалниот журнал е полн - разрешете ги незавршените фискални задачи");
+        }
+        long jobId = ++lastJobId;
+        long amountCents = amount != null ? amount.movePointRight(2).longValue() : 0;
+        Job job = new Job(jobId, orderId, amountCents, System.currentTimeMillis(), RecordType.ACCEPTED);
+        openJobs.put(jobId, job);
+        append(RecordType.ACCEPTED, job);
+        return jobId;
+    }
+
+    /**
+     * Record that the first frame is about to be written to the device
+     */
+    public synchronized void framesSent(long jobId) {
+        advance(jobId, RecordType.FRAMES_SENT);
+    }
+
+    /**
+     * Record that the device finished the receipt
+     */
+    public synchronized void deviceAcknowledged(long jobId) {
+        advance(jobId, RecordType.DEVICE_ACK);
+    }
+
+    /**
+     * Record that the job is complete
+     */
+    public synchronized void closed(long jobId) {
+        advance(jobId, RecordType.CLOSED);
+    }
+
+    /**
+     * Record that the job ended without anything reaching the device
+     */
+    public synchronized void aborted(long jobId) {
+        advance(jobId, RecordType.ABORTED);
+    }
+
+    /**
+     * Jobs that did not reach CLOSED or ABORTED, oldest first
+     */
+    public synchronized List<Job> getIncompleteJobs() {
+        return new ArrayList<>(openJobs.values());
+    }
+
+    public synchronized Job getIncompleteJob(long jobId) {
+        return openJobs.get(jobId);
+    }
+
+    private void advance(long jobId, RecordType type) {
+        Job job = openJobs.get(jobId);
+        if (job == null) {
+            logger.warn("Fiscal spool job {} is not open, ignoring {}", jobId, type);
+            return;
+        }
+        job.state = type;
+        if (type.isTerminal()) {
+            openJobs.remove(jobId);
+        }
+        append(type, job);
+    }
+
+    private void append(RecordType type, Job job) {
+        MappedByteBuffer segment = segments[activeSegment];
+        if (writePosition + RECORD_SIZE > segment.capacity()) {
+            rollOver();
+            segment = segments[activeSegment];
+        }
+        writeRecord(segment, writePosition, type, job, System.currentTimeMillis(), activeEpoch);
+        writePosition += RECORD_SIZE;
+        if (syncOnWrite) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Copy open jobs to the other segment under a new epoch and make it active
+     */
+    private void rollOver() {
+        int next = 1 - activeSegment;
+        MappedByteBuffer target = segments[next];
+        // accept() keeps open jobs to half a segment, so this only guards against a corrupted journal
+        if (HEADER_SIZE + (openJobs.size() + 1) * RECORD_SIZE > target.capacity()) {
+            throw new IllegalStateException("Фискалниот журнал е полн - " + openJobs.size() + " незавршени задачи");
+        }
+        int position = HEADER_SIZE;
+        for (Job job : openJobs.values()) {
+            // The copy is the first record replay sees for the job, so it keeps the accept time
+            writeRecord(target, position, job.state, job, job.getAcceptedAt(), activeEpoch + 1);
+            position += RECORD_SIZE;
+        }
+        target.force();
+
+        // Header last - the segment only becomes valid once its epoch is written
+        writeHeader(target, activeEpoch + 1);
+        target.force();
+
+        activeSegment = next;
+        activeEpoch++;
+        writePosition = position;
+        logger.info("Fiscal spool journal rolled over to epoch {} with {} open jobs", activeEpoch, openJobs.size());
+    }
+
+    private void replay(MappedByteBuffer segment) {
+        int position = HEADER_SIZE;
+        while (position + RECORD_SIZE <= segment.capacity()) {
+            if (segment.getShort(position) != RECORD_MARKER || !recordCrcMatches(segment, position, activeEpoch)) {
+                break;
+            }
+
+            RecordType type = RecordType.fromCode(segment.get(position + 2));
+            long jobId = segment.getLong(position + 4);
+            long orderId = segment.getLong(position + 12);
+            long timestamp = segment.getLong(position + 20);
+            long amountCents = segment.getLong(position + 28);
+            lastJobId = Math.max(lastJobId, jobId);
+
+            if (type == null) {
+                logger.warn("Unknown fiscal spool record type at offset {}", position);
+            } else if (type.isTerminal()) {
+                openJobs.remove(jobId);
+            } else {
+                Job job = openJobs.get(jobId);
+                if (job == null) {
+                    openJobs.put(jobId, new Job(jobId, orderId, amountCents, timestamp, type));
+                } else {
+                    job.state = type;
+                }
+            }
+            position += RECORD_SIZE;
+        }
+        writePosition = position;
+        discardRecordsAfter(segment, position);
+    }
+
+    /**
+     * Pages can reach the disk out of order, leaving valid records behind a torn one. Replay
+     * stopped at the torn record, so those must not become readable again once it is overwritten.
+     */
+    private void discardRecordsAfter(MappedByteBuffer segment, int position) {
+        int discarded = 0;
+        for (int next = position + RECORD_SIZE; next + RECORD_SIZE <= segment.capacity(); next += RECORD_SIZE) {
+            if (segment.getShort(next) == RECORD_MARKER && recordCrcMatches(segment, next, activeEpoch)) {
+                segment.put(next, new byte[RECORD_SIZE]);
+                discarded++;
+            }
+        }
+        if (discarded > 0) {
+            segment.force();
+            logger.warn("Discarded {} fiscal spool records after a torn record at offset {}", discarded, position);
+        }
+    }
+
+    /**
+     * Receipts the device acknowledged were issued - only the CLOSED record is missing
+     */
+    private void reconcileAcknowledgedJobs() {
+        List<Job> acknowledged = openJobs.values().stream()
+            .filter(job -> job.state == RecordType.DEVICE_ACK)
+            .sorted(Comparator.comparingLong(Job::getJobId))
+            .toList();
+        for (Job job : acknowledged) {
+            logger.info("Reconciled fiscal job {} for order {} (acknowledged by device)", job.getJobId(), job.getOrderId());
+            advance(job.getJobId(), RecordType.CLOSED);
+        }
+    }
+
+    private void writeRecord(MappedByteBuffer segment, int position, RecordType type, Job job, long timestamp,
+                             long epoch) {
+        segment.putShort(position, RECORD_MARKER);
+        segment.put(position + 2, type.code);
+        segment.put(position + 3, (byte) 0);
+        segment.putLong(position + 4, job.getJobId());
+        segment.putLong(position + 12, job.getOrderId() != null ? job.getOrderId() : 0L);
+        segment.putLong(position + 20, timestamp);
+        segment.putLong(position + 28, job.getAmountCents());
+        segment.putInt(position + RECORD_CRC_OFFSET, recordCrc(segment, position, epoch));
+    }
+
+    private boolean recordCrcMatches(MappedByteBuffer segment, int position, long epoch) {
+        return segment.getInt(position + RECORD_CRC_OFFSET) == recordCrc(segment, position, epoch);
+    }
+
+    private int recordCrc(MappedByteBuffer segment, int position, long epoch) {
+        segment.get(position, scratch, 0, RECORD_CRC_OFFSET);
+        crc.reset();
+        crc.update(scratch, 0, RECORD_CRC_OFFSET);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (epoch >>> shift));
+        }
+        return (int) crc.getValue();
+    }
+
+    private void writeHeader(MappedByteBuffer segment, long epoch) {
+        segment.putInt(0, HEADER_MAGIC);
+        segment.putLong(4, epoch);
+        segment.putInt(12, headerCrc(segment));
+    }
+
+    private long readEpoch(MappedByteBuffer segment) {
+        if (segment.getInt(0) != HEADER_MAGIC || segment.getInt(12) != headerCrc(segment)) {
+            return -1;
+        }
+        return segment.getLong(4);
+    }
+
+    private int headerCrc(MappedByteBuffer segment) {
+        segment.get(0, scratch, 0, 12);
+        crc.reset();
+        crc.update(scratch, 0, 12);
+        return (int) crc.getValue();
+    }
+
+    public enum RecordType {
+        ACCEPTED((byte) 1),
+        FRAMES_SENT((byte) 2),
+        DEVICE_ACK((byte) 3),
+        CLOSED((byte) 4),
+        ABORTED((byte) 5);
+
+        private final byte code;
+
+        RecordType(byte code) {
+            this.code = code;
+        }
+
+        public boolean isTerminal() {
+            return this == CLOSED || this == ABORTED;
+        }
+
+        static RecordType fromCode(byte code) {
+            for (RecordType type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A fiscal receipt job and the last state recorded for it
+     */
+    public static final class Job {
+        private final long jobId;
+        private final Long orderId;
+        private final long amountCents;
+        private final long acceptedAt;
+        private volatile RecordType state;
+
+        private Job(long jobId, Long orderId, long amountCents, long acceptedAt, RecordType state) {
+            this.jobId = jobId;
+            this.orderId = orderId;
+            this.amountCents = amountCents;
+            this.acceptedAt = acceptedAt;
+            this.state = state;
+        }
+
+        public long getJobId() { return jobId; }
+        public Long getOrderId() { return orderId; }
+        public long getAmountCents() { return amountCents; }
+        public long getAcceptedAt() { return acceptedAt; }
+        public RecordType getState() { return state; }
+
+        /**
+         * Nothing reached the device, so the receipt can safely be issued again
+         */
+        public boolean isSafeToReissue() {
+            return state == RecordType.ACCEPTED;
+        }
+    }
+}
@@ -235,6 +235,14 @@ public class MacedonianFiscalPrinter {
      * Print fiscal receipt
      */
     public void printFiscalReceipt(Order order) throws Exception {
+        printFiscalReceipt(order, () -> { });
+    }
+
+    /**
+     * Print fiscal receipt, calling beforeFirstFrame once the connection is open
+     * and right before the first command reaches the device
+     */
+    public void printFiscalReceipt(Order order, Runnable beforeFirstFrame) throws Exception {
         logger.info("Starting fiscal receipt printing for order {}", order.getId());
 
         if (!openConnection()) {
@@ -242,6 +250,7 @@ public class MacedonianFiscalPrinter {
         }
 
         try {
+            beforeFirstFrame.run();
             if (isParallelPort) {
                 printFiscalReceiptParallel(order);
             } else {
@@ -256,6 +265,33 @@ public class MacedonianFiscalPrinter {
         }
     }
 
+    /**
+     * Print a copy (duplicate) of the last fiscal receipt from the device memory
+     */
+    public void printCopy() throws Exception {
+        logger.info("Printing copy of last fiscal receipt");
+
+        if (!openConnection()) {
+            throw new Exception("Cannot connect to fiscal printer on port " + portName);
+        }
+
+        try {
+            if (isParallelPort) {
+                parallelPort.write(buildFiscalCommand(CMD_PRINT_COPY, ""));
+                parallelPort.flush();
+                Thread.sleep(500);
+            } else {
+                String response = sendSerialCommand(CMD_PRINT_COPY, "");
+                if (!isSuccessResponse(response)) {
+                    throw new Exception("Failed to print receipt copy: " + response);
+                }
+            }
+            logger.info("Fiscal receipt copy printed successfully");
+        } finally {
+            closeConnection();
+        }
+    }
+
     /**
      * Print fiscal receipt via parallel port
      */
@@ -0,0 +1,68 @@
+package com.restaurant.pos.service.floorplan;
+
+import com.restaurant.pos.entity.Area;
+import com.restaurant.pos.entity.RestaurantTable;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on floor plans, areas and tables: any insert, update or delete
+ * invalidates the cached floor plan view when its transaction commits, table and
+ * area geometry changes are passed on to the spatial index, and new or deactivated
+ * tables join or leave the status board.
+ */
+@Component
+public class FloorPlanChangeListener {
+
+    // Resolved on first use - listeners are created while the persistence unit starts
+    @Autowired
+    private ObjectProvider<FloorPlanViewCache> viewCache;
+
+    @Autowired
+    private ObjectProvider<TableSpatialIndex> spatialIndex;
+
+    @Autowired
+    private ObjectProvider<TableStatusBoard> statusBoard;
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(Object entity) {
+        invalidateView();
+        TableStatusBoard board = statusBoard.getIfAvailable();
+        if (board != null && entity instanceof RestaurantTable table) {
+            board.tableChangedAfterCommit(table);
+        }
+        TableSpatialIndex index = spatialIndex.getIfAvailable();
+        if (index != null) {
+            if (entity instanceof RestaurantTable table) {
+                index.tableChangedAfterCommit(table);
+            } else if (entity instanceof Area area) {
+                index.areaChangedAfterCommit(area);
+            }
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        invalidateView();
+        TableSpatialIndex index = spatialIndex.getIfAvailable();
+        if (index != null && entity instanceof RestaurantTable table) {
+            index.tableRemovedAfterCommit(table.getId());
+        }
+        TableStatusBoard board = statusBoard.getIfAvailable();
+        if (board != null && entity instanceof RestaurantTable table && Boolean.TRUE.equals(table.getActive())) {
+            board.tableRemovedAfterCommit(table.getTableNumber());
+        }
+    }
+
+    private void invalidateView() {
+        FloorPlanViewCache cache = viewCache.getIfAvailable();
+        if (cache != null) {
+            cache.invalidateAfterCommit();
+        }
+    }
+}
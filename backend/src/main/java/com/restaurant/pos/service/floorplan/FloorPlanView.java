@@ -0,0 +1,161 @@
+package com.restaurant.pos.service.floorplan;
+
+import com.restaurant.pos.entity.Area;
+import com.restaurant.pos.entity.FloorPlan;
+import com.restaurant.pos.entity.RestaurantTable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read model of a floor plan with its active areas and their active tables.
+ *
+ * Assembled from a set-based load (the areas of the plan and the tables of all those areas)
+ * instead of lazy entity collections, and serialized with the same fields as the
+ * FloorPlan/Area/RestaurantTable entities, except table status. Statuses change with every
+ * order and are served by the status board, so the cached layout only changes on edits.
+ */
+public final class FloorPlanView {
+
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final Boolean active;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final List<AreaView> areas;
+
+    private FloorPlanView(FloorPlan plan, List<AreaView> areas) {
+        this.id = plan.getId();
+        this.name = plan.getName();
+        this.description = plan.getDescription();
+        this.active = plan.getActive();
+        this.createdAt = plan.getCreatedAt();
+        this.updatedAt = plan.getUpdatedAt();
+        this.areas = Collections.unmodifiableList(areas);
+    }
+
+    /**
+     * Build the view from the plan, its areas (in display order) and the tables of those areas (by table number)
+     */
+    public static FloorPlanView of(FloorPlan plan, List<Area> areas, List<RestaurantTable> tables) {
+        Map<Long, List<TableView>> tablesByArea = new HashMap<>();
+        Map<Long, String> areaNames = new HashMap<>();
+        for (Area area : areas) {
+            areaNames.put(area.getId(), area.getName());
+        }
+        for (RestaurantTable table : tables) {
+            // The id of a lazy area reference is read without loading the area
+            Long areaId = table.getArea() != null ? table.getArea().getId() : null;
+            if (areaNames.containsKey(areaId)) {
+                tablesByArea.computeIfAbsent(areaId, id -> new ArrayList<>())
+                    .add(new TableView(table, areaNames.get(areaId)));
+            }
+        }
+
+        List<AreaView> areaViews = new ArrayList<>(areas.size());
+        for (Area area : areas) {
+            areaViews.add(new AreaView(area, tablesByArea.getOrDefault(area.getId(), List.of())));
+        }
+        return new FloorPlanView(plan, areaViews);
+    }
+
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public String getDescription() { return description; }
+    public Boolean getActive() { return active; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public List<AreaView> getAreas() { return areas; }
+
+    public int getTotalTables() {
+        return areas.stream().mapToInt(area -> area.getTables().size()).sum();
+    }
+
+    public static final class AreaView {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final Area.AreaType type;
+        private final String color;
+        private final Integer positionX;
+        private final Integer positionY;
+        private final Integer width;
+        private final Integer height;
+        private final Boolean active;
+        private final LocalDateTime createdAt;
+        private final List<TableView> tables;
+
+        private AreaView(Area area, List<TableView> tables) {
+            this.id = area.getId();
+            this.name = area.getName();
+            this.description = area.getDescription();
+            this.type = area.getType();
+            this.color = area.getColor();
+            this.positionX = area.getPositionX();
+            this.positionY = area.getPositionY();
+            this.width = area.getWidth();
+            this.height = area.getHeight();
+            this.active = area.getActive();
+            this.createdAt = area.getCreatedAt();
+            this.tables = Collections.unmodifiableList(tables);
+        }
+
+        public Long getId() { return id; }
+        public String getName() { return name; }
+        public String getDescription() { return description; }
+        public Area.AreaType getType() { return type; }
+        public String getColor() { return color; }
+        public Integer getPositionX() { return positionX; }
+        public Integer getPositionY() { return positionY; }
+        public Integer getWidth() { return width; }
+        public Integer getHeight() { return height; }
+        public Boolean getActive() { return active; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public List<TableView> getTables() { return tables; }
+    }
+
+    public static final class TableView {
+        private final Long id;
+        private final Integer tableNumber;
+        private final Integer capacity;
+        private final RestaurantTable.TableShape shape;
+        private final Integer positionX;
+        private final Integer positionY;
+        private final Integer width;
+        private final Integer height;
+        private final Boolean active;
+        private final LocalDateTime createdAt;
+        private final String areaName;
+
+        private TableView(RestaurantTable table, String areaName) {
+            this.id = table.getId();
+            this.tableNumber = table.getTableNumber();
+            this.capacity = table.getCapacity();
+            this.shape = table.getShape();
+            this.positionX = table.getPositionX();
+            this.positionY = table.getPositionY();
+            this.width = table.getWidth();
+            this.height = table.getHeight();
+            this.active = table.getActive();
+            this.createdAt = table.getCreatedAt();
+            this.areaName = areaName;
+        }
+
+        public Long getId() { return id; }
+        public Integer getTableNumber() { return tableNumber; }
+        public Integer getCapacity() { return capacity; }
+        public RestaurantTable.TableShape getShape() { return shape; }
+        public Integer getPositionX() { return positionX; }
+        public Integer getPositionY() { return positionY; }
+        public Integer getWidth() { return width; }
+        public Integer getHeight() { return height; }
+        public Boolean getActive() { return active; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public String getAreaName() { return areaName; }
+    }
+}
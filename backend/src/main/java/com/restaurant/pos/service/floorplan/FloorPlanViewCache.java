@@ -0,0 +1,205 @@
+package com.restaurant.pos.service.floorplan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.pos.service.FloorPlanService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The active floor plan, serialized once to JSON and served as bytes with an ETag.
+ *
+ * Any committed change to a floor plan, area or table marks it stale and starts a rebuild in
+ * the background. Requests arriving while a rebuild runs wait for that same rebuild instead of
+ * each loading the plan again.
+ */
+@Component
+public class FloorPlanViewCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FloorPlanViewCache.class);
+
+    // Marks a transaction that already scheduled an invalidation
+    private static final Object TRANSACTION_KEY = new Object();
+
+    @Autowired
+    private FloorPlanService floorPlanService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "floor-plan-view");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicReference<CompletableFuture<Rendered>> inFlight = new AtomicReference<>();
+    private volatile Rendered current;
+    private volatile boolean stale = true;
+    // Counts invalidations; each render remembers the count it started from
+    private final AtomicLong invalidations = new AtomicLong();
+    // Seeded from the clock so ETags are never reused after a restart
+    private long lastVersion = System.currentTimeMillis();
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * The active floor plan as rendered JSON, rebuilt first if the layout changed
+     */
+    public Rendered get() {
+        Rendered cached = current;
+        if (cached != null && !stale) {
+            return cached;
+        }
+        try {
+            return rebuild().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Грешка при вчитување на активниот план", e.getCause());
+        }
+    }
+
+    /**
+     * The active floor plan rendered after every change committed so far. Unlike get(), never
+     * returns a rebuild that was already running when the latest change committed.
+     */
+    public Rendered getLatest() {
+        long required = invalidations.get();
+        while (true) {
+            Rendered rendered = get();
+            if (rendered.generation >= required) {
+                return rendered;
+            }
+            // Joined a rebuild that loaded the plan before the change; the view is still stale
+        }
+    }
+
+    /**
+     * Mark the view stale once the current transaction commits (immediately when there is none)
+     */
+    public void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(TRANSACTION_KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+            }
+        });
+    }
+
+    public void invalidate() {
+        invalidations.incrementAndGet();
+        stale = true;
+        try {
+            rebuilder.execute(() -> {
+                try {
+                    // A change committed during a running rebuild leaves the view stale, so go again
+                    for (int attempt = 0; attempt < 3 && stale; attempt++) {
+                        rebuild().join();
+                    }
+                } catch (Exception e) {
+                    logger.warn("Background floor plan rebuild failed: {}", e.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            logger.debug("Floor plan rebuild not scheduled: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Join the running rebuild, or start one in this thread when none is running
+     */
+    private CompletableFuture<Rendered> rebuild() {
+        while (true) {
+            CompletableFuture<Rendered> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<Rendered> mine = new CompletableFuture<>();
+            if (!inFlight.compareAndSet(null, mine)) {
+                continue;
+            }
+            try {
+                // Cleared before loading, so a change committed during the load marks it stale again
+                stale = false;
+                Rendered rendered = render(invalidations.get());
+                current = rendered;
+                mine.complete(rendered);
+            } catch (Throwable e) {
+                stale = true;
+                mine.completeExceptionally(e);
+            } finally {
+                inFlight.set(null);
+            }
+            return mine;
+        }
+    }
+
+    private Rendered render(long generation) throws Exception {
+        Optional<FloorPlanView> view = floorPlanService.getActiveFloorPlan();
+        long version;
+        synchronized (this) {
+            version = ++lastVersion;
+        }
+        byte[] json = view.isPresent() ? objectMapper.writeValueAsBytes(view.get()) : null;
+        logger.debug("Floor plan view rebuilt: version {}, {} bytes", version, json != null ? json.length : 0);
+        return new Rendered(version, generation, json);
+    }
+
+    /**
+     * Rendered JSON of the active plan at one version (no json when there is no active plan)
+     */
+    public static final class Rendered {
+        private final long version;
+        private final long generation;
+        private final byte[] json;
+
+        private Rendered(long version, long generation, byte[] json) {
+            this.version = version;
+            this.generation = generation;
+            this.json = json;
+        }
+
+        public long getVersion() { return version; }
+
+        public String getETag() {
+            return "\"floor-plan-" + version + "\"";
+        }
+
+        public boolean hasPlan() {
+            return json != null;
+        }
+
+        // Shared buffer - written to responses as is, never modified
+        public byte[] getJson() { return json; }
+    }
+}
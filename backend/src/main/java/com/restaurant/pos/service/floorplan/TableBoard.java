@@ -0,0 +1,208 @@
+package com.restaurant.pos.service.floorplan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.pos.entity.Order;
+import com.restaurant.pos.entity.OrderItem;
+import com.restaurant.pos.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Live board of the active order on each table (dine-in and takeout): order id, status,
+ * item count, total and when it was opened.
+ *
+ * Loaded with one aggregate query at startup and then kept current by OrderService, which
+ * hands over every order it changes; the change is applied when the transaction commits.
+ * Each change replaces the board as a whole under a new version.
+ */
+@Component
+public class TableBoard {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableBoard.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TableStatusBoard statusBoard;
+
+    // Seeded from the clock so versions (and ETags) are never reused after a restart
+    private long lastVersion = System.currentTimeMillis();
+    private volatile Board board = new Board(lastVersion, Map.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            Map<Integer, OrderSummary> orders = new TreeMap<>();
+            for (Object[] row : orderRepository.summarizeActiveOrders()) {
+                OrderSummary summary = new OrderSummary((Long) row[0], (Integer) row[1], (Order.Status) row[2],
+                    ((Number) row[6]).intValue(), (BigDecimal) row[3], (LocalDateTime) row[4], (LocalDateTime) row[5]);
+                orders.put(summary.tableNumber, summary);
+            }
+            synchronized (this) {
+                board = new Board(++lastVersion, orders);
+            }
+            logger.info("Table board loaded with {} active orders", orders.size());
+        } catch (Exception e) {
+            logger.error("Cannot load table board", e);
+        }
+    }
+
+    /**
+     * Record the order's current state once the transaction commits (immediately when there is none).
+     * Closed orders leave the board; a moved order leaves its old table. The table statuses follow.
+     */
+    public void updateAfterCommit(Order order) {
+        OrderSummary summary = OrderSummary.of(order);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyAndUpdateStatus(summary);
+                }
+            });
+        } else {
+            applyAndUpdateStatus(summary);
+        }
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    private void applyAndUpdateStatus(OrderSummary summary) {
+        Integer previousTable = apply(summary);
+        if (previousTable != null && !previousTable.equals(summary.tableNumber)) {
+            statusBoard.orderLeft(previousTable, summary.orderId);
+        }
+        if (summary.status == Order.Status.ЗАТВОРЕНА) {
+            statusBoard.orderLeft(summary.tableNumber, summary.orderId);
+        } else {
+            statusBoard.orderOpened(summary.tableNumber, summary.orderId);
+        }
+    }
+
+    // Returns the table the order was on before, if it was on the board
+    private synchronized Integer apply(OrderSummary summary) {
+        Map<Integer, OrderSummary> orders = new TreeMap<>(board.orders);
+        Integer previousTable = null;
+        for (OrderSummary existing : orders.values()) {
+            if (existing.orderId.equals(summary.orderId)) {
+                previousTable = existing.tableNumber;
+            }
+        }
+        if (previousTable != null) {
+            orders.remove(previousTable);
+        }
+        if (summary.status != Order.Status.ЗАТВОРЕНА) {
+            orders.put(summary.tableNumber, summary);
+        }
+        board = new Board(++lastVersion, orders);
+        return previousTable;
+    }
+
+    /**
+     * Layout, active orders and table statuses as one JSON document:
+     * {"layout": ..., "orders": {tableNumber: summary}, "statuses": {tableNumber: state}}
+     */
+    public byte[] render(FloorPlanViewCache.Rendered layout, Board current, TableStatusBoard.Snapshot statuses)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream((layout.hasPlan() ? layout.getJson().length : 4)
+            + current.orders.size() * 160 + statuses.getTables().size() * 80 + 64);
+        out.write("{\"layout\":".getBytes(StandardCharsets.UTF_8));
+        out.write(layout.hasPlan() ? layout.getJson() : "null".getBytes(StandardCharsets.UTF_8));
+        out.write(",\"orders\":".getBytes(StandardCharsets.UTF_8));
+        out.write(current.getJson(objectMapper));
+        out.write(",\"statuses\":".getBytes(StandardCharsets.UTF_8));
+        out.write(statuses.getJson(objectMapper));
+        out.write((",\"version\":" + current.version + "}").getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    /**
+     * Active orders by table number at one version
+     */
+    public static final class Board {
+        private final long version;
+        private final Map<Integer, OrderSummary> orders;
+        private volatile byte[] json;
+
+        private Board(long version, Map<Integer, OrderSummary> orders) {
+            this.version = version;
+            this.orders = Collections.unmodifiableMap(orders);
+        }
+
+        public long getVersion() { return version; }
+        public Map<Integer, OrderSummary> getOrders() { return orders; }
+
+        // Serialized once per version
+        private byte[] getJson(ObjectMapper objectMapper) throws IOException {
+            byte[] cached = json;
+            if (cached == null) {
+                cached = objectMapper.writeValueAsBytes(orders);
+                json = cached;
+            }
+            return cached;
+        }
+    }
+
+    public static final class OrderSummary {
+        private final Long orderId;
+        private final Integer tableNumber;
+        private final Order.Status status;
+        private final int itemCount;
+        private final BigDecimal total;
+        private final LocalDateTime openedAt;
+        private final LocalDateTime updatedAt;
+
+        private OrderSummary(Long orderId, Integer tableNumber, Order.Status status, int itemCount,
+                             BigDecimal total, LocalDateTime openedAt, LocalDateTime updatedAt) {
+            this.orderId = orderId;
+            this.tableNumber = tableNumber;
+            this.status = status;
+            this.itemCount = itemCount;
+            this.total = total;
+            this.openedAt = openedAt;
+            this.updatedAt = updatedAt;
+        }
+
+        private static OrderSummary of(Order order) {
+            int itemCount = 0;
+            for (OrderItem item : order.getItems()) {
+                itemCount += item.getQuantity() != null ? item.getQuantity() : 0;
+            }
+            return new OrderSummary(order.getId(), order.getTableNumber(), order.getStatus(), itemCount,
+                order.getTotalAmount(), order.getCreatedAt(), order.getUpdatedAt());
+        }
+
+        public Long getOrderId() { return orderId; }
+        public Integer getTableNumber() { return tableNumber; }
+        public Order.Status getStatus() { return status; }
+        public int getItemCount() { return itemCount; }
+        public BigDecimal getTotal() { return total; }
+        public LocalDateTime getOpenedAt() { return openedAt; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+        public boolean isTakeout() {
+            return tableNumber != null && tableNumber >= 1000;
+        }
+    }
+}
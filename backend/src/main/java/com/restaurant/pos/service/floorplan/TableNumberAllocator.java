@@ -0,0 +1,120 @@
+package com.restaurant.pos.service.floorplan;
+
+import com.restaurant.pos.repository.RestaurantTableRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.BitSet;
+
+/**
+ * Table numbers in use by active tables, as a bit set loaded once from the database.
+ *
+ * Checking a number and finding the lowest free one are bit operations instead of queries.
+ * Reserving marks the number taken at once, so two admins adding tables at the same time
+ * never get the same number; the reservation is undone if the transaction rolls back.
+ * Numbers freed by deleting or renumbering a table become free when that change commits.
+ */
+@Component
+public class TableNumberAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableNumberAllocator.class);
+
+    @Autowired
+    private RestaurantTableRepository tableRepository;
+
+    private final BitSet used = new BitSet();
+    private boolean loaded;
+
+    public synchronized boolean isFree(int tableNumber) {
+        ensureLoaded();
+        return tableNumber > 0 && !used.get(tableNumber);
+    }
+
+    /**
+     * Lowest number not used by an active table
+     */
+    public synchronized int nextFree() {
+        ensureLoaded();
+        return used.nextClearBit(1);
+    }
+
+    /**
+     * Take the number for a table being created or renumbered; false when it is already in use
+     */
+    public synchronized boolean reserve(int tableNumber) {
+        ensureLoaded();
+        if (tableNumber <= 0 || used.get(tableNumber)) {
+            return false;
+        }
+        used.set(tableNumber);
+        releaseOnRollback(tableNumber);
+        return true;
+    }
+
+    /**
+     * Take the lowest free number
+     */
+    public synchronized int reserveNext() {
+        ensureLoaded();
+        int tableNumber = used.nextClearBit(1);
+        used.set(tableNumber);
+        releaseOnRollback(tableNumber);
+        return tableNumber;
+    }
+
+    /**
+     * Free the number of a deactivated, deleted or renumbered table once the transaction commits
+     */
+    public void releaseAfterCommit(Integer tableNumber) {
+        if (tableNumber == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(tableNumber);
+                }
+            });
+        } else {
+            release(tableNumber);
+        }
+    }
+
+    private synchronized void release(int tableNumber) {
+        if (tableNumber > 0) {
+            used.clear(tableNumber);
+        }
+    }
+
+    private void releaseOnRollback(int tableNumber) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(tableNumber);
+                    }
+                }
+            });
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        used.clear();
+        for (Integer tableNumber : tableRepository.findActiveTableNumbers()) {
+            if (tableNumber != null && tableNumber > 0) {
+                used.set(tableNumber);
+            }
+        }
+        loaded = true;
+        logger.info("Table number allocator loaded {} numbers in use", used.cardinality());
+    }
+}
@@ -0,0 +1,560 @@
+package com.restaurant.pos.service.floorplan;
+
+import com.restaurant.pos.entity.Area;
+import com.restaurant.pos.entity.RestaurantTable;
+import com.restaurant.pos.repository.AreaRepository;
+import com.restaurant.pos.repository.RestaurantTableRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Uniform grid over the table rectangles of each area, for overlap checks and hit-testing.
+ *
+ * Each table is registered in the grid cells its rectangle covers, so a point or rectangle
+ * query only looks at the few tables sharing its cells instead of every table in the area.
+ * Table coordinates are relative to their area. Single table and area changes are applied
+ * once they commit (from the entity listener); bulk changes made with plain JDBC reset the
+ * index, which reloads on next use.
+ */
+@Component
+public class TableSpatialIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableSpatialIndex.class);
+
+    @Value("${floorplan.grid.cell.size:100}")
+    private int cellSize;
+
+    @Value("${floorplan.validate.bounds:true}")
+    private boolean validateBounds;
+
+    @Value("${floorplan.validate.overlaps:true}")
+    private boolean validateOverlaps;
+
+    @Autowired
+    private RestaurantTableRepository tableRepository;
+
+    @Autowired
+    private AreaRepository areaRepository;
+
+    private final Map<Long, Placement> tables = new HashMap<>();
+    private final Map<Long, AreaGrid> areas = new HashMap<>();
+    private boolean loaded;
+
+    /**
+     * Table whose rectangle contains the point, or null
+     */
+    public synchronized Placement tableAt(Long areaId, int x, int y) {
+        ensureLoaded();
+        AreaGrid grid = areas.get(areaId);
+        if (grid == null) {
+            return null;
+        }
+        int size = Math.max(cellSize, 1);
+        for (Long tableId : grid.cell(cellKey(Math.floorDiv(x, size), Math.floorDiv(y, size)))) {
+            Placement placement = tables.get(tableId);
+            if (placement.contains(x, y)) {
+                return placement;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tables intersecting the rectangle, by table number
+     */
+    public synchronized List<Placement> tablesIn(Long areaId, Rect rect) {
+        ensureLoaded();
+        List<Placement> result = new ArrayList<>();
+        for (Long tableId : candidates(areaId, rect)) {
+            Placement placement = tables.get(tableId);
+            if (placement.rect.intersects(rect)) {
+                result.add(placement);
+            }
+        }
+        result.sort(Comparator.comparing(Placement::getTableNumber));
+        return result;
+    }
+
+    /**
+     * Reject a placement outside the area or overlapping another table (ignoring the given tables,
+     * e.g. the table itself and others moved in the same request)
+     */
+    public synchronized void validatePlacement(Long areaId, Long tableId, Rect rect, Set<Long> ignored) {
+        ensureLoaded();
+        checkPlacement(areaId, tableId, rect, ignored, null);
+    }
+
+    // Bounds, when given, replace the indexed size of the area
+    private void checkPlacement(Long areaId, Long tableId, Rect rect, Set<Long> ignored, Rect bounds) {
+        AreaGrid grid = areas.get(areaId);
+        if (validateBounds && grid != null
+                && !(bounds != null ? fits(bounds.width, bounds.height, rect) : grid.contains(rect))) {
+            throw new IllegalArgumentException("Масата " + describe(tableId) + " е надвор од областа");
+        }
+        if (!validateOverlaps) {
+            return;
+        }
+        for (Long otherId : candidates(areaId, rect)) {
+            if (!otherId.equals(tableId) && (ignored == null || !ignored.contains(otherId))
+                    && tables.get(otherId).rect.intersects(rect)) {
+                throw new IllegalArgumentException("Масата " + describe(tableId)
+                    + " се преклопува со маса " + tables.get(otherId).tableNumber);
+            }
+        }
+    }
+
+    /**
+     * Validate many moves together: each against the unmoved tables and against the other moves.
+     * Areas in areaBounds (from mergeArea) are checked at that size instead of the indexed one.
+     */
+    public synchronized void validateMoves(Map<Long, Rect> moves, Map<Long, Rect> areaBounds) {
+        ensureLoaded();
+        Map<Long, List<Map.Entry<Long, Rect>>> byArea = new LinkedHashMap<>();
+        for (Map.Entry<Long, Rect> move : moves.entrySet()) {
+            Placement current = tables.get(move.getKey());
+            if (current == null) {
+                throw new RuntimeException("Масата " + move.getKey() + " не е пронајдена");
+            }
+            checkPlacement(current.areaId, move.getKey(), move.getValue(), moves.keySet(),
+                areaBounds.get(current.areaId));
+            byArea.computeIfAbsent(current.areaId, id -> new ArrayList<>()).add(move);
+        }
+        if (!validateOverlaps) {
+            return;
+        }
+        for (List<Map.Entry<Long, Rect>> areaMoves : byArea.values()) {
+            // Moves within one request are few; compare them pairwise
+            for (int i = 0; i < areaMoves.size(); i++) {
+                for (int j = i + 1; j < areaMoves.size(); j++) {
+                    if (areaMoves.get(i).getValue().intersects(areaMoves.get(j).getValue())) {
+                        throw new IllegalArgumentException("Масата " + describe(areaMoves.get(i).getKey())
+                            + " се преклопува со маса " + describe(areaMoves.get(j).getKey()));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Spot for a new table: the first free cell of a grid with the given spacing, row by row,
+     * inside the area when it has a size. When the area is full, the row below its lowest table.
+     */
+    public synchronized Rect findFreeSpot(Long areaId, int width, int height, int stepX, int stepY) {
+        ensureLoaded();
+        AreaGrid grid = areas.get(areaId);
+        boolean bounded = grid != null && grid.width > 0 && grid.height > 0;
+        // Unsized areas keep the two-column grid
+        int columns = bounded ? (grid.width >= width ? (grid.width - width) / stepX + 1 : 0) : 2;
+        int rows = bounded ? (grid.height >= height ? (grid.height - height) / stepY + 1 : 0) : tables.size() + 1;
+        int bottom = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                Rect rect = new Rect(column * stepX, row * stepY, width, height);
+                if (!overlapsAny(areaId, rect)) {
+                    return rect;
+                }
+            }
+        }
+        if (grid != null) {
+            for (Set<Long> cell : grid.cells.values()) {
+                for (Long tableId : cell) {
+                    Rect rect = tables.get(tableId).rect;
+                    bottom = Math.max(bottom, rect.y + rect.height);
+                }
+            }
+        }
+        int y = bottom == 0 ? 0 : (bottom + stepY - height);
+        logger.warn("Area {} has no free spot for a {}x{} table, placing it at y={}", areaId, width, height, y);
+        return new Rect(0, y, width, height);
+    }
+
+    private boolean overlapsAny(Long areaId, Rect rect) {
+        for (Long otherId : candidates(areaId, rect)) {
+            if (tables.get(otherId).rect.intersects(rect)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reject moving tables to another area at their current positions when one would end up
+     * outside it or on one of its tables. All tables of the source area when tableIds is null.
+     */
+    public synchronized void validateAreaMove(Long sourceAreaId, Collection<Long> tableIds, Long targetAreaId) {
+        ensureLoaded();
+        AreaGrid source = areas.get(sourceAreaId);
+        if (source == null) {
+            return;
+        }
+        Set<Long> moving = new HashSet<>();
+        if (tableIds == null) {
+            source.cells.values().forEach(moving::addAll);
+        } else {
+            for (Long tableId : tableIds) {
+                Placement placement = tables.get(tableId);
+                // Unknown ids are left to the caller, which rejects the move when not all tables were moved
+                if (placement != null && placement.areaId.equals(sourceAreaId)) {
+                    moving.add(tableId);
+                }
+            }
+        }
+        for (Long tableId : moving) {
+            validatePlacement(targetAreaId, tableId, tables.get(tableId).rect, null);
+        }
+    }
+
+    /**
+     * Current rectangle of a table with missing values taken from the index (null if unknown)
+     */
+    public synchronized Rect merge(Long tableId, Integer x, Integer y, Integer width, Integer height) {
+        ensureLoaded();
+        Placement current = tables.get(tableId);
+        if (current == null) {
+            return null;
+        }
+        Rect rect = current.rect;
+        return new Rect(x != null ? x : rect.x, y != null ? y : rect.y,
+            width != null ? width : rect.width, height != null ? height : rect.height);
+    }
+
+    /**
+     * Bounds of an area at (0, 0) with missing values taken from the index (null if unknown)
+     */
+    public synchronized Rect mergeArea(Long areaId, Integer width, Integer height) {
+        ensureLoaded();
+        AreaGrid grid = areas.get(areaId);
+        if (grid == null) {
+            return null;
+        }
+        return new Rect(0, 0, width != null ? width : grid.width, height != null ? height : grid.height);
+    }
+
+    /**
+     * Overlapping tables and tables outside their area, for an admin check of the layout
+     */
+    public synchronized List<String> findConflicts(Long areaId) {
+        ensureLoaded();
+        List<String> conflicts = new ArrayList<>();
+        AreaGrid grid = areas.get(areaId);
+        if (grid == null) {
+            return conflicts;
+        }
+        Set<Long> areaTables = new HashSet<>();
+        grid.cells.values().forEach(areaTables::addAll);
+        List<Placement> sorted = areaTables.stream().map(tables::get)
+            .sorted(Comparator.comparing(Placement::getTableNumber)).toList();
+        for (Placement placement : sorted) {
+            if (!grid.contains(placement.rect)) {
+                conflicts.add("Масата " + placement.tableNumber + " е надвор од областа");
+            }
+            for (Long otherId : candidates(areaId, placement.rect)) {
+                Placement other = tables.get(otherId);
+                if (other.tableNumber > placement.tableNumber && other.rect.intersects(placement.rect)) {
+                    conflicts.add("Масата " + placement.tableNumber + " се преклопува со маса " + other.tableNumber);
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Apply a table change once the transaction commits (inactive tables leave the index)
+     */
+    public void tableChangedAfterCommit(RestaurantTable table) {
+        Long areaId = table.getArea() != null ? table.getArea().getId() : null;
+        Placement placement = Boolean.TRUE.equals(table.getActive()) && areaId != null
+            ? new Placement(table.getId(), table.getTableNumber(), areaId, Rect.of(table))
+            : null;
+        Long tableId = table.getId();
+        afterCommit(() -> {
+            if (placement != null) {
+                put(placement);
+            } else {
+                remove(tableId);
+            }
+        });
+    }
+
+    public void tableRemovedAfterCommit(Long tableId) {
+        afterCommit(() -> remove(tableId));
+    }
+
+    /**
+     * Apply an area size change once the transaction commits (inactive areas leave the index)
+     */
+    public void areaChangedAfterCommit(Area area) {
+        Long areaId = area.getId();
+        boolean active = Boolean.TRUE.equals(area.getActive());
+        int width = area.getWidth() != null ? area.getWidth() : 0;
+        int height = area.getHeight() != null ? area.getHeight() : 0;
+        afterCommit(() -> updateArea(areaId, active, width, height));
+    }
+
+    /**
+     * Apply moves made with plain JDBC once the transaction commits
+     */
+    public void tablesMovedAfterCommit(Map<Long, Rect> moves) {
+        Map<Long, Rect> copy = new HashMap<>(moves);
+        afterCommit(() -> {
+            synchronized (this) {
+                copy.forEach((tableId, rect) -> {
+                    Placement current = tables.get(tableId);
+                    if (current != null) {
+                        put(new Placement(tableId, current.tableNumber, current.areaId, rect));
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Reload everything on next use
+     */
+    public synchronized void reset() {
+        loaded = false;
+    }
+
+    public void resetAfterCommit() {
+        afterCommit(this::reset);
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private synchronized void put(Placement placement) {
+        if (!loaded) {
+            return;
+        }
+        remove(placement.tableId);
+        AreaGrid grid = areas.computeIfAbsent(placement.areaId, id -> new AreaGrid(0, 0));
+        tables.put(placement.tableId, placement);
+        forEachCell(placement.rect, key -> grid.cells.computeIfAbsent(key, k -> new HashSet<>()).add(placement.tableId));
+    }
+
+    private synchronized void remove(Long tableId) {
+        if (!loaded) {
+            return;
+        }
+        Placement old = tables.remove(tableId);
+        if (old == null) {
+            return;
+        }
+        AreaGrid grid = areas.get(old.areaId);
+        if (grid != null) {
+            forEachCell(old.rect, key -> {
+                Set<Long> cell = grid.cells.get(key);
+                if (cell != null) {
+                    cell.remove(tableId);
+                    if (cell.isEmpty()) {
+                        grid.cells.remove(key);
+                    }
+                }
+            });
+        }
+    }
+
+    private synchronized void updateArea(Long areaId, boolean active, int width, int height) {
+        if (!loaded) {
+            return;
+        }
+        if (!active) {
+            AreaGrid grid = areas.remove(areaId);
+            if (grid != null) {
+                Set<Long> ids = new HashSet<>();
+                grid.cells.values().forEach(ids::addAll);
+                ids.forEach(tables::remove);
+            }
+            return;
+        }
+        AreaGrid grid = areas.computeIfAbsent(areaId, id -> new AreaGrid(width, height));
+        grid.width = width;
+        grid.height = height;
+    }
+
+    private Collection<Long> candidates(Long areaId, Rect rect) {
+        AreaGrid grid = areas.get(areaId);
+        if (grid == null) {
+            return List.of();
+        }
+        Set<Long> result = new HashSet<>();
+        forEachCell(rect, key -> result.addAll(grid.cell(key)));
+        return result;
+    }
+
+    private void forEachCell(Rect rect, LongConsumer action) {
+        int size = Math.max(cellSize, 1);
+        int fromX = Math.floorDiv(rect.x, size);
+        int fromY = Math.floorDiv(rect.y, size);
+        int toX = Math.floorDiv(rect.x + Math.max(rect.width, 1) - 1, size);
+        int toY = Math.floorDiv(rect.y + Math.max(rect.height, 1) - 1, size);
+        for (int cx = fromX; cx <= toX; cx++) {
+            for (int cy = fromY; cy <= toY; cy++) {
+                action.accept(cellKey(cx, cy));
+            }
+        }
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    private String describe(Long tableId) {
+        Placement placement = tableId != null ? tables.get(tableId) : null;
+        return placement != null ? String.valueOf(placement.tableNumber) : String.valueOf(tableId);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        tables.clear();
+        areas.clear();
+        for (Area area : areaRepository.findByActiveTrueOrderByNameAsc()) {
+            areas.put(area.getId(), new AreaGrid(area.getWidth() != null ? area.getWidth() : 0,
+                area.getHeight() != null ? area.getHeight() : 0));
+        }
+        loaded = true;
+        try {
+            for (RestaurantTable table : tableRepository.findByActiveTrueOrderByTableNumberAsc()) {
+                // The id of a lazy area reference is read without loading the area
+                Long areaId = table.getArea() != null ? table.getArea().getId() : null;
+                if (areaId != null && areas.containsKey(areaId)) {
+                    put(new Placement(table.getId(), table.getTableNumber(), areaId, Rect.of(table)));
+                }
+            }
+        } catch (RuntimeException e) {
+            loaded = false;
+            throw e;
+        }
+        logger.info("Spatial index loaded: {} tables in {} areas", tables.size(), areas.size());
+    }
+
+    /**
+     * Axis-aligned rectangle in area coordinates
+     */
+    public static final class Rect {
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+
+        public Rect(int x, int y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        public static Rect of(RestaurantTable table) {
+            return new Rect(valueOf(table.getPositionX()), valueOf(table.getPositionY()),
+                valueOf(table.getWidth()), valueOf(table.getHeight()));
+        }
+
+        private static int valueOf(Integer value) {
+            return value != null ? value : 0;
+        }
+
+        // Touching edges do not count as overlapping
+        boolean intersects(Rect other) {
+            return x < other.x + other.width && other.x < x + width
+                && y < other.y + other.height && other.y < y + height;
+        }
+
+        public int getX() { return x; }
+        public int getY() { return y; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Rect rect
+                && x == rect.x && y == rect.y && width == rect.width && height == rect.height;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(x, y, width, height);
+        }
+    }
+
+    /**
+     * Where one active table is
+     */
+    public static final class Placement {
+        private final Long tableId;
+        private final Integer tableNumber;
+        private final Long areaId;
+        private final Rect rect;
+
+        private Placement(Long tableId, Integer tableNumber, Long areaId, Rect rect) {
+            this.tableId = tableId;
+            this.tableNumber = tableNumber;
+            this.areaId = areaId;
+            this.rect = rect;
+        }
+
+        boolean contains(int px, int py) {
+            return px >= rect.x && px < rect.x + rect.width && py >= rect.y && py < rect.y + rect.height;
+        }
+
+        public Long getTableId() { return tableId; }
+        public Integer getTableNumber() { return tableNumber; }
+        public Long getAreaId() { return areaId; }
+        public Rect getRect() { return rect; }
+    }
+
+    private static final class AreaGrid {
+        private int width;
+        private int height;
+        private final Map<Long, Set<Long>> cells = new HashMap<>();
+
+        private AreaGrid(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        private Set<Long> cell(long key) {
+            return cells.getOrDefault(key, Set.of());
+        }
+
+        private boolean contains(Rect rect) {
+            return fits(width, height, rect);
+        }
+    }
+
+    // An area without a size does not limit its tables
+    private static boolean fits(int width, int height, Rect rect) {
+        if (width <= 0 || height <= 0) {
+            return rect.x >= 0 && rect.y >= 0;
+        }
+        return rect.x >= 0 && rect.y >= 0 && rect.x + rect.width <= width && rect.y + rect.height <= height;
+    }
+}
@@ -0,0 +1,431 @@
+package com.restaurant.pos.service.floorplan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.pos.entity.RestaurantTable;
+import com.restaurant.pos.entity.RestaurantTable.TableStatus;
+import com.restaurant.pos.repository.OrderRepository;
+import com.restaurant.pos.repository.RestaurantTableRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Status of every active table, kept in memory and driven by the order lifecycle.
+ *
+ * Opening an order makes its table OCCUPIED, closing it (or moving it away) makes the table
+ * CLEANING, and a timer returns a table that is still CLEANING to AVAILABLE. Due reservations
+ * hold their table as RESERVED (see ReservationBook). Manual changes are limited to the
+ * transitions in ALLOWED. Each table's state is swapped with compare-and-set, so readers never
+ * block and concurrent writers never overwrite each other. Changed tables are written to the
+ * database in the background in one batch.
+ */
+@Component
+public class TableStatusBoard {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableStatusBoard.class);
+
+    private static final String UPDATE_STATUS_SQL =
+        "UPDATE restaurant_tables SET status = ? WHERE table_number = ? AND active = TRUE";
+
+    // Manual transitions; OCCUPIED is only entered by opening an order
+    private static final Map<TableStatus, Set<TableStatus>> ALLOWED = new EnumMap<>(TableStatus.class);
+
+    static {
+        ALLOWED.put(TableStatus.AVAILABLE, EnumSet.of(TableStatus.RESERVED, TableStatus.CLEANING, TableStatus.OUT_OF_ORDER));
+        ALLOWED.put(TableStatus.RESERVED, EnumSet.of(TableStatus.AVAILABLE, TableStatus.CLEANING, TableStatus.OUT_OF_ORDER));
+        ALLOWED.put(TableStatus.OCCUPIED, EnumSet.of(TableStatus.AVAILABLE, TableStatus.CLEANING));
+        ALLOWED.put(TableStatus.CLEANING, EnumSet.of(TableStatus.AVAILABLE, TableStatus.RESERVED, TableStatus.OUT_OF_ORDER));
+        ALLOWED.put(TableStatus.OUT_OF_ORDER, EnumSet.of(TableStatus.AVAILABLE, TableStatus.CLEANING));
+    }
+
+    @Value("${tables.status.cleaning.minutes:5}")
+    private long cleaningMinutes;
+
+    @Value("${tables.status.flush.ms:1000}")
+    private long flushMillis;
+
+    @Autowired
+    private RestaurantTableRepository tableRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "table-status");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Integer, AtomicReference<TableState>> states = new ConcurrentHashMap<>();
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+    // Seeded from the clock so versions (and ETags) are never reused after a restart
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reload();
+        scheduler.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    /**
+     * Rebuild the board from the tables and the open orders, fixing statuses that drifted
+     */
+    public synchronized void reload() {
+        try {
+            // Unsaved changes first, so the tables read below are current
+            flush();
+            Map<Integer, Long> openOrders = new HashMap<>();
+            for (Object[] row : orderRepository.summarizeActiveOrders()) {
+                openOrders.put((Integer) row[1], (Long) row[0]);
+            }
+
+            Set<Integer> numbers = new HashSet<>();
+            int fixed = 0;
+            for (RestaurantTable table : tableRepository.findByActiveTrueOrderByTableNumberAsc()) {
+                Integer tableNumber = table.getTableNumber();
+                numbers.add(tableNumber);
+                TableStatus stored = table.getStatus() != null ? table.getStatus() : TableStatus.AVAILABLE;
+                Long orderId = openOrders.get(tableNumber);
+                TableState state = orderId != null
+                    ? new TableState(TableStatus.OCCUPIED, orderId)
+                    : new TableState(stored == TableStatus.OCCUPIED ? TableStatus.AVAILABLE : stored, null);
+                if (state.status != stored) {
+                    dirty.add(tableNumber);
+                    fixed++;
+                }
+                states.computeIfAbsent(tableNumber, n -> new AtomicReference<>()).set(state);
+                if (state.status == TableStatus.CLEANING) {
+                    scheduleCleaned(tableNumber, state);
+                }
+            }
+            states.keySet().retainAll(numbers);
+            version.incrementAndGet();
+            logger.info("Table status board loaded: {} tables, {} statuses corrected", numbers.size(), fixed);
+        } catch (Exception e) {
+            logger.error("Cannot load table status board", e);
+        }
+    }
+
+    /**
+     * Reload in the background once the transaction commits, after changes made in bulk
+     */
+    public void reloadAfterCommit() {
+        afterCommit(() -> {
+            try {
+                scheduler.execute(this::reload);
+            } catch (Exception e) {
+                logger.debug("Table status reload not scheduled: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * An order was opened on the table or moved to it
+     */
+    public void orderOpened(Integer tableNumber, Long orderId) {
+        update(tableNumber, current -> current.status == TableStatus.OCCUPIED && orderId.equals(current.orderId)
+            ? current : new TableState(TableStatus.OCCUPIED, orderId));
+    }
+
+    /**
+     * The order on the table was closed or moved to another table
+     */
+    public void orderLeft(Integer tableNumber, Long orderId) {
+        TableState cleaning = update(tableNumber, current ->
+            current.status == TableStatus.OCCUPIED && (current.orderId == null || current.orderId.equals(orderId))
+                ? new TableState(TableStatus.CLEANING, null) : current);
+        if (cleaning != null && cleaning.status == TableStatus.CLEANING) {
+            scheduleCleaned(tableNumber, cleaning);
+        }
+    }
+
+    /**
+     * A reservation is due: an AVAILABLE table becomes RESERVED (one already RESERVED is taken
+     * over). Returns the held state, or null while the table is occupied, being cleaned or unknown.
+     */
+    public TableState hold(Integer tableNumber) {
+        TableState held = update(tableNumber, current ->
+            current.status == TableStatus.AVAILABLE ? new TableState(TableStatus.RESERVED, null) : current);
+        return held != null && held.status == TableStatus.RESERVED ? held : null;
+    }
+
+    /**
+     * The reservation is over: back to AVAILABLE unless the table changed since it was held
+     */
+    public void release(Integer tableNumber, TableState held) {
+        update(tableNumber, current -> current == held ? new TableState(TableStatus.AVAILABLE, null) : current);
+    }
+
+    /**
+     * Manual status change, limited to the allowed transitions. Checked now (IllegalStateException
+     * when not allowed) and applied once the transaction commits, checked again against the state then.
+     */
+    public void transitionAfterCommit(RestaurantTable table, TableStatus target) {
+        Integer tableNumber = table.getTableNumber();
+        TableStatus stored = table.getStatus() != null ? table.getStatus() : TableStatus.AVAILABLE;
+        TableState current = getState(tableNumber);
+        checkTransition(current != null ? current : new TableState(stored, null), target);
+        afterCommit(() -> {
+            states.computeIfAbsent(tableNumber, n -> new AtomicReference<>(new TableState(stored, null)));
+            try {
+                TableState next = update(tableNumber, state -> checkTransition(state, target));
+                if (next != null && next.status == TableStatus.CLEANING) {
+                    scheduleCleaned(tableNumber, next);
+                }
+            } catch (IllegalStateException e) {
+                logger.warn("Status of table {} not changed to {}: {}", tableNumber, target, e.getMessage());
+            }
+        });
+    }
+
+    private static TableState checkTransition(TableState current, TableStatus target) {
+        if (current.status == target) {
+            return current;
+        }
+        if (!ALLOWED.get(current.status).contains(target)) {
+            throw new IllegalStateException("Масата не може да премине од „" + current.status.getDisplayName()
+                + "“ во „" + target.getDisplayName() + "“");
+        }
+        if (current.status == TableStatus.OCCUPIED && current.orderId != null) {
+            throw new IllegalStateException("Масата има отворена нарачка");
+        }
+        return new TableState(target, null);
+    }
+
+    /**
+     * Track a committed table change: new tables join with their stored status, deactivated ones leave
+     */
+    public void tableChangedAfterCommit(RestaurantTable table) {
+        Integer tableNumber = table.getTableNumber();
+        boolean active = Boolean.TRUE.equals(table.getActive());
+        TableStatus stored = table.getStatus() != null ? table.getStatus() : TableStatus.AVAILABLE;
+        afterCommit(() -> {
+            if (tableNumber == null) {
+                return;
+            }
+            if (active) {
+                if (states.putIfAbsent(tableNumber, new AtomicReference<>(new TableState(stored, null))) == null) {
+                    version.incrementAndGet();
+                }
+            } else if (states.remove(tableNumber) != null) {
+                version.incrementAndGet();
+            }
+        });
+    }
+
+    public void tableRemovedAfterCommit(Integer tableNumber) {
+        afterCommit(() -> {
+            if (tableNumber != null && states.remove(tableNumber) != null) {
+                version.incrementAndGet();
+            }
+        });
+    }
+
+    public TableState getState(Integer tableNumber) {
+        AtomicReference<TableState> state = tableNumber != null ? states.get(tableNumber) : null;
+        return state != null ? state.get() : null;
+    }
+
+    /**
+     * All tables by number at the current version, built at most once per version
+     */
+    public Snapshot getSnapshot() {
+        long current = version.get();
+        Snapshot cached = snapshot;
+        if (cached != null && cached.version == current) {
+            return cached;
+        }
+        Map<Integer, TableState> tables = new TreeMap<>();
+        states.forEach((tableNumber, state) -> tables.put(tableNumber, state.get()));
+        Snapshot built = new Snapshot(current, tables);
+        snapshot = built;
+        return built;
+    }
+
+    /**
+     * Tables in the given status, by table number
+     */
+    public List<TableEntry> getByStatus(TableStatus status) {
+        List<TableEntry> result = new ArrayList<>();
+        getSnapshot().tables.forEach((tableNumber, state) -> {
+            if (state.status == status) {
+                result.add(new TableEntry(tableNumber, state));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Swap the table's state with compare-and-set; the change function may run more than once.
+     * Returns the resulting state, or null for numbers without an active table (e.g. takeout).
+     */
+    private TableState update(Integer tableNumber, UnaryOperator<TableState> change) {
+        AtomicReference<TableState> ref = tableNumber != null ? states.get(tableNumber) : null;
+        if (ref == null) {
+            return null;
+        }
+        while (true) {
+            TableState current = ref.get();
+            TableState next = change.apply(current);
+            if (next == current) {
+                return current;
+            }
+            if (ref.compareAndSet(current, next)) {
+                dirty.add(tableNumber);
+                version.incrementAndGet();
+                logger.debug("Table {}: {} -> {}", tableNumber, current.status, next.status);
+                return next;
+            }
+        }
+    }
+
+    // Back to AVAILABLE unless the table changed again in the meantime
+    private void scheduleCleaned(Integer tableNumber, TableState cleaning) {
+        try {
+            scheduler.schedule(() -> {
+                update(tableNumber, current -> current == cleaning ? new TableState(TableStatus.AVAILABLE, null) : current);
+            }, cleaningMinutes, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            logger.debug("Cleaning timer not scheduled for table {}: {}", tableNumber, e.getMessage());
+        }
+    }
+
+    /**
+     * Write the changed statuses in one batch; failed ones are retried on the next run
+     */
+    private synchronized void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Integer> numbers = new ArrayList<>(dirty);
+        dirty.removeAll(numbers);
+        List<Object[]> rows = new ArrayList<>();
+        for (Integer tableNumber : numbers) {
+            TableState state = getState(tableNumber);
+            if (state != null) {
+                rows.add(new Object[]{state.status.name(), tableNumber});
+            }
+        }
+        try {
+            // Plain JDBC skips the entity listeners; the cached layout has no statuses to refresh
+            jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, rows);
+            logger.debug("Saved status of {} tables", rows.size());
+        } catch (DataAccessException e) {
+            dirty.addAll(numbers);
+            logger.warn("Cannot save table statuses, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * One table's status, since when, and the open order that holds it (if any)
+     */
+    public static final class TableState {
+        private final TableStatus status;
+        private final Long orderId;
+        private final LocalDateTime since;
+
+        private TableState(TableStatus status, Long orderId) {
+            this.status = status;
+            this.orderId = orderId;
+            this.since = LocalDateTime.now();
+        }
+
+        public TableStatus getStatus() { return status; }
+        public Long getOrderId() { return orderId; }
+        public LocalDateTime getSince() { return since; }
+    }
+
+    public static final class TableEntry {
+        private final Integer tableNumber;
+        private final TableState state;
+
+        private TableEntry(Integer tableNumber, TableState state) {
+            this.tableNumber = tableNumber;
+            this.state = state;
+        }
+
+        public Integer getTableNumber() { return tableNumber; }
+        public TableStatus getStatus() { return state.status; }
+        public Long getOrderId() { return state.orderId; }
+        public LocalDateTime getSince() { return state.since; }
+    }
+
+    /**
+     * States of all tables by table number at one version
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final Map<Integer, TableState> tables;
+        private volatile byte[] json;
+
+        private Snapshot(long version, Map<Integer, TableState> tables) {
+            this.version = version;
+            this.tables = Collections.unmodifiableMap(tables);
+        }
+
+        public long getVersion() { return version; }
+        public Map<Integer, TableState> getTables() { return tables; }
+
+        // Serialized once per version
+        byte[] getJson(ObjectMapper objectMapper) throws IOException {
+            byte[] cached = json;
+            if (cached == null) {
+                cached = objectMapper.writeValueAsBytes(tables);
+                json = cached;
+            }
+            return cached;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.restaurant.pos.service.menu;
+
+import com.restaurant.pos.entity.AvailabilitySchedule;
+import com.restaurant.pos.entity.MenuItem;
+import com.restaurant.pos.repository.AvailabilityScheduleRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Availability schedules compiled into one bitmap per item and per category with a bit for
+ * every minute of the week, so "can this be ordered now" is a map lookup and a bit test.
+ *
+ * The minutes where any bitmap flips are kept as well, so the catalog knows until when
+ * its snapshot is valid and rebuilds it at the next schedule boundary.
+ */
+@Component
+public class AvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityIndex.class);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    @Autowired
+    private AvailabilityScheduleRepository scheduleRepository;
+
+    private volatile Compiled compiled = new Compiled(Map.of(), Map.of(), new BitSet());
+
+    @PostConstruct
+    public void start() {
+        reload();
+    }
+
+    /**
+     * Recompile the schedules once the current transaction commits (immediately when there is none)
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    public void reload() {
+        try {
+            Map<Long, BitSet> byItem = new HashMap<>();
+            Map<MenuItem.Category, BitSet> byCategory = new EnumMap<>(MenuItem.Category.class);
+            for (AvailabilitySchedule schedule : scheduleRepository.findByActiveTrueOrderByIdAsc()) {
+                BitSet bits = schedule.getMenuItemId() != null
+                    ? byItem.computeIfAbsent(schedule.getMenuItemId(), id -> new BitSet(MINUTES_PER_WEEK))
+                    : schedule.getCategory() != null
+                        ? byCategory.computeIfAbsent(schedule.getCategory(), c -> new BitSet(MINUTES_PER_WEEK))
+                        : null;
+                if (bits != null) {
+                    mark(bits, schedule);
+                }
+            }
+
+            BitSet boundaries = new BitSet(MINUTES_PER_WEEK);
+            byItem.values().forEach(bits -> addBoundaries(boundaries, bits));
+            byCategory.values().forEach(bits -> addBoundaries(boundaries, bits));
+
+            compiled = new Compiled(byItem, byCategory, boundaries);
+            logger.info("Compiled availability schedules: {} items, {} categories", byItem.size(), byCategory.size());
+        } catch (Exception e) {
+            logger.error("Cannot load availability schedules", e);
+        }
+    }
+
+    /**
+     * Whether the item's schedule (its own, else its category's) allows ordering it now.
+     * Items without any schedule are always in schedule; the manual availability flag is separate.
+     */
+    public boolean isInScheduleNow(MenuItem item) {
+        return isInSchedule(item, minuteOfWeek(LocalDateTime.now()));
+    }
+
+    public boolean isInSchedule(MenuItem item, int minuteOfWeek) {
+        Compiled current = compiled;
+        BitSet bits = item.getId() != null ? current.byItem.get(item.getId()) : null;
+        if (bits == null) {
+            bits = current.byCategory.get(item.getCategory());
+        }
+        return bits == null || bits.get(minuteOfWeek);
+    }
+
+    /**
+     * Epoch millis of the next minute where some item goes on or off schedule (Long.MAX_VALUE when never)
+     */
+    public long nextBoundaryMillis(LocalDateTime now) {
+        BitSet boundaries = compiled.boundaries;
+        if (boundaries.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        int minute = minuteOfWeek(now);
+        int next = boundaries.nextSetBit(minute + 1);
+        int ahead = next >= 0 ? next - minute : MINUTES_PER_WEEK - minute + boundaries.nextSetBit(0);
+        LocalDateTime at = now.withSecond(0).withNano(0).plusMinutes(ahead);
+        return at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static int minuteOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    // Set the minutes of the window on each of its days; a window past midnight spills into the next day
+    private static void mark(BitSet bits, AvailabilitySchedule schedule) {
+        int start = ScheduleTimes.toMinute(schedule.getStartTime(), 0);
+        int end = ScheduleTimes.toMinute(schedule.getEndTime(), MINUTES_PER_DAY);
+        int length = end > start ? end - start : end + MINUTES_PER_DAY - start;
+        for (DayOfWeek day : ScheduleTimes.parseDays(schedule.getDaysOfWeek())) {
+            int from = (day.getValue() - 1) * MINUTES_PER_DAY + start;
+            int to = from + length;
+            if (to <= MINUTES_PER_WEEK) {
+                bits.set(from, to);
+            } else {
+                // Sunday night into Monday morning
+                bits.set(from, MINUTES_PER_WEEK);
+                bits.set(0, to - MINUTES_PER_WEEK);
+            }
+        }
+    }
+
+    // Minutes where the bitmap differs from the minute before (the week wraps around)
+    private static void addBoundaries(BitSet boundaries, BitSet bits) {
+        for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+            int previous = minute == 0 ? MINUTES_PER_WEEK - 1 : minute - 1;
+            if (bits.get(minute) != bits.get(previous)) {
+                boundaries.set(minute);
+            }
+        }
+    }
+
+    private static final class Compiled {
+        private final Map<Long, BitSet> byItem;
+        private final Map<MenuItem.Category, BitSet> byCategory;
+        private final BitSet boundaries;
+
+        private Compiled(Map<Long, BitSet> byItem, Map<MenuItem.Category, BitSet> byCategory, BitSet boundaries) {
+            this.byItem = byItem;
+            this.byCategory = byCategory;
+            this.boundaries = boundaries;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.restaurant.pos.service.menu;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BK-tree of normalized name words for typo-tolerant lookups. Only subtrees whose
+ * edit distance can still be within the limit are visited, so a lookup touches a small
+ * part of the tree however many words it holds.
+ *
+ * Words are never unlinked (BK-trees do not support it); a removed word just loses its
+ * item ids, and the owner rebuilds the tree once too many words are dead.
+ * Writes must be serialized by the owner; reads may run concurrently.
+ */
+final class BkTree {
+
+    private volatile Node root;
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+    private int deadWords;
+
+    void add(String word, Long id) {
+        Node node = nodes.get(word);
+        if (node != null) {
+            if (node.ids.isEmpty()) {
+                deadWords--;
+            }
+            node.ids.add(id);
+            return;
+        }
+
+        node = new Node(word);
+        node.ids.add(id);
+        nodes.put(word, node);
+        if (root == null) {
+            root = node;
+            return;
+        }
+
+        Node current = root;
+        while (true) {
+            int distance = distance(word, current.word);
+            Node child = current.children.get(distance);
+            if (child == null) {
+                current.children.put(distance, node);
+                return;
+            }
+            current = child;
+        }
+    }
+
+    void remove(String word, Long id) {
+        Node node = nodes.get(word);
+        if (node != null && node.ids.remove(id) && node.ids.isEmpty()) {
+            deadWords++;
+        }
+    }
+
+    /**
+     * True when more than half of the words no longer belong to any item
+     */
+    boolean needsRebuild() {
+        return deadWords > 64 && deadWords * 2 > nodes.size();
+    }
+
+    /**
+     * Item ids whose word is within maxDistance edits, with the smallest distance per id
+     */
+    Map<Long, Integer> search(String word, int maxDistance) {
+        Map<Long, Integer> result = new HashMap<>();
+        Node start = root;
+        if (start == null) {
+            return result;
+        }
+
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(word, node.word);
+            if (distance <= maxDistance) {
+                for (Long id : node.ids) {
+                    result.merge(id, distance, Math::min);
+                }
+            }
+            // Triangle inequality: only children at distance-k..distance+k can match
+            for (int d = Math.max(1, distance - maxDistance); d <= distance + maxDistance; d++) {
+                Node child = node.children.get(d);
+                if (child != null) {
+                    pending.push(child);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Levenshtein distance with two rolling rows
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j] + 1, current[j - 1] + 1));
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class Node {
+        private final String word;
+        private final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        private final Map<Integer, Node> children = new ConcurrentHashMap<>();
+
+        private Node(String word) {
+            this.word = word;
+        }
+    }
+}
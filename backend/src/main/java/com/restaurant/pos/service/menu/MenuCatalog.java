@@ -0,0 +1,106 @@
+package com.restaurant.pos.service.menu;
+
+import com.restaurant.pos.entity.MenuItem;
+import com.restaurant.pos.repository.MenuItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-memory menu served to the menu endpoints instead of querying on every request.
+ *
+ * The current snapshot is replaced as a whole after a menu change commits, so readers
+ * never see a half-applied change. Rebuilds are lazy and done by one thread at a time.
+ * A snapshot also expires at the next availability schedule boundary, so its new version
+ * (ETag and change log entries) reaches the terminals on their next sync.
+ */
+@Component
+public class MenuCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuCatalog.class);
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private MenuSearchIndex searchIndex;
+
+    @Autowired
+    private MenuChangeLog changeLog;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    private volatile MenuSnapshot snapshot;
+    private volatile boolean stale = true;
+    // Seeded from the clock so versions (and ETags) are never reused after a restart
+    private long lastVersion = System.currentTimeMillis();
+
+    /**
+     * Current menu snapshot, rebuilt first if the menu changed since it was taken
+     */
+    public MenuSnapshot getSnapshot() {
+        MenuSnapshot current = snapshot;
+        if (current != null && !stale && !current.isExpired(System.currentTimeMillis())) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null || stale || snapshot.isExpired(System.currentTimeMillis())) {
+                // Cleared before loading, so a change committed during the load marks it stale again
+                stale = false;
+                try {
+                    MenuSnapshot rebuilt = build(++lastVersion, menuItemRepository.findAllByOrderByNameAsc());
+                    searchIndex.update(rebuilt.getAllItems());
+                    changeLog.record(rebuilt);
+                    snapshot = rebuilt;
+                } catch (RuntimeException e) {
+                    stale = true;
+                    throw e;
+                }
+                logger.debug("Menu catalog rebuilt: version {}, {} items", lastVersion, snapshot.getAllItems().size());
+            }
+            return snapshot;
+        }
+    }
+
+    // Items outside their schedule right now are hidden until the next schedule boundary
+    private MenuSnapshot build(long version, List<MenuItem> items) {
+        LocalDateTime now = LocalDateTime.now();
+        int minute = AvailabilityIndex.minuteOfWeek(now);
+        Set<Long> offSchedule = new HashSet<>();
+        for (MenuItem item : items) {
+            if (!availabilityIndex.isInSchedule(item, minute)) {
+                offSchedule.add(item.getId());
+            }
+        }
+        return new MenuSnapshot(version, items, offSchedule, availabilityIndex.nextBoundaryMillis(now));
+    }
+
+    /**
+     * Drop the snapshot once the current transaction commits (immediately when there is none)
+     */
+    public void invalidateAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate();
+                }
+            });
+        } else {
+            invalidate();
+        }
+    }
+
+    public void invalidate() {
+        stale = true;
+    }
+}
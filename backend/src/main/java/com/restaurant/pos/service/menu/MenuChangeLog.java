@@ -0,0 +1,172 @@
+package com.restaurant.pos.service.menu;
+
+import com.restaurant.pos.entity.MenuItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Log of menu item changes between catalog versions, so terminals can pull only
+ * what changed since the version they have.
+ *
+ * Changes are found by comparing each new catalog snapshot with the previous one, so
+ * they are logged however the menu was changed (single edits or bulk imports). Entries
+ * are dropped once every recently seen terminal is past them; a terminal asking for
+ * a dropped or unknown version gets the full menu instead.
+ */
+@Component
+public class MenuChangeLog {
+
+    @Value("${menu.changes.max.entries:10000}")
+    private int maxEntries;
+
+    @Value("${menu.changes.terminal.ttl.hours:24}")
+    private long terminalTtlHours;
+
+    private final Deque<Change> changes = new ArrayDeque<>();
+    private final Map<Long, String> fingerprints = new HashMap<>();
+    // Terminal id -> last version it synced to and when
+    private final Map<String, long[]> terminals = new ConcurrentHashMap<>();
+
+    // Oldest version the log can answer from (changes after it are all kept)
+    private long baseVersion = -1;
+
+    /**
+     * Record what changed between the previous snapshot and the new one
+     */
+    public synchronized void record(MenuSnapshot snapshot) {
+        Map<Long, String> current = new HashMap<>();
+        for (MenuItem item : snapshot.getAllItems()) {
+            current.put(item.getId(), fingerprint(item, snapshot.isAvailable(item.getId())));
+        }
+
+        if (baseVersion < 0) {
+            // First snapshot of this run - nothing to compare with
+            baseVersion = snapshot.getVersion();
+        } else {
+            for (MenuItem item : snapshot.getAllItems()) {
+                String before = fingerprints.get(item.getId());
+                String after = current.get(item.getId());
+                if (before == null) {
+                    changes.addLast(new Change(snapshot.getVersion(), ChangeType.CREATED, item.getId()));
+                } else if (!before.equals(after)) {
+                    ChangeType type = withoutAvailability(before).equals(withoutAvailability(after))
+                        ? ChangeType.AVAILABILITY : ChangeType.UPDATED;
+                    changes.addLast(new Change(snapshot.getVersion(), type, item.getId()));
+                }
+            }
+            for (Long id : fingerprints.keySet()) {
+                if (!current.containsKey(id)) {
+                    changes.addLast(new Change(snapshot.getVersion(), ChangeType.DELETED, id));
+                }
+            }
+        }
+
+        fingerprints.clear();
+        fingerprints.putAll(current);
+        compact();
+    }
+
+    /**
+     * Changes after the given version, one entry per item (its latest change), as seen in the snapshot.
+     * Returns null when the version is too old or unknown and the terminal has to load the full menu.
+     */
+    public synchronized List<Map<String, Object>> changesSince(long since, MenuSnapshot snapshot, String terminalId) {
+        if (terminalId != null && !terminalId.isBlank()) {
+            terminals.put(terminalId, new long[]{snapshot.getVersion(), System.currentTimeMillis()});
+        }
+        if (baseVersion < 0 || since < baseVersion || since > snapshot.getVersion()) {
+            return null;
+        }
+
+        Map<Long, Change> latest = new LinkedHashMap<>();
+        for (Change change : changes) {
+            if (change.version > since && change.version <= snapshot.getVersion()) {
+                latest.remove(change.itemId);
+                latest.put(change.itemId, change);
+            }
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Change change : latest.values()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("version", change.version);
+            entry.put("type", change.type.name());
+            entry.put("itemId", change.itemId);
+            MenuItem item = snapshot.getItem(change.itemId);
+            if (change.type != ChangeType.DELETED && item != null) {
+                entry.put("item", item);
+                entry.put("available", snapshot.isAvailable(item.getId()));
+            } else {
+                entry.put("type", ChangeType.DELETED.name());
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Drop changes every active terminal already has (and the oldest beyond the size limit)
+     */
+    private void compact() {
+        long cutoff = System.currentTimeMillis() - terminalTtlHours * 3600_000L;
+        terminals.values().removeIf(seen -> seen[1] < cutoff);
+
+        long caughtUp = Long.MAX_VALUE;
+        for (long[] seen : terminals.values()) {
+            caughtUp = Math.min(caughtUp, seen[0]);
+        }
+        if (terminals.isEmpty()) {
+            // No terminal is syncing - keep the log for the ones that come back, up to the size limit
+            caughtUp = baseVersion;
+        }
+
+        Iterator<Change> oldest = changes.iterator();
+        while (oldest.hasNext()) {
+            Change change = oldest.next();
+            if (change.version > caughtUp && changes.size() <= maxEntries) {
+                break;
+            }
+            oldest.remove();
+            baseVersion = Math.max(baseVersion, change.version);
+        }
+    }
+
+    // Availability includes the schedule, so items going on or off schedule are logged too
+    private static String fingerprint(MenuItem item, boolean available) {
+        return item.getName() + "|" + (item.getPrice() != null ? item.getPrice().stripTrailingZeros().toPlainString() : "")
+            + "|" + item.getCategory() + "|" + item.getPrintDestination() + "|" + available;
+    }
+
+    private static String withoutAvailability(String fingerprint) {
+        return fingerprint.substring(0, fingerprint.lastIndexOf('|'));
+    }
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        AVAILABILITY,
+        DELETED
+    }
+
+    private static final class Change {
+        private final long version;
+        private final ChangeType type;
+        private final Long itemId;
+
+        private Change(long version, ChangeType type, Long itemId) {
+            this.version = version;
+            this.type = type;
+            this.itemId = itemId;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.restaurant.pos.service.menu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Folds menu names and search terms to one lowercase Latin form, so "kafe",
+ * "Кафе" and "KAFE" all match. Macedonian Cyrillic is transliterated the way
+ * staff type it on a Latin keyboard (ш -> sh, ќ -> kj, ...).
+ */
+public final class MenuNameNormalizer {
+
+    private static final Map<Character, String> TRANSLITERATION = Map.ofEntries(
+        Map.entry('а', "a"), Map.entry('б', "b"), Map.entry('в', "v"), Map.entry('г', "g"),
+        Map.entry('д', "d"), Map.entry('ѓ', "gj"), Map.entry('е', "e"), Map.entry('ж', "zh"),
+        Map.entry('з', "z"), Map.entry('ѕ', "dz"), Map.entry('и', "i"), Map.entry('ј', "j"),
+        Map.entry('к', "k"), Map.entry('л', "l"), Map.entry('љ', "lj"), Map.entry('м', "m"),
+        Map.entry('н', "n"), Map.entry('њ', "nj"), Map.entry('о', "o"), Map.entry('п', "p"),
+        Map.entry('р', "r"), Map.entry('с', "s"), Map.entry('т', "t"), Map.entry('ќ', "kj"),
+        Map.entry('у', "u"), Map.entry('ф', "f"), Map.entry('х', "h"), Map.entry('ц', "c"),
+        Map.entry('ч', "ch"), Map.entry('џ', "dj"), Map.entry('ш', "sh"),
+        // Serbian/Russian letters that show up in imported product names
+        Map.entry('ћ', "kj"), Map.entry('ђ', "gj"), Map.entry('й', "j"), Map.entry('ы', "y"),
+        Map.entry('э', "e"), Map.entry('ю', "ju"), Map.entry('я', "ja"), Map.entry('щ', "sht"),
+        Map.entry('ь', ""), Map.entry('ъ', ""), Map.entry('ё', "e"),
+        // Latin letters with diacritics typed for Macedonian sounds
+        Map.entry('š', "sh"), Map.entry('č', "ch"), Map.entry('ž', "zh"), Map.entry('ć', "kj"),
+        Map.entry('đ', "gj"), Map.entry('ǵ', "gj"), Map.entry('ḱ', "kj"),
+        Map.entry('ä', "a"), Map.entry('ö', "o"), Map.entry('ü', "u"), Map.entry('é', "e"),
+        Map.entry('è', "e"), Map.entry('á', "a"), Map.entry('í', "i"), Map.entry('ó', "o"),
+        Map.entry('ú', "u")
+    );
+
+    private MenuNameNormalizer() {
+    }
+
+    /**
+     * Lowercase Latin form with punctuation replaced by single spaces
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder result = new StringBuilder(lower.length() + 8);
+        boolean pendingSpace = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            String folded = TRANSLITERATION.get(c);
+            if (folded == null && !Character.isLetterOrDigit(c)) {
+                pendingSpace = result.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                result.append(' ');
+                pendingSpace = false;
+            }
+            result.append(folded != null ? folded : String.valueOf(c));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Normalized words of a name or search term
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : normalize(text).split(" ")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,193 @@
+package com.restaurant.pos.service.menu;
+
+import com.restaurant.pos.entity.MenuItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live sales popularity of menu items.
+ *
+ * Sent quantities are added to lock-free counters. Every tick the new sales are folded
+ * into an exponentially decayed score (so last week's hits fade out) and the scores are
+ * saved to a file, which is loaded again on startup.
+ */
+@Component
+public class MenuPopularity {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuPopularity.class);
+
+    @Value("${menu.popularity.path:./data/menu-popularity.properties}")
+    private String storePath;
+
+    @Value("${menu.popularity.tick.minutes:10}")
+    private long tickMinutes;
+
+    @Value("${menu.popularity.half-life.hours:72}")
+    private double halfLifeHours;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        load();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "menu-popularity");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tick = Math.max(tickMinutes, 1);
+        scheduler.scheduleWithFixedDelay(this::decayAndSave, tick, tick, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        save();
+    }
+
+    /**
+     * Count sold quantities once the current transaction commits (immediately when there is none)
+     */
+    public void recordSalesAfterCommit(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordSales(quantities);
+                }
+            });
+        } else {
+            recordSales(quantities);
+        }
+    }
+
+    public void recordSales(Map<Long, Integer> quantities) {
+        // Added inside compute, so a counter being dropped as idle cannot swallow the sale
+        quantities.forEach((menuItemId, quantity) -> counters.compute(menuItemId, (id, counter) -> {
+            Counter target = counter != null ? counter : new Counter();
+            target.recent.add(quantity);
+            return target;
+        }));
+    }
+
+    /**
+     * Decayed score plus sales since the last tick
+     */
+    public double getScore(Long menuItemId) {
+        Counter counter = menuItemId != null ? counters.get(menuItemId) : null;
+        return counter != null ? counter.score + counter.recent.sum() : 0;
+    }
+
+    /**
+     * Most popular items of the list (e.g. the available items of a category), best first
+     */
+    public List<MenuItem> top(List<MenuItem> items, int limit) {
+        return items.stream()
+            .filter(item -> getScore(item.getId()) > 0)
+            .sorted(Comparator.comparingDouble((MenuItem item) -> getScore(item.getId())).reversed()
+                .thenComparing(MenuItem::getName))
+            .limit(Math.max(limit, 0))
+            .toList();
+    }
+
+    /**
+     * Fold recent sales into the decayed scores and persist them
+     */
+    public void decayAndSave() {
+        try {
+            double factor = Math.pow(0.5, (Math.max(tickMinutes, 1) / 60.0) / Math.max(halfLifeHours, 0.1));
+            counters.values().forEach(counter -> counter.fold(factor));
+            counters.keySet().forEach(id -> counters.computeIfPresent(id, (key, counter) ->
+                counter.score < 0.01 && counter.recent.sum() == 0 ? null : counter));
+            save();
+        } catch (Exception e) {
+            logger.error("Error updating menu popularity", e);
+        }
+    }
+
+    private synchronized void save() {
+        Properties properties = new Properties();
+        counters.forEach((id, counter) -> properties.setProperty(String.valueOf(id),
+            String.valueOf(counter.score + counter.recent.sum())));
+
+        File file = new File(storePath);
+        File temp = new File(storePath + ".tmp");
+        try {
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            try (Writer writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+                properties.store(writer, "Menu item popularity scores");
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Cannot save menu popularity to {}", storePath, e);
+        }
+    }
+
+    private void load() {
+        File file = new File(storePath);
+        if (!file.exists()) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            logger.error("Cannot load menu popularity from {}", storePath, e);
+            return;
+        }
+        properties.forEach((key, value) -> {
+            try {
+                Counter counter = new Counter();
+                counter.score = Double.parseDouble(value.toString());
+                counters.put(Long.parseLong(key.toString()), counter);
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid popularity entry {}={}", key, value);
+            }
+        });
+        logger.info("Loaded popularity of {} menu items", counters.size());
+    }
+
+    private static final class Counter {
+        private final LongAdder recent = new LongAdder();
+        private volatile double score;
+
+        // Only called by the scheduler thread. Subtracting what was read (instead of
+        // sumThenReset) keeps sales recorded during the fold for the next tick.
+        private void fold(double factor) {
+            long sold = recent.sum();
+            recent.add(-sold);
+            score = score * factor + sold;
+        }
+    }
+}
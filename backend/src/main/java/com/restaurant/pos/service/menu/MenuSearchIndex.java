@@ -0,0 +1,274 @@
+package com.restaurant.pos.service.menu;
+
+import com.restaurant.pos.entity.MenuItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory search index over menu item names.
+ *
+ * Names are normalized (Cyrillic transliterated to Latin) and indexed by word
+ * prefixes and by trigrams, so "kaf", "кафе" and "afe" all find "Кафе" with a few
+ * map lookups. Words are also kept in a BK-tree, so with fuzzy matching a word
+ * with a typo ("kapucino", "шпрајт") still finds the item, ranked below exact and
+ * prefix hits. The catalog calls update with every new snapshot; only items whose
+ * name changed are re-indexed.
+ */
+@Component
+public class MenuSearchIndex {
+
+    private static final int MAX_PREFIX_LENGTH = 8;
+
+    // Ranking of a single query word against a name
+    private static final int SCORE_EXACT_WORD = 6;
+    private static final int SCORE_WORD_PREFIX = 5;
+    private static final int SCORE_SUBSTRING = 3;
+    private static final int SCORE_FUZZY = 2; // minus the edit distance - 1
+    private static final int SCORE_NAME_START = 2;
+
+    // Shorter words only tolerate a single typo
+    private static final int MIN_FUZZY_WORD_LENGTH = 3;
+    private static final int SHORT_WORD_LENGTH = 5;
+
+    @Value("${menu.search.fuzzy.distance:2}")
+    private int maxFuzzyDistance;
+
+    @Autowired
+    private MenuPopularity popularity;
+
+    private final Map<Long, IndexedName> indexed = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> prefixPostings = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> trigramPostings = new ConcurrentHashMap<>();
+    private volatile BkTree fuzzyWords = new BkTree();
+
+    /**
+     * Bring the index in line with the given items, re-indexing only new and renamed ones
+     */
+    public synchronized void update(List<MenuItem> items) {
+        Set<Long> present = new HashSet<>();
+        for (MenuItem item : items) {
+            present.add(item.getId());
+            IndexedName current = indexed.get(item.getId());
+            if (current == null || !current.name.equals(item.getName())) {
+                if (current != null) {
+                    removePostings(current);
+                }
+                IndexedName updated = new IndexedName(item.getId(), item.getName());
+                indexed.put(item.getId(), updated);
+                addPostings(updated);
+            }
+        }
+
+        for (IndexedName stale : new ArrayList<>(indexed.values())) {
+            if (!present.contains(stale.id)) {
+                indexed.remove(stale.id);
+                removePostings(stale);
+            }
+        }
+
+        if (fuzzyWords.needsRebuild()) {
+            BkTree rebuilt = new BkTree();
+            for (IndexedName name : indexed.values()) {
+                name.words.forEach(word -> rebuilt.add(word, name.id));
+            }
+            fuzzyWords = rebuilt;
+        }
+    }
+
+    /**
+     * Available items matching every word of the term, best match first.
+     * With fuzzy matching, words within the configured edit distance also match.
+     */
+    public List<MenuItem> search(String term, MenuSnapshot snapshot, boolean fuzzy) {
+        List<String> queryWords = MenuNameNormalizer.words(term);
+        if (queryWords.isEmpty()) {
+            return snapshot.getAvailableItems();
+        }
+
+        Map<Long, Integer> scores = null;
+        for (String queryWord : queryWords) {
+            Map<Long, Integer> wordScores = scoreWord(queryWord, fuzzy);
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                // Every query word has to match
+                scores.keySet().retainAll(wordScores.keySet());
+                scores.replaceAll((id, score) -> score + wordScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        String firstWord = queryWords.get(0);
+        List<Ranked> ranked = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+            MenuItem item = snapshot.getItem(entry.getKey());
+            IndexedName name = indexed.get(entry.getKey());
+            if (item == null || name == null || !snapshot.isAvailable(item.getId())) {
+                continue;
+            }
+            int score = entry.getValue() + (name.normalized.startsWith(firstWord) ? SCORE_NAME_START : 0);
+            ranked.add(new Ranked(item, score));
+        }
+
+        // Equally good matches: best sellers first
+        ranked.sort(Comparator.comparingInt(Ranked::score).reversed()
+            .thenComparing(Comparator.comparingDouble((Ranked r) -> popularity.getScore(r.item().getId())).reversed())
+            .thenComparing(r -> r.item().getName(), String.CASE_INSENSITIVE_ORDER));
+        return ranked.stream().map(Ranked::item).toList();
+    }
+
+    /**
+     * Items matching one query word, with the best score over the words of each name
+     */
+    private Map<Long, Integer> scoreWord(String queryWord, boolean fuzzy) {
+        Set<Long> candidates = new HashSet<>();
+        Set<Long> byPrefix = prefixPostings.get(queryWord.length() > MAX_PREFIX_LENGTH
+            ? queryWord.substring(0, MAX_PREFIX_LENGTH) : queryWord);
+        if (byPrefix != null) {
+            candidates.addAll(byPrefix);
+        }
+        if (queryWord.length() >= 3) {
+            candidates.addAll(substringCandidates(queryWord));
+        }
+
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Long id : candidates) {
+            IndexedName name = indexed.get(id);
+            if (name == null) {
+                continue;
+            }
+            int best = 0;
+            for (String word : name.words) {
+                if (word.equals(queryWord)) {
+                    best = Math.max(best, SCORE_EXACT_WORD);
+                } else if (word.startsWith(queryWord)) {
+                    best = Math.max(best, SCORE_WORD_PREFIX);
+                } else if (word.contains(queryWord)) {
+                    best = Math.max(best, SCORE_SUBSTRING);
+                }
+            }
+            if (best > 0) {
+                scores.put(id, best);
+            }
+        }
+
+        if (fuzzy && queryWord.length() >= MIN_FUZZY_WORD_LENGTH && maxFuzzyDistance > 0) {
+            int allowed = queryWord.length() < SHORT_WORD_LENGTH ? 1 : maxFuzzyDistance;
+            fuzzyWords.search(queryWord, allowed).forEach((id, distance) ->
+                scores.putIfAbsent(id, SCORE_FUZZY - (distance - 1)));
+        }
+        return scores;
+    }
+
+    // Items containing every trigram of the word (verified by the caller)
+    private Set<Long> substringCandidates(String queryWord) {
+        Set<Long> result = null;
+        for (String trigram : trigrams(queryWord)) {
+            Set<Long> posting = trigramPostings.get(trigram);
+            if (posting == null) {
+                return Set.of();
+            }
+            if (result == null) {
+                result = new HashSet<>(posting);
+            } else {
+                result.retainAll(posting);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result != null ? result : Set.of();
+    }
+
+    private void addPostings(IndexedName name) {
+        for (String word : name.words) {
+            fuzzyWords.add(word, name.id);
+        }
+        for (String key : name.prefixes) {
+            prefixPostings.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(name.id);
+        }
+        for (String key : name.trigrams) {
+            trigramPostings.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(name.id);
+        }
+    }
+
+    private void removePostings(IndexedName name) {
+        for (String word : name.words) {
+            fuzzyWords.remove(word, name.id);
+        }
+        for (String key : name.prefixes) {
+            removePosting(prefixPostings, key, name.id);
+        }
+        for (String key : name.trigrams) {
+            removePosting(trigramPostings, key, name.id);
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Long>> postings, String key, Long id) {
+        Set<Long> ids = postings.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static List<String> trigrams(String word) {
+        List<String> trigrams = new ArrayList<>();
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            trigrams.add(word.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Normalized form of one item name and the index keys derived from it
+     */
+    private static final class IndexedName {
+        private final Long id;
+        private final String name;
+        private final String normalized;
+        private final List<String> words;
+        private final Set<String> prefixes = new HashSet<>();
+        private final Set<String> trigrams = new HashSet<>();
+
+        private IndexedName(Long id, String name) {
+            this.id = id;
+            this.name = name;
+            this.normalized = MenuNameNormalizer.normalize(name);
+            this.words = MenuNameNormalizer.words(name);
+            for (String word : words) {
+                for (int length = 1; length <= Math.min(word.length(), MAX_PREFIX_LENGTH); length++) {
+                    prefixes.add(word.substring(0, length));
+                }
+                trigrams.addAll(MenuSearchIndex.trigrams(word));
+            }
+        }
+    }
+
+    private static final class Ranked {
+        private final MenuItem item;
+        private final int score;
+
+        private Ranked(MenuItem item, int score) {
+            this.item = item;
+            this.score = score;
+        }
+
+        MenuItem item() { return item; }
+        int score() { return score; }
+    }
+}
@@ -0,0 +1,110 @@
+package com.restaurant.pos.service.menu;
+
+import com.restaurant.pos.entity.MenuItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of the whole menu at one version, sorted by name and
+ * pre-grouped by category and print destination. Items outside their availability
+ * schedule are left out of the available lists until the snapshot expires.
+ */
+public final class MenuSnapshot {
+
+    private final long version;
+    private final List<MenuItem> allItems;
+    private final List<MenuItem> availableItems;
+    private final Map<MenuItem.Category, List<MenuItem>> availableByCategory;
+    private final Map<MenuItem.PrintDestination, List<MenuItem>> availableByDestination;
+    private final Map<Long, MenuItem> itemsById;
+    private final Set<Long> offSchedule;
+    private final long validUntil;
+
+    /**
+     * Build a snapshot from items already sorted by name
+     */
+    public MenuSnapshot(long version, List<MenuItem> itemsByName) {
+        this(version, itemsByName, Set.of(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Build a snapshot from items already sorted by name, hiding the given off-schedule items
+     * until validUntil (epoch millis of the next schedule boundary)
+     */
+    public MenuSnapshot(long version, List<MenuItem> itemsByName, Set<Long> offSchedule, long validUntil) {
+        this.version = version;
+        this.offSchedule = Set.copyOf(offSchedule);
+        this.validUntil = validUntil;
+        this.allItems = Collections.unmodifiableList(new ArrayList<>(itemsByName));
+
+        List<MenuItem> available = new ArrayList<>();
+        Map<MenuItem.Category, List<MenuItem>> byCategory = new EnumMap<>(MenuItem.Category.class);
+        Map<MenuItem.PrintDestination, List<MenuItem>> byDestination = new EnumMap<>(MenuItem.PrintDestination.class);
+        Map<Long, MenuItem> byId = new HashMap<>();
+
+        for (MenuItem item : allItems) {
+            byId.put(item.getId(), item);
+            if (Boolean.TRUE.equals(item.getAvailable()) && !this.offSchedule.contains(item.getId())) {
+                available.add(item);
+                byCategory.computeIfAbsent(item.getCategory(), c -> new ArrayList<>()).add(item);
+                byDestination.computeIfAbsent(item.getPrintDestination(), d -> new ArrayList<>()).add(item);
+            }
+        }
+
+        byCategory.replaceAll((category, items) -> Collections.unmodifiableList(items));
+        byDestination.replaceAll((destination, items) -> Collections.unmodifiableList(items));
+        this.availableItems = Collections.unmodifiableList(available);
+        this.availableByCategory = Collections.unmodifiableMap(byCategory);
+        this.availableByDestination = Collections.unmodifiableMap(byDestination);
+        this.itemsById = Collections.unmodifiableMap(byId);
+    }
+
+    public long getVersion() { return version; }
+
+    /**
+     * Entity tag of this version, for conditional GET requests
+     */
+    public String getETag() {
+        return "\"menu-" + version + "\"";
+    }
+
+    public List<MenuItem> getAllItems() { return allItems; }
+    public List<MenuItem> getAvailableItems() { return availableItems; }
+
+    public List<MenuItem> getAvailableItems(MenuItem.Category category) {
+        return availableByCategory.getOrDefault(category, List.of());
+    }
+
+    public List<MenuItem> getAvailableItems(MenuItem.PrintDestination destination) {
+        return availableByDestination.getOrDefault(destination, List.of());
+    }
+
+    public MenuItem getItem(Long id) {
+        return id != null ? itemsById.get(id) : null;
+    }
+
+    /**
+     * Whether the item is switched on and within its schedule at this version
+     */
+    public boolean isAvailable(Long id) {
+        MenuItem item = getItem(id);
+        return item != null && Boolean.TRUE.equals(item.getAvailable()) && !offSchedule.contains(id);
+    }
+
+    public boolean isOffSchedule(Long id) {
+        return offSchedule.contains(id);
+    }
+
+    /**
+     * True once a schedule boundary has passed and the available lists may be out of date
+     */
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= validUntil;
+    }
+}
@@ -0,0 +1,246 @@
+package com.restaurant.pos.service.menu;
+
+import com.restaurant.pos.entity.MenuItemPrice;
+import com.restaurant.pos.repository.MenuItemPriceRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Effective-dated menu prices (happy hour, weekend prices) resolved ahead of time.
+ *
+ * The price rules are split into the segments of the current day between their start and
+ * end times, each with the override prices in effect during it. A scheduler switches the
+ * current price map at every segment boundary (and rebuilds the day at midnight), so
+ * looking up a price while adding an order item is a single map lookup with no query.
+ * When windows overlap, the most recently created rule wins.
+ */
+@Component
+public class PriceTimeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceTimeline.class);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    @Autowired
+    private MenuItemPriceRepository priceRepository;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "menu-price-timeline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile List<Rule> rules = List.of();
+    private volatile Map<Long, BigDecimal> currentPrices = Map.of();
+    private volatile LocalDateTime nextSwitch;
+    private ScheduledFuture<?> pendingSwitch;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reload();
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Override price of the item right now, or null when its regular price applies
+     */
+    public BigDecimal getCurrentPrice(Long menuItemId) {
+        return menuItemId != null ? currentPrices.get(menuItemId) : null;
+    }
+
+    /**
+     * All override prices in effect right now, by menu item id
+     */
+    public Map<Long, BigDecimal> getCurrentPrices() {
+        return currentPrices;
+    }
+
+    /**
+     * When the current prices change next (null before the first load)
+     */
+    public LocalDateTime getNextSwitch() {
+        return nextSwitch;
+    }
+
+    /**
+     * Reload the price rules once the current transaction commits (immediately when there is none)
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    public void reload() {
+        try {
+            List<Rule> loaded = new ArrayList<>();
+            for (MenuItemPrice price : priceRepository.findByActiveTrue()) {
+                loaded.add(new Rule(price));
+            }
+            rules = loaded;
+            logger.info("Loaded {} menu price rules", loaded.size());
+        } catch (Exception e) {
+            logger.error("Cannot load menu price rules", e);
+        }
+        applyNow();
+    }
+
+    /**
+     * Switch to the prices in effect now and schedule the next switch
+     */
+    private synchronized void applyNow() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Segment> day = buildDay(now.toLocalDate(), rules);
+
+            int minute = now.getHour() * 60 + now.getMinute();
+            Segment current = day.get(0);
+            for (Segment segment : day) {
+                if (segment.fromMinute <= minute) {
+                    current = segment;
+                }
+            }
+            currentPrices = current.prices;
+            nextSwitch = now.toLocalDate().atStartOfDay().plusMinutes(current.toMinute);
+
+            if (pendingSwitch != null) {
+                pendingSwitch.cancel(false);
+            }
+            long delay = Math.max(Duration.between(now, nextSwitch).toMillis(), 0) + 50;
+            pendingSwitch = scheduler.schedule(this::applyNow, delay, TimeUnit.MILLISECONDS);
+            logger.debug("Applied {} price overrides, next switch at {}", currentPrices.size(), nextSwitch);
+        } catch (Exception e) {
+            logger.error("Error applying menu prices", e);
+            pendingSwitch = scheduler.schedule(this::applyNow, 1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Segments of the day between consecutive rule boundaries, with the prices in effect in each
+     */
+    private static List<Segment> buildDay(LocalDate date, List<Rule> rules) {
+        TreeSet<Integer> boundaries = new TreeSet<>();
+        boundaries.add(0);
+        boundaries.add(MINUTES_PER_DAY);
+        List<Rule> relevant = new ArrayList<>();
+        for (Rule rule : rules) {
+            // Rules owned by yesterday matter too when their window runs past midnight
+            if (rule.coversDay(date) || (rule.wraps() && rule.coversDay(date.minusDays(1)))) {
+                relevant.add(rule);
+                boundaries.add(rule.startMinute);
+                boundaries.add(rule.endMinute);
+            }
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        Integer from = boundaries.first();
+        for (Integer to : boundaries.tailSet(from, false)) {
+            Map<Long, BigDecimal> prices = new HashMap<>();
+            Map<Long, Long> winners = new HashMap<>();
+            for (Rule rule : relevant) {
+                if (rule.appliesAt(date, from)) {
+                    Long winner = winners.get(rule.menuItemId);
+                    if (winner == null || rule.id > winner) {
+                        winners.put(rule.menuItemId, rule.id);
+                        prices.put(rule.menuItemId, rule.price);
+                    }
+                }
+            }
+            segments.add(new Segment(from, to, Collections.unmodifiableMap(prices)));
+            from = to;
+        }
+        return segments;
+    }
+
+    private static final class Segment {
+        private final int fromMinute;
+        private final int toMinute;
+        private final Map<Long, BigDecimal> prices;
+
+        private Segment(int fromMinute, int toMinute, Map<Long, BigDecimal> prices) {
+            this.fromMinute = fromMinute;
+            this.toMinute = toMinute;
+            this.prices = prices;
+        }
+    }
+
+    /**
+     * One price window in minutes of the day; a window ending before it starts belongs to its start day
+     */
+    private static final class Rule {
+        private final long id;
+        private final Long menuItemId;
+        private final BigDecimal price;
+        private final Set<DayOfWeek> days;
+        private final int startMinute;
+        private final int endMinute;
+        private final LocalDate validFrom;
+        private final LocalDate validTo;
+
+        private Rule(MenuItemPrice price) {
+            this.id = price.getId();
+            this.menuItemId = price.getMenuItemId();
+            this.price = price.getPrice();
+            this.days = ScheduleTimes.parseDays(price.getDaysOfWeek());
+            this.startMinute = ScheduleTimes.toMinute(price.getStartTime(), 0);
+            this.endMinute = ScheduleTimes.toMinute(price.getEndTime(), MINUTES_PER_DAY);
+            this.validFrom = price.getValidFrom();
+            this.validTo = price.getValidTo();
+        }
+
+        private boolean wraps() {
+            return endMinute <= startMinute;
+        }
+
+        private boolean coversDay(LocalDate day) {
+            return days.contains(day.getDayOfWeek())
+                && (validFrom == null || !day.isBefore(validFrom))
+                && (validTo == null || !day.isAfter(validTo));
+        }
+
+        private boolean appliesAt(LocalDate date, int minute) {
+            if (!wraps()) {
+                return minute >= startMinute && minute < endMinute && coversDay(date);
+            }
+            if (minute >= startMinute) {
+                return coversDay(date);
+            }
+            return minute < endMinute && coversDay(date.minusDays(1));
+        }
+    }
+}
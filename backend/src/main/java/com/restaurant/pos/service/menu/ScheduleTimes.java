@@ -0,0 +1,38 @@
+package com.restaurant.pos.service.menu;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Time-of-day and day-of-week fields shared by price rules and availability schedules
+ */
+final class ScheduleTimes {
+
+    private ScheduleTimes() {
+    }
+
+    /**
+     * Minute of the day, or whenMissing for an open start/end
+     */
+    static int toMinute(LocalTime time, int whenMissing) {
+        return time != null ? time.getHour() * 60 + time.getMinute() : whenMissing;
+    }
+
+    /**
+     * Comma separated day names (MONDAY,FRIDAY); empty means every day
+     */
+    static Set<DayOfWeek> parseDays(String value) {
+        if (value == null || value.isBlank()) {
+            return EnumSet.allOf(DayOfWeek.class);
+        }
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String day : value.split(",")) {
+            if (!day.isBlank()) {
+                days.add(DayOfWeek.valueOf(day.trim().toUpperCase()));
+            }
+        }
+        return days;
+    }
+}
@@ -0,0 +1,188 @@
+package com.restaurant.pos.service.printing;
+
+import com.restaurant.pos.entity.MenuItem;
+import com.restaurant.pos.service.thermal.PrinterStatus;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory routing table from print destination to physical printers.
+ * The first target of a destination is the primary, the rest are backups in order.
+ * Destinations without explicit routes use the default thermal printer.
+ */
+@Component
+public class PrinterRoutingTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrinterRoutingTable.class);
+
+    @Value("${printer.route.kitchen:}")
+    private String kitchenRouteSpec;
+
+    @Value("${printer.route.bar:}")
+    private String barRouteSpec;
+
+    @Value("${printer.route.health.ttl.ms:10000}")
+    private long healthTtlMillis;
+
+    // Replaced as a whole on every change, so readers never need a lock
+    private volatile Map<MenuItem.PrintDestination, List<PrinterTarget>> routes = Map.of();
+    private volatile PrinterTarget defaultTarget;
+
+    @PostConstruct
+    public void loadConfiguredRoutes() {
+        Map<MenuItem.PrintDestination, List<String>> specs = new EnumMap<>(MenuItem.PrintDestination.class);
+        specs.put(MenuItem.PrintDestination.КУЈНА, splitSpecs(kitchenRouteSpec));
+        specs.put(MenuItem.PrintDestination.БАР, splitSpecs(barRouteSpec));
+        try {
+            updateRoutes(specs);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid printer routes in configuration: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Targets for a destination, primary first
+     */
+    public List<PrinterTarget> getTargets(MenuItem.PrintDestination destination) {
+        List<PrinterTarget> targets = routes.get(destination);
+        if (targets != null && !targets.isEmpty()) {
+            return targets;
+        }
+        PrinterTarget fallback = defaultTarget;
+        return fallback != null ? List.of(fallback) : List.of();
+    }
+
+    /**
+     * Replace the routes for the given destinations (primary first, then backups)
+     */
+    public synchronized void updateRoutes(Map<MenuItem.PrintDestination, List<String>> specsByDestination) {
+        Map<MenuItem.PrintDestination, List<PrinterTarget>> updated = new EnumMap<>(MenuItem.PrintDestination.class);
+        updated.putAll(routes);
+
+        specsByDestination.forEach((destination, specs) -> {
+            List<PrinterTarget> targets = new ArrayList<>();
+            for (String spec : specs) {
+                targets.add(PrinterTarget.parse(spec));
+            }
+            updated.put(destination, Collections.unmodifiableList(targets));
+            logger.info("Printer route for {}: {}", destination, specs.isEmpty() ? "default printer" : specs);
+        });
+
+        routes = Collections.unmodifiableMap(updated);
+    }
+
+    /**
+     * Set the printer used for destinations without explicit routes (null disables it)
+     */
+    public void setDefaultTarget(PrinterTarget target) {
+        this.defaultTarget = target;
+    }
+
+    /**
+     * Cached health check - the status query is repeated at most once per TTL
+     * (the status poller normally keeps it fresh)
+     */
+    public boolean isHealthy(PrinterTarget target) {
+        if (System.currentTimeMillis() - target.getLastCheckedAt() < healthTtlMillis) {
+            return target.isHealthy();
+        }
+
+        PrinterStatus status = refreshStatus(target);
+        if (!status.canPrint()) {
+            logger.warn("Printer {} failed health check: {}", target.getSpec(), status.getState());
+        }
+        return status.canPrint();
+    }
+
+    /**
+     * Query the printer status now and record it on the target
+     */
+    public PrinterStatus refreshStatus(PrinterTarget target) {
+        PrinterStatus status = target.getPrinter().queryStatus();
+        target.recordStatus(status);
+        return status;
+    }
+
+    /**
+     * True when a printer of the destination only needs paper or a closed cover,
+     * so tickets are worth holding instead of falling back
+     */
+    public boolean isWaitingForStaff(MenuItem.PrintDestination destination) {
+        for (PrinterTarget target : getTargets(destination)) {
+            PrinterStatus status = target.getStatus();
+            if (status != null && status.isWaitingForStaff()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Every distinct routed printer, including the default one
+     */
+    public List<PrinterTarget> getAllTargets() {
+        Set<PrinterTarget> targets = new LinkedHashSet<>();
+        for (MenuItem.PrintDestination destination : MenuItem.PrintDestination.values()) {
+            targets.addAll(getTargets(destination));
+        }
+        return new ArrayList<>(targets);
+    }
+
+    /**
+     * Mark a target as failed after a print error so the next ticket goes to a backup
+     */
+    public void markFailed(PrinterTarget target) {
+        target.recordHealth(false, System.currentTimeMillis());
+    }
+
+    /**
+     * Routes as specs for the admin UI
+     */
+    public Map<String, Object> describeRoutes() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (MenuItem.PrintDestination destination : MenuItem.PrintDestination.values()) {
+            List<Map<String, Object>> targets = new ArrayList<>();
+            for (PrinterTarget target : getTargets(destination)) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("spec", target.getSpec());
+                entry.put("healthy", target.isHealthy());
+                PrinterStatus status = target.getStatus();
+                if (status != null) {
+                    entry.put("state", status.getState());
+                    entry.put("statusKnown", status.isStatusKnown());
+                    entry.put("paperNearEnd", status.isPaperNearEnd());
+                    entry.put("checkedAt", status.getCheckedAt());
+                }
+                entry.put("isDefault", target == defaultTarget);
+                targets.add(entry);
+            }
+            result.put(destination.name(), targets);
+        }
+        return result;
+    }
+
+    private List<String> splitSpecs(String specs) {
+        List<String> result = new ArrayList<>();
+        if (specs == null) {
+            return result;
+        }
+        for (String spec : specs.split(",")) {
+            if (!spec.trim().isEmpty()) {
+                result.add(spec.trim());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+package com.restaurant.pos.service.printing;
+
+import com.restaurant.pos.service.thermal.PrinterStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the real-time status of every routed printer in the background, so
+ * paper-out or an open cover is known before a ticket is sent to that printer.
+ */
+@Component
+public class PrinterStatusPoller {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrinterStatusPoller.class);
+
+    @Autowired
+    private PrinterRoutingTable routingTable;
+
+    @Value("${printer.status.poll.ms:5000}")
+    private long pollIntervalMillis;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        if (pollIntervalMillis <= 0) {
+            logger.info("Printer status polling disabled");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "printer-status");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollAll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Query every printer once and log state changes
+     */
+    public void pollAll() {
+        for (PrinterTarget target : routingTable.getAllTargets()) {
+            try {
+                PrinterStatus previous = target.getStatus();
+                PrinterStatus current = routingTable.refreshStatus(target);
+                if (previous == null || !previous.getState().equals(current.getState())) {
+                    if ("OK".equals(current.getState())) {
+                        logger.info("Printer {} is {}", target.getSpec(), current.getState());
+                    } else {
+                        logger.warn("Printer {} is {}", target.getSpec(), current.getState());
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("Error polling status of printer {}", target.getSpec(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.restaurant.pos.service.printing;
+
+import com.restaurant.pos.service.thermal.EpsonThermalPrinter;
+import com.restaurant.pos.service.thermal.PrinterStatus;
+
+/**
+ * One physical thermal printer that kitchen/bar tickets can be routed to.
+ * Specs look like "NETWORK:192.168.1.101:9100" or "USB:Epson TM-T20II".
+ */
+public final class PrinterTarget {
+
+    private static final int DEFAULT_NETWORK_PORT = 9100;
+
+    private final String connectionType; // USB, NETWORK
+    private final String printerName;
+    private final String ipAddress;
+    private final int port;
+    private final EpsonThermalPrinter printer;
+
+    // Last health check result, updated by the routing table and the status poller
+    private volatile boolean healthy = true;
+    private volatile long lastCheckedAt = 0;
+    private volatile PrinterStatus status;
+
+    public PrinterTarget(String connectionType, String printerName, String ipAddress, int port) {
+        this.connectionType = connectionType;
+        this.printerName = printerName;
+        this.ipAddress = ipAddress;
+        this.port = port;
+        this.printer = new EpsonThermalPrinter(printerName, connectionType, ipAddress, port);
+    }
+
+    /**
+     * Parse a route spec such as "NETWORK:192.168.1.101:9100" or "USB:Epson TM-T20II"
+     */
+    public static PrinterTarget parse(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            throw new IllegalArgumentException("Празна дефиниција на принтер");
+        }
+
+        String[] parts = spec.trim().split(":", 2);
+        String connection = parts[0].trim().toUpperCase();
+        String address = parts.length > 1 ? parts[1].trim() : "";
+        if (address.isEmpty()) {
+            throw new IllegalArgumentException("Недостасува адреса за принтер: " + spec);
+        }
+
+        if ("NETWORK".equals(connection)) {
+            String[] hostAndPort = address.split(":");
+            int port = DEFAULT_NETWORK_PORT;
+            if (hostAndPort.length > 1) {
+                try {
+                    port = Integer.parseInt(hostAndPort[1].trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Неважечка порта за принтер: " + spec);
+                }
+            }
+            return new PrinterTarget("NETWORK", address, hostAndPort[0].trim(), port);
+        } else if ("USB".equals(connection)) {
+            return new PrinterTarget("USB", address, null, 0);
+        }
+
+        throw new IllegalArgumentException("Неподдржан тип на врска: " + connection);
+    }
+
+    public String getSpec() {
+        return "NETWORK".equals(connectionType)
+            ? connectionType + ":" + ipAddress + ":" + port
+            : connectionType + ":" + printerName;
+    }
+
+    // Getters
+    public String getConnectionType() { return connectionType; }
+    public String getPrinterName() { return printerName; }
+    public String getIpAddress() { return ipAddress; }
+    public int getPort() { return port; }
+    public EpsonThermalPrinter getPrinter() { return printer; }
+
+    public boolean isHealthy() { return healthy; }
+    public long getLastCheckedAt() { return lastCheckedAt; }
+    public PrinterStatus getStatus() { return status; }
+
+    void recordHealth(boolean healthy, long checkedAt) {
+        this.healthy = healthy;
+        this.lastCheckedAt = checkedAt;
+    }
+
+    void recordStatus(PrinterStatus status) {
+        this.status = status;
+        recordHealth(status.canPrint(), status.getCheckedAt());
+    }
+}
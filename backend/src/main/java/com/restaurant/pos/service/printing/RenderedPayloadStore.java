@@ -0,0 +1,244 @@
+package com.restaurant.pos.service.printing;
+
+import com.restaurant.pos.entity.MenuItem;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded store of recently rendered tickets and receipts, so they can be reprinted
+ * without reloading the order. The newest payloads are kept in memory; older ones
+ * overflow to files named {jobId}_{orderId}_{kind}.bin until the disk limit is reached.
+ */
+@Component
+public class RenderedPayloadStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenderedPayloadStore.class);
+
+    @Value("${printer.reprint.path:./data/reprint}")
+    private String storePath;
+
+    @Value("${printer.reprint.memory.entries:200}")
+    private int maxMemoryEntries;
+
+    @Value("${printer.reprint.memory.kb:4096}")
+    private long maxMemoryKb;
+
+    @Value("${printer.reprint.disk.entries:2000}")
+    private int maxDiskEntries;
+
+    private final AtomicLong jobIds = new AtomicLong(System.currentTimeMillis());
+
+    // Both in insertion (= age) order, guarded by this
+    private final LinkedHashMap<Long, StoredPayload> memory = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, StoredPayload> disk = new LinkedHashMap<>();
+    private long memoryBytes;
+
+    private File directory;
+
+    @PostConstruct
+    public synchronized void loadOverflowIndex() {
+        directory = new File(storePath);
+        if (!directory.exists() && !directory.mkdirs()) {
+            logger.warn("Cannot create reprint store directory {}", storePath);
+            return;
+        }
+
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".bin"));
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        for (File file : files) {
+            StoredPayload payload = StoredPayload.fromFileName(file.getName(), file.lastModified());
+            if (payload != null) {
+                disk.put(payload.getJobId(), payload);
+                jobIds.accumulateAndGet(payload.getJobId(), Math::max);
+            }
+        }
+        logger.info("Reprint store loaded {} payloads from {}", disk.size(), storePath);
+    }
+
+    /**
+     * Store a rendered payload and return its job id
+     */
+    public synchronized StoredPayload store(Long orderId, PayloadKind kind, byte[] bytes) {
+        StoredPayload payload = new StoredPayload(jobIds.incrementAndGet(), orderId, kind, System.currentTimeMillis(), bytes);
+        memory.put(payload.getJobId(), payload);
+        memoryBytes += payload.getSize();
+
+        // Overflow the oldest payloads to disk
+        Iterator<StoredPayload> oldest = memory.values().iterator();
+        while (oldest.hasNext() && memory.size() > 1
+                && (memory.size() > maxMemoryEntries || memoryBytes > maxMemoryKb * 1024)) {
+            StoredPayload evicted = oldest.next();
+            oldest.remove();
+            memoryBytes -= evicted.getSize();
+            writeToDisk(evicted);
+        }
+        return payload;
+    }
+
+    /**
+     * Payload with bytes, from memory or disk
+     */
+    public synchronized Optional<StoredPayload> get(long jobId) {
+        StoredPayload payload = memory.get(jobId);
+        if (payload != null) {
+            return Optional.of(payload);
+        }
+
+        StoredPayload onDisk = disk.get(jobId);
+        if (onDisk == null) {
+            return Optional.empty();
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(new File(directory, onDisk.getFileName()).toPath());
+            return Optional.of(onDisk.withBytes(bytes));
+        } catch (IOException e) {
+            logger.error("Cannot read stored payload {}", jobId, e);
+            disk.remove(jobId);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stored payloads of an order (without bytes), newest first
+     */
+    public synchronized List<StoredPayload> findByOrder(Long orderId) {
+        List<StoredPayload> result = new ArrayList<>();
+        for (StoredPayload payload : disk.values()) {
+            if (payload.getOrderId().equals(orderId)) {
+                result.add(payload);
+            }
+        }
+        for (StoredPayload payload : memory.values()) {
+            if (payload.getOrderId().equals(orderId)) {
+                result.add(payload);
+            }
+        }
+        result.sort(Comparator.comparingLong(StoredPayload::getJobId).reversed());
+        return result;
+    }
+
+    /**
+     * Most recent payload of a kind (fiscal copies are only possible for the last receipt)
+     */
+    public synchronized Optional<StoredPayload> findLatest(PayloadKind kind) {
+        StoredPayload latest = null;
+        for (Map<Long, StoredPayload> tier : List.of(disk, memory)) {
+            for (StoredPayload payload : tier.values()) {
+                if (payload.getKind() == kind && (latest == null || payload.getJobId() > latest.getJobId())) {
+                    latest = payload;
+                }
+            }
+        }
+        return Optional.ofNullable(latest);
+    }
+
+    private void writeToDisk(StoredPayload payload) {
+        if (directory == null || maxDiskEntries <= 0) {
+            return;
+        }
+        try {
+            Files.write(new File(directory, payload.getFileName()).toPath(),
+                payload.getBytes() != null ? payload.getBytes() : new byte[0]);
+            disk.put(payload.getJobId(), payload.withBytes(null));
+        } catch (IOException e) {
+            logger.error("Cannot write stored payload {} to disk", payload.getJobId(), e);
+            return;
+        }
+
+        Iterator<StoredPayload> oldest = disk.values().iterator();
+        while (disk.size() > maxDiskEntries && oldest.hasNext()) {
+            StoredPayload expired = oldest.next();
+            oldest.remove();
+            new File(directory, expired.getFileName()).delete();
+        }
+    }
+
+    /**
+     * What a stored payload is and how it is reprinted
+     */
+    public enum PayloadKind {
+        KITCHEN_TICKET,
+        BAR_TICKET,
+        RECEIPT,
+        FISCAL_RECEIPT;
+
+        public static PayloadKind forDestination(MenuItem.PrintDestination destination) {
+            return destination == MenuItem.PrintDestination.КУЈНА ? KITCHEN_TICKET : BAR_TICKET;
+        }
+
+        public MenuItem.PrintDestination getDestination() {
+            return switch (this) {
+                case KITCHEN_TICKET -> MenuItem.PrintDestination.КУЈНА;
+                case BAR_TICKET -> MenuItem.PrintDestination.БАР;
+                default -> null;
+            };
+        }
+    }
+
+    /**
+     * A rendered ticket or receipt (bytes are null for fiscal receipts and index-only entries)
+     */
+    public static final class StoredPayload {
+        private final long jobId;
+        private final Long orderId;
+        private final PayloadKind kind;
+        private final long createdAt;
+        private final byte[] bytes;
+
+        private StoredPayload(long jobId, Long orderId, PayloadKind kind, long createdAt, byte[] bytes) {
+            this.jobId = jobId;
+            this.orderId = orderId;
+            this.kind = kind;
+            this.createdAt = createdAt;
+            this.bytes = bytes;
+        }
+
+        private StoredPayload withBytes(byte[] newBytes) {
+            return new StoredPayload(jobId, orderId, kind, createdAt, newBytes);
+        }
+
+        private String getFileName() {
+            return jobId + "_" + orderId + "_" + kind.name() + ".bin";
+        }
+
+        private static StoredPayload fromFileName(String fileName, long createdAt) {
+            String[] parts = fileName.substring(0, fileName.length() - 4).split("_", 3);
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                return new StoredPayload(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                    PayloadKind.valueOf(parts[2]), createdAt, null);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        public long getJobId() { return jobId; }
+        public Long getOrderId() { return orderId; }
+        public PayloadKind getKind() { return kind; }
+        public long getCreatedAt() { return createdAt; }
+        public byte[] getBytes() { return bytes; }
+        public int getSize() { return bytes != null ? bytes.length : 0; }
+    }
+}
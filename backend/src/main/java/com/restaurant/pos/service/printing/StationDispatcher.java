@@ -0,0 +1,262 @@
+package com.restaurant.pos.service.printing;
+
+import com.restaurant.pos.entity.MenuItem;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Prints kitchen/bar tickets on one worker thread per destination, so a hanging
+ * kitchen printer never delays the bar. Each ticket goes to the primary printer
+ * of its route and fails over to the backups when the primary is unhealthy.
+ * When the printers are only out of paper or have the cover open, the ticket is
+ * parked for a while instead of falling back, and retried on a timer so the station
+ * worker stays free.
+ */
+@Component
+public class StationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(StationDispatcher.class);
+
+    private static final long HOLD_RETRY_MS = 2000;
+
+    @Autowired
+    private PrinterRoutingTable routingTable;
+
+    @Autowired
+    private RenderedPayloadStore payloadStore;
+
+    @Value("${printer.status.hold.seconds:120}")
+    private int holdSeconds;
+
+    // Single thread per destination keeps tickets for one station in order
+    private final Map<MenuItem.PrintDestination, ExecutorService> workers = new EnumMap<>(MenuItem.PrintDestination.class);
+
+    // Tickets parked while a station's printer needs staff, oldest first; only used on that station's worker
+    private final Map<MenuItem.PrintDestination, Deque<HeldTicket>> held = new EnumMap<>(MenuItem.PrintDestination.class);
+
+    private final ScheduledExecutorService retryTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "print-hold");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StationDispatcher() {
+        for (MenuItem.PrintDestination destination : MenuItem.PrintDestination.values()) {
+            held.put(destination, new ArrayDeque<>());
+            workers.put(destination, Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "print-" + destination.name());
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+    }
+
+    /**
+     * Queue a ticket for its station. The fallback is used when no routed printer could print it.
+     */
+    public void dispatch(StationTicket ticket, Consumer<StationTicket> fallback) {
+        try {
+            workers.get(ticket.getDestination()).execute(() -> printWithFailover(ticket, fallback));
+        } catch (RejectedExecutionException e) {
+            // Shutting down - print on the caller thread
+            printWithFailover(ticket, fallback);
+        }
+    }
+
+    private void printWithFailover(StationTicket ticket, Consumer<StationTicket> fallback) {
+        MenuItem.PrintDestination destination = ticket.getDestination();
+        List<PrinterTarget> targets = routingTable.getTargets(destination);
+        String description = destination + " ticket of order " + ticket.getOrderId();
+
+        if (!targets.isEmpty()) {
+            try {
+                // Rendered once, then the same bytes go to whichever printer is up
+                byte[] payload = targets.get(0).getPrinter().renderStationTicket(ticket);
+                if (payload.length == 0) {
+                    return;
+                }
+                payloadStore.store(ticket.getOrderId(), RenderedPayloadStore.PayloadKind.forDestination(destination), payload);
+                if (!held.get(destination).isEmpty()) {
+                    // Behind the parked tickets, so the station still prints in order; the pending
+                    // retry picks it up, keeping a single retry timer per station
+                    hold(new HeldTicket(ticket, payload, description, fallback, holdDeadline()));
+                    return;
+                }
+                if (sendWithFailover(destination, payload, description)) {
+                    return;
+                }
+                if (routingTable.isWaitingForStaff(destination)) {
+                    hold(new HeldTicket(ticket, payload, description, fallback, holdDeadline()));
+                    return;
+                }
+            } catch (Exception e) {
+                logger.error("Error rendering {}", description, e);
+            }
+        }
+
+        runFallback(ticket, description, fallback);
+    }
+
+    private void runFallback(StationTicket ticket, String description, Consumer<StationTicket> fallback) {
+        logger.warn("No printer available for {}", description);
+        try {
+            fallback.accept(ticket);
+        } catch (Exception e) {
+            logger.error("Fallback printing failed for order {}", ticket.getOrderId(), e);
+        }
+    }
+
+    private long holdDeadline() {
+        return System.currentTimeMillis() + holdSeconds * 1000L;
+    }
+
+    /**
+     * Park the ticket while a printer of its station only needs paper or a closed cover.
+     * The first parked ticket starts the retry timer; it keeps rescheduling itself until
+     * the queue is empty. Runs on the station worker.
+     */
+    private void hold(HeldTicket ticket) {
+        Deque<HeldTicket> queue = held.get(ticket.destination());
+        if (queue.isEmpty()) {
+            scheduleRetry(ticket.destination());
+        }
+        queue.add(ticket);
+        logger.warn("Holding {} until the printer has paper and its cover is closed", ticket.description);
+    }
+
+    private void scheduleRetry(MenuItem.PrintDestination destination) {
+        try {
+            retryTimer.schedule(() -> {
+                try {
+                    workers.get(destination).execute(() -> retryHeld(destination));
+                } catch (RejectedExecutionException e) {
+                    logger.debug("Held {} tickets not retried, shutting down", destination);
+                }
+            }, HOLD_RETRY_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Retry of held {} tickets not scheduled, shutting down", destination);
+        }
+    }
+
+    /**
+     * Print the parked tickets of a station in order, stopping at the first one that still cannot
+     * print. A ticket falls back once its hold time ran out or the printers need more than staff.
+     * Runs on the station worker.
+     */
+    private void retryHeld(MenuItem.PrintDestination destination) {
+        Deque<HeldTicket> queue = held.get(destination);
+        if (queue.isEmpty()) {
+            return;
+        }
+        for (PrinterTarget target : routingTable.getTargets(destination)) {
+            routingTable.refreshStatus(target);
+        }
+        while (!queue.isEmpty()) {
+            HeldTicket next = queue.peek();
+            if (sendWithFailover(destination, next.payload, next.description)) {
+                queue.poll();
+                continue;
+            }
+            if (routingTable.isWaitingForStaff(destination) && System.currentTimeMillis() < next.deadline) {
+                break;
+            }
+            queue.poll();
+            runFallback(next.ticket, next.description, next.fallback);
+        }
+        if (!queue.isEmpty()) {
+            scheduleRetry(destination);
+        }
+    }
+
+    // Tickets still parked at shutdown go to the fallback instead of being lost
+    private void releaseHeld(MenuItem.PrintDestination destination) {
+        Deque<HeldTicket> queue = held.get(destination);
+        while (!queue.isEmpty()) {
+            HeldTicket next = queue.poll();
+            runFallback(next.ticket, next.description, next.fallback);
+        }
+    }
+
+    /**
+     * Send rendered bytes to the primary printer of a destination, failing over to the backups.
+     * Returns false when no printer accepted the payload.
+     */
+    public boolean sendWithFailover(MenuItem.PrintDestination destination, byte[] payload, String description) {
+        for (PrinterTarget target : routingTable.getTargets(destination)) {
+            if (!routingTable.isHealthy(target)) {
+                logger.warn("Skipping unhealthy printer {} for {}", target.getSpec(), description);
+                continue;
+            }
+
+            try {
+                target.getPrinter().printRaw(payload);
+                logger.info("Printed {} on {}", description, target.getSpec());
+                return true;
+            } catch (Exception e) {
+                routingTable.markFailed(target);
+                logger.error("Error printing {} on {}", description, target.getSpec(), e);
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryTimer.shutdownNow();
+        workers.forEach((destination, worker) -> {
+            try {
+                worker.execute(() -> releaseHeld(destination));
+            } catch (RejectedExecutionException e) {
+                logger.debug("Held {} tickets not released: {}", destination, e.getMessage());
+            }
+        });
+        workers.values().forEach(ExecutorService::shutdown);
+        for (ExecutorService worker : workers.values()) {
+            try {
+                if (!worker.awaitTermination(10, TimeUnit.SECONDS)) {
+                    worker.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                worker.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class HeldTicket {
+        private final StationTicket ticket;
+        private final byte[] payload;
+        private final String description;
+        private final Consumer<StationTicket> fallback;
+        private final long deadline;
+
+        private HeldTicket(StationTicket ticket, byte[] payload, String description,
+                           Consumer<StationTicket> fallback, long deadline) {
+            this.ticket = ticket;
+            this.payload = payload;
+            this.description = description;
+            this.fallback = fallback;
+            this.deadline = deadline;
+        }
+
+        private MenuItem.PrintDestination destination() {
+            return ticket.getDestination();
+        }
+    }
+}
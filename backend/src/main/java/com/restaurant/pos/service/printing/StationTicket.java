@@ -0,0 +1,79 @@
+package com.restaurant.pos.service.printing;
+
+import com.restaurant.pos.entity.MenuItem;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable kitchen/bar ticket for one print destination.
+ * Built from the pending order items when an order is sent, so it can be
+ * printed (or held for coalescing) after the items are marked as sent.
+ */
+public final class StationTicket {
+
+    private final Long orderId;
+    private final Integer tableNumber;
+    private final MenuItem.PrintDestination destination;
+    private final LocalDateTime orderCreatedAt;
+    private final List<TicketLine> lines;
+
+    public StationTicket(Long orderId, Integer tableNumber, MenuItem.PrintDestination destination,
+                         LocalDateTime orderCreatedAt, List<TicketLine> lines) {
+        this.orderId = orderId;
+        this.tableNumber = tableNumber;
+        this.destination = destination;
+        this.orderCreatedAt = orderCreatedAt;
+        this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+    }
+
+    /**
+     * Merge the lines of a later ticket for the same table and destination into this one
+     */
+    public StationTicket mergeWith(StationTicket later) {
+        List<TicketLine> merged = new ArrayList<>(lines);
+        for (TicketLine line : later.getLines()) {
+            boolean found = false;
+            for (int i = 0; i < merged.size(); i++) {
+                if (merged.get(i).isSameProduct(line)) {
+                    merged.set(i, merged.get(i).withAddedQuantity(line.getQuantity()));
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                merged.add(line);
+            }
+        }
+        return new StationTicket(later.getOrderId(), tableNumber, destination, orderCreatedAt, merged);
+    }
+
+    /**
+     * Header line printed at the top of the ticket
+     */
+    public String getHeader() {
+        return destination == MenuItem.PrintDestination.КУЈНА
+            ? "========== КУЈНА =========="
+            : "=========== БАР ===========";
+    }
+
+    /**
+     * Display name for the table (takeout orders use numbers >= 1000)
+     */
+    public String getTableDisplayName() {
+        if (tableNumber >= 1000) {
+            return "Понеси #" + (tableNumber - 1000 + 1);
+        } else {
+            return String.valueOf(tableNumber);
+        }
+    }
+
+    // Getters
+    public Long getOrderId() { return orderId; }
+    public Integer getTableNumber() { return tableNumber; }
+    public MenuItem.PrintDestination getDestination() { return destination; }
+    public LocalDateTime getOrderCreatedAt() { return orderCreatedAt; }
+    public List<TicketLine> getLines() { return lines; }
+}
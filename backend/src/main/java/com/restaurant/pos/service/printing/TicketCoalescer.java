@@ -0,0 +1,122 @@
+package com.restaurant.pos.service.printing;
+
+import com.restaurant.pos.entity.MenuItem;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Holds kitchen/bar tickets for a short per-destination window and merges
+ * tickets for the same table and destination into one physical ticket.
+ * A window of 0 seconds disables coalescing for that destination.
+ */
+@Component
+public class TicketCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketCoalescer.class);
+
+    @Value("${printer.coalesce.kitchen.seconds:0}")
+    private volatile int kitchenWindowSeconds;
+
+    @Value("${printer.coalesce.bar.seconds:0}")
+    private volatile int barWindowSeconds;
+
+    // Pending tickets keyed by destination + table number, guarded by itself
+    private final Map<String, PendingTicket> pending = new HashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ticket-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Submit a ticket for printing. The dispatcher is called immediately when
+     * coalescing is disabled, otherwise once the window for the first ticket expires.
+     */
+    public void submit(StationTicket ticket, Consumer<StationTicket> dispatcher) {
+        int windowSeconds = getWindowSeconds(ticket.getDestination());
+        if (windowSeconds <= 0) {
+            dispatcher.accept(ticket);
+            return;
+        }
+
+        String key = ticket.getDestination().name() + ":" + ticket.getTableNumber();
+        synchronized (pending) {
+            PendingTicket existing = pending.get(key);
+            if (existing != null) {
+                existing.ticket = existing.ticket.mergeWith(ticket);
+                logger.info("Coalesced {} ticket for table {} ({} lines pending)",
+                    ticket.getDestination(), ticket.getTableNumber(), existing.ticket.getLines().size());
+                return;
+            }
+            pending.put(key, new PendingTicket(ticket, dispatcher));
+        }
+
+        scheduler.schedule(() -> flush(key), windowSeconds, TimeUnit.SECONDS);
+        logger.debug("Holding {} ticket for table {} for {}s", ticket.getDestination(), ticket.getTableNumber(), windowSeconds);
+    }
+
+    private void flush(String key) {
+        PendingTicket pendingTicket;
+        synchronized (pending) {
+            pendingTicket = pending.remove(key);
+        }
+        if (pendingTicket == null) {
+            return;
+        }
+
+        try {
+            pendingTicket.dispatcher.accept(pendingTicket.ticket);
+        } catch (Exception e) {
+            logger.error("Error dispatching coalesced ticket for table {}", pendingTicket.ticket.getTableNumber(), e);
+        }
+    }
+
+    /**
+     * Print everything still held before the application stops
+     */
+    @PreDestroy
+    public void shutdown() {
+        List<String> keys;
+        synchronized (pending) {
+            keys = new ArrayList<>(pending.keySet());
+        }
+        keys.forEach(this::flush);
+        scheduler.shutdownNow();
+    }
+
+    public int getWindowSeconds(MenuItem.PrintDestination destination) {
+        return destination == MenuItem.PrintDestination.КУЈНА ? kitchenWindowSeconds : barWindowSeconds;
+    }
+
+    public void setWindowSeconds(MenuItem.PrintDestination destination, int seconds) {
+        if (destination == MenuItem.PrintDestination.КУЈНА) {
+            this.kitchenWindowSeconds = Math.max(0, seconds);
+        } else {
+            this.barWindowSeconds = Math.max(0, seconds);
+        }
+        logger.info("Ticket coalescing window for {} set to {}s", destination, getWindowSeconds(destination));
+    }
+
+    private static final class PendingTicket {
+        private StationTicket ticket;
+        private final Consumer<StationTicket> dispatcher;
+
+        private PendingTicket(StationTicket ticket, Consumer<StationTicket> dispatcher) {
+            this.ticket = ticket;
+            this.dispatcher = dispatcher;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.restaurant.pos.service.printing;
+
+import java.util.Objects;
+
+/**
+ * One line on a kitchen/bar ticket - snapshot of the pending quantity of an order item
+ * taken before the item is marked as sent
+ */
+public final class TicketLine {
+
+    private final Long menuItemId;
+    private final String name;
+    private final int quantity;
+    private final String notes;
+
+    public TicketLine(Long menuItemId, String name, int quantity, String notes) {
+        this.menuItemId = menuItemId;
+        this.name = name;
+        this.quantity = quantity;
+        this.notes = notes;
+    }
+
+    /**
+     * Lines for the same product with the same notes are printed as one line
+     */
+    public boolean isSameProduct(TicketLine other) {
+        return Objects.equals(menuItemId, other.menuItemId) && Objects.equals(notes, other.notes);
+    }
+
+    public TicketLine withAddedQuantity(int extraQuantity) {
+        return new TicketLine(menuItemId, name, quantity + extraQuantity, notes);
+    }
+
+    public boolean hasNotes() {
+        return notes != null && !notes.trim().isEmpty();
+    }
+
+    // Getters
+    public Long getMenuItemId() { return menuItemId; }
+    public String getName() { return name; }
+    public int getQuantity() { return quantity; }
+    public String getNotes() { return notes; }
+}
@@ -0,0 +1,360 @@
+package com.restaurant.pos.service.printing;
+
+import com.restaurant.pos.entity.MenuItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Virtual printer used when the real printers are disabled or fail.
+ *
+ * Tickets and receipts are queued and written by one background thread into
+ * size-rotated files per station ({channel}-{sequence}.log). Next to every log file
+ * an index file records where each printout starts, so simulated printouts can be
+ * found by order id and read back later.
+ */
+@Component
+public class VirtualPrinter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualPrinter.class);
+
+    @Value("${printer.virtual.path:./data/virtual-printer}")
+    private String outputPath;
+
+    @Value("${printer.virtual.file.kb:1024}")
+    private long maxFileKb;
+
+    @Value("${printer.virtual.files:10}")
+    private int maxFilesPerChannel;
+
+    @Value("${printer.virtual.queue.capacity:1000}")
+    private int queueCapacity;
+
+    private BlockingQueue<Printout> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private File directory;
+    private final Map<Channel, ChannelFile> files = new EnumMap<>(Channel.class);
+
+    // Order id -> printouts in retained files
+    private final Map<Long, List<Entry>> entriesByOrder = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        directory = new File(outputPath);
+        if (!directory.exists() && !directory.mkdirs()) {
+            logger.warn("Cannot create virtual printer directory {}", outputPath);
+        }
+        for (Channel channel : Channel.values()) {
+            files.put(channel, new ChannelFile(channel, loadIndex(channel)));
+        }
+
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "virtual-printer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Queue a printout. Never blocks the caller; when the queue is full the printout goes to the log.
+     */
+    public void print(Channel channel, Long orderId, String title, String content) {
+        Printout printout = new Printout(channel, orderId, title, content, System.currentTimeMillis());
+        if (!running || !queue.offer(printout)) {
+            logger.warn("Virtual printer queue full, {} for order {}:\n{}", title, orderId, content);
+        }
+    }
+
+    /**
+     * Simulated printouts of an order, oldest first
+     */
+    public List<Entry> findByOrder(Long orderId) {
+        List<Entry> entries = entriesByOrder.get(orderId);
+        return entries != null ? new ArrayList<>(entries) : List.of();
+    }
+
+    /**
+     * Read back the text of a simulated printout
+     */
+    public Optional<String> read(Entry entry) {
+        File file = new File(directory, entry.getFileName());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            byte[] bytes = new byte[entry.length];
+            raf.seek(entry.offset);
+            raf.readFully(bytes);
+            return Optional.of(new String(bytes, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.warn("Cannot read virtual printout {} of order {}", entry.getFileName(), entry.orderId);
+            return Optional.empty();
+        }
+    }
+
+    private void writeLoop() {
+        List<Printout> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Printout first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Stopping - write what is still queued
+                running = false;
+            }
+            queue.drainTo(batch);
+            for (Printout printout : batch) {
+                write(printout);
+            }
+            batch.clear();
+            files.values().forEach(ChannelFile::flush);
+        }
+        files.values().forEach(ChannelFile::close);
+    }
+
+    private void write(Printout printout) {
+        try {
+            String text = "=== " + printout.title + " ===\n" + printout.content + "\n";
+            files.get(printout.channel).append(printout, text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.error("Error writing virtual printout for order {}", printout.orderId, e);
+        }
+    }
+
+    private List<Long> loadIndex(Channel channel) {
+        List<Long> sequences = new ArrayList<>();
+        File[] indexFiles = directory.listFiles((dir, name) -> name.startsWith(channel.fileName + "-") && name.endsWith(".idx"));
+        if (indexFiles == null) {
+            return sequences;
+        }
+        Arrays.sort(indexFiles, Comparator.comparing(File::getName));
+        for (File indexFile : indexFiles) {
+            String name = indexFile.getName();
+            long sequence;
+            try {
+                sequence = Long.parseLong(name.substring(channel.fileName.length() + 1, name.length() - 4));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            sequences.add(sequence);
+            try {
+                for (String line : Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8)) {
+                    Entry entry = Entry.parse(channel, sequence, line);
+                    if (entry != null) {
+                        addEntry(entry);
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot read virtual printer index {}", name);
+            }
+        }
+        return sequences;
+    }
+
+    private void addEntry(Entry entry) {
+        if (entry.orderId == null) {
+            return;
+        }
+        entriesByOrder.computeIfAbsent(entry.orderId, id -> new CopyOnWriteArrayList<>()).add(entry);
+    }
+
+    private void removeEntries(Channel channel, long sequence) {
+        entriesByOrder.values().forEach(entries ->
+            entries.removeIf(entry -> entry.channel == channel && entry.sequence == sequence));
+        entriesByOrder.values().removeIf(List::isEmpty);
+    }
+
+    /**
+     * Open log and index file of one channel, only used by the writer thread
+     */
+    private final class ChannelFile {
+        private final Channel channel;
+        private final List<Long> sequences;
+        private long sequence;
+        private long size;
+        private OutputStream log;
+        private OutputStream index;
+
+        ChannelFile(Channel channel, List<Long> existingSequences) {
+            this.channel = channel;
+            this.sequences = new ArrayList<>(existingSequences);
+            this.sequence = existingSequences.isEmpty() ? 0 : existingSequences.get(existingSequences.size() - 1);
+        }
+
+        void append(Printout printout, byte[] bytes) throws IOException {
+            if (log == null || size >= maxFileKb * 1024) {
+                rotate();
+            }
+            log.write(bytes);
+            Entry entry = new Entry(channel, sequence, printout.orderId, size, bytes.length, printout.printedAt, printout.title);
+            index.write((entry.format() + "\n").getBytes(StandardCharsets.UTF_8));
+            size += bytes.length;
+            addEntry(entry);
+        }
+
+        private void rotate() throws IOException {
+            close();
+            sequence++;
+            sequences.add(sequence);
+            log = new BufferedOutputStream(new FileOutputStream(new File(directory, Entry.fileName(channel, sequence, ".log"))));
+            index = new BufferedOutputStream(new FileOutputStream(new File(directory, Entry.fileName(channel, sequence, ".idx"))));
+            size = 0;
+
+            while (sequences.size() > Math.max(maxFilesPerChannel, 1)) {
+                long expired = sequences.remove(0);
+                new File(directory, Entry.fileName(channel, expired, ".log")).delete();
+                new File(directory, Entry.fileName(channel, expired, ".idx")).delete();
+                removeEntries(channel, expired);
+            }
+        }
+
+        void flush() {
+            try {
+                if (log != null) {
+                    log.flush();
+                    index.flush();
+                }
+            } catch (IOException e) {
+                logger.error("Error flushing virtual printer file for {}", channel, e);
+            }
+        }
+
+        void close() {
+            try {
+                if (log != null) {
+                    log.close();
+                    index.close();
+                }
+            } catch (IOException e) {
+                logger.error("Error closing virtual printer file for {}", channel, e);
+            }
+            log = null;
+            index = null;
+        }
+    }
+
+    private static final class Printout {
+        private final Channel channel;
+        private final Long orderId;
+        private final String title;
+        private final String content;
+        private final long printedAt;
+
+        private Printout(Channel channel, Long orderId, String title, String content, long printedAt) {
+            this.channel = channel;
+            this.orderId = orderId;
+            this.title = title;
+            this.content = content;
+            this.printedAt = printedAt;
+        }
+    }
+
+    /**
+     * Station a simulated printout belongs to
+     */
+    public enum Channel {
+        KITCHEN("kitchen"),
+        BAR("bar"),
+        RECEIPT("receipt");
+
+        private final String fileName;
+
+        Channel(String fileName) {
+            this.fileName = fileName;
+        }
+
+        public static Channel forDestination(MenuItem.PrintDestination destination) {
+            return destination == MenuItem.PrintDestination.КУЈНА ? KITCHEN : BAR;
+        }
+    }
+
+    /**
+     * Position of one simulated printout in its log file
+     */
+    public static final class Entry {
+        private final Channel channel;
+        private final long sequence;
+        private final Long orderId;
+        private final long offset;
+        private final int length;
+        private final long printedAt;
+        private final String title;
+
+        private Entry(Channel channel, long sequence, Long orderId, long offset, int length, long printedAt, String title) {
+            this.channel = channel;
+            this.sequence = sequence;
+            this.orderId = orderId;
+            this.offset = offset;
+            this.length = length;
+            this.printedAt = printedAt;
+            this.title = title;
+        }
+
+        private static String fileName(Channel channel, long sequence, String extension) {
+            return String.format("%s-%06d%s", channel.fileName, sequence, extension);
+        }
+
+        // orderId \t offset \t length \t printedAt \t title
+        private String format() {
+            return orderId + "\t" + offset + "\t" + length + "\t" + printedAt + "\t" + title;
+        }
+
+        private static Entry parse(Channel channel, long sequence, String line) {
+            String[] parts = line.split("\t", 5);
+            if (parts.length != 5) {
+                return null;
+            }
+            try {
+                return new Entry(channel, sequence, Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                    Integer.parseInt(parts[2]), Long.parseLong(parts[3]), parts[4]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        public String getFileName() { return fileName(channel, sequence, ".log"); }
+        public Channel getChannel() { return channel; }
+        public Long getOrderId() { return orderId; }
+        public long getPrintedAt() { return printedAt; }
+        public String getTitle() { return title; }
+    }
+}
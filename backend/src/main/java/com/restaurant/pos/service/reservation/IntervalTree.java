@@ -0,0 +1,221 @@
+package com.restaurant.pos.service.reservation;
+
+import com.restaurant.pos.service.reservation.ReservationBook.Booking;
+
+import java.util.List;
+
+/**
+ * Bookings of one table as half-open time intervals [start, end), in an AVL tree ordered by
+ * start (then id). Every node also keeps the latest end in its subtree, so an overlap search
+ * skips whole subtrees that end too early or start too late: O(log n + matches).
+ *
+ * Not thread safe; the owner guards it.
+ */
+final class IntervalTree {
+
+    private Node root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void insert(Booking booking) {
+        root = insert(root, booking);
+        size++;
+    }
+
+    /**
+     * Remove the booking with the same start and id; false when it is not in the tree
+     */
+    boolean remove(Booking booking) {
+        int before = size;
+        root = remove(root, booking);
+        return size < before;
+    }
+
+    /**
+     * True when a booking other than ignoreId overlaps [from, to)
+     */
+    boolean overlaps(long from, long to, Long ignoreId) {
+        return overlaps(root, from, to, ignoreId);
+    }
+
+    /**
+     * Bookings overlapping [from, to), by start
+     */
+    void collect(long from, long to, List<Booking> result) {
+        collect(root, from, to, result);
+    }
+
+    /**
+     * Bookings that ended at or before the given time
+     */
+    void collectEnded(long time, List<Booking> result) {
+        collectEnded(root, time, result);
+    }
+
+    private static boolean overlaps(Node node, long from, long to, Long ignoreId) {
+        if (node == null || node.maxEnd <= from) {
+            return false;
+        }
+        if (overlaps(node.left, from, to, ignoreId)) {
+            return true;
+        }
+        // This node and everything to its right start too late
+        if (node.booking.getStartKey() >= to) {
+            return false;
+        }
+        if (node.booking.getEndKey() > from && !node.booking.getId().equals(ignoreId)) {
+            return true;
+        }
+        return overlaps(node.right, from, to, ignoreId);
+    }
+
+    private static void collect(Node node, long from, long to, List<Booking> result) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        collect(node.left, from, to, result);
+        if (node.booking.getStartKey() >= to) {
+            return;
+        }
+        if (node.booking.getEndKey() > from) {
+            result.add(node.booking);
+        }
+        collect(node.right, from, to, result);
+    }
+
+    private static void collectEnded(Node node, long time, List<Booking> result) {
+        if (node == null) {
+            return;
+        }
+        collectEnded(node.left, time, result);
+        // A booking starting at or after the time cannot have ended yet
+        if (node.booking.getStartKey() >= time) {
+            return;
+        }
+        if (node.booking.getEndKey() <= time) {
+            result.add(node.booking);
+        }
+        collectEnded(node.right, time, result);
+    }
+
+    private static int compare(Booking a, Booking b) {
+        int byStart = Long.compare(a.getStartKey(), b.getStartKey());
+        return byStart != 0 ? byStart : Long.compare(a.getId(), b.getId());
+    }
+
+    private static Node insert(Node node, Booking booking) {
+        if (node == null) {
+            return new Node(booking);
+        }
+        if (compare(booking, node.booking) < 0) {
+            node.left = insert(node.left, booking);
+        } else {
+            node.right = insert(node.right, booking);
+        }
+        return balance(node);
+    }
+
+    private Node remove(Node node, Booking booking) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(booking, node.booking);
+        if (cmp < 0) {
+            node.left = remove(node.left, booking);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, booking);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Replace with the next booking in order, taken out of the right subtree
+            Node next = node.right;
+            while (next.left != null) {
+                next = next.left;
+            }
+            node.booking = next.booking;
+            node.right = removeFirst(node.right);
+        }
+        return balance(node);
+    }
+
+    private static Node removeFirst(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeFirst(node.left);
+        return balance(node);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.booking.getEndKey();
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static final class Node {
+        private Booking booking;
+        private Node left;
+        private Node right;
+        private int height = 1;
+        private long maxEnd;
+
+        private Node(Booking booking) {
+            this.booking = booking;
+            this.maxEnd = booking.getEndKey();
+        }
+    }
+}
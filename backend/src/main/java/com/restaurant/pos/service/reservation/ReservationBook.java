@@ -0,0 +1,434 @@
+package com.restaurant.pos.service.reservation;
+
+import com.restaurant.pos.entity.Reservation;
+import com.restaurant.pos.entity.RestaurantTable.TableStatus;
+import com.restaurant.pos.repository.ReservationRepository;
+import com.restaurant.pos.service.floorplan.TableStatusBoard;
+import com.restaurant.pos.service.floorplan.TableStatusBoard.TableState;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Upcoming BOOKED and SEATED reservations in memory, in one interval tree per table, so
+ * availability for a window is a few tree lookups instead of a query over all bookings.
+ *
+ * Writes are checked for overlaps and applied under one lock while the saving transaction
+ * is still open (two bookings for the same slot cannot both pass) and undone if it rolls back.
+ * A timer holds the table of a reservation that is about to start as RESERVED, marks it
+ * SEATED once an order opens on the held table, or NO_SHOW when nobody came, then frees the
+ * table again.
+ */
+@Component
+public class ReservationBook {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationBook.class);
+
+    private static final String UPDATE_STATUS_SQL =
+        "UPDATE reservations SET status = ? WHERE id = ? AND status = 'BOOKED'";
+
+    @Value("${reservations.hold.minutes:30}")
+    private long holdMinutes;
+
+    @Value("${reservations.no-show.minutes:15}")
+    private long noShowMinutes;
+
+    @Value("${reservations.tick.ms:30000}")
+    private long tickMillis;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private TableStatusBoard tableStatusBoard;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reservations");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by lock: searches share it, writes are exclusive
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, IntervalTree> trees = new HashMap<>();
+    private final Map<Long, Booking> bookings = new HashMap<>();
+
+    // Tables held for due reservations, by reservation id (timer thread only)
+    private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        load();
+        scheduler.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Rebuild the trees from the reservations that have not ended yet
+     */
+    public void load() {
+        try {
+            List<Reservation> upcoming = reservationRepository.findByStatusInAndEndTimeAfter(
+                EnumSet.of(Reservation.Status.BOOKED, Reservation.Status.SEATED), LocalDateTime.now());
+            lock.writeLock().lock();
+            try {
+                trees.clear();
+                bookings.clear();
+                for (Reservation reservation : upcoming) {
+                    insert(Booking.of(reservation));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Reservation book loaded: {} upcoming reservations", upcoming.size());
+        } catch (Exception e) {
+            logger.error("Cannot load reservation book", e);
+        }
+    }
+
+    /**
+     * Put a saved reservation in the book, or take it out when it no longer holds its table.
+     * Throws IllegalStateException when the table is already booked for an overlapping time.
+     * Applied now and undone if the current transaction rolls back.
+     */
+    public void put(Reservation reservation) {
+        Booking booking = Booking.of(reservation);
+        Booking previous;
+        lock.writeLock().lock();
+        try {
+            if (booking.holdsTable() && !isFree(booking.tableNumber, booking.startKey, booking.endKey, booking.id)) {
+                throw new IllegalStateException("Масата " + booking.tableNumber + " е веќе резервирана во тој термин");
+            }
+            previous = bookings.get(booking.id);
+            if (previous != null) {
+                delete(previous);
+            }
+            if (booking.holdsTable()) {
+                insert(booking);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        restore(booking, previous);
+                    }
+                }
+            });
+        }
+    }
+
+    private void restore(Booking applied, Booking previous) {
+        lock.writeLock().lock();
+        try {
+            if (bookings.get(applied.id) == applied) {
+                delete(applied);
+            }
+            if (previous != null && !bookings.containsKey(previous.id)) {
+                insert(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isFree(Integer tableNumber, LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            return isFree(tableNumber, key(from), key(to), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The given tables that have no booking overlapping [from, to)
+     */
+    public Set<Integer> findFree(Collection<Integer> tableNumbers, LocalDateTime from, LocalDateTime to) {
+        long fromKey = key(from);
+        long toKey = key(to);
+        Set<Integer> free = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            for (Integer tableNumber : tableNumbers) {
+                if (isFree(tableNumber, fromKey, toKey, null)) {
+                    free.add(tableNumber);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return free;
+    }
+
+    /**
+     * Bookings overlapping [from, to), of one table or of all tables (null), by start
+     */
+    public List<Booking> getBookings(Integer tableNumber, LocalDateTime from, LocalDateTime to) {
+        long fromKey = key(from);
+        long toKey = key(to);
+        List<Booking> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (tableNumber != null) {
+                IntervalTree tree = trees.get(tableNumber);
+                if (tree != null) {
+                    tree.collect(fromKey, toKey, result);
+                }
+            } else {
+                trees.values().forEach(tree -> tree.collect(fromKey, toKey, result));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (tableNumber == null) {
+            result.sort(Comparator.comparingLong(Booking::getStartKey).thenComparing(Booking::getTableNumber));
+        }
+        return result;
+    }
+
+    /**
+     * Hold, seat, expire and release tables for the reservations around now
+     */
+    void tick() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long nowKey = key(now);
+            long noShowSeconds = TimeUnit.MINUTES.toSeconds(noShowMinutes);
+
+            removeEnded(nowKey);
+
+            // BOOKED reservations that have started or start within the hold time
+            Set<Long> due = new HashSet<>();
+            for (Booking booking : getBookings(null, now, now.plusMinutes(holdMinutes))) {
+                if (booking.status != Reservation.Status.BOOKED) {
+                    continue;
+                }
+                due.add(booking.id);
+                Hold hold = holds.get(booking.id);
+                if (hold != null && !hold.tableNumber.equals(booking.tableNumber)) {
+                    // Moved to another table since it was held
+                    tableStatusBoard.release(hold.tableNumber, hold.state);
+                    holds.remove(booking.id);
+                    hold = null;
+                }
+                if (hold != null) {
+                    TableState current = tableStatusBoard.getState(booking.tableNumber);
+                    if (current != null && current != hold.state) {
+                        if (current.getStatus() == TableStatus.OCCUPIED) {
+                            // An order was opened on the held table: the guests arrived
+                            changeStatus(booking, Reservation.Status.SEATED);
+                            holds.remove(booking.id);
+                            continue;
+                        }
+                        if (current.getStatus() == TableStatus.RESERVED) {
+                            // Same status under a new state, e.g. after the board reloaded
+                            hold = new Hold(booking.tableNumber, current);
+                            holds.put(booking.id, hold);
+                        }
+                    }
+                }
+
+                if (nowKey >= booking.startKey + noShowSeconds) {
+                    changeStatus(booking, Reservation.Status.NO_SHOW);
+                    if (hold != null) {
+                        tableStatusBoard.release(hold.tableNumber, hold.state);
+                        holds.remove(booking.id);
+                    }
+                } else if (hold == null) {
+                    // Retried on every run while the table is still occupied or being cleaned
+                    TableState held = tableStatusBoard.hold(booking.tableNumber);
+                    if (held != null) {
+                        holds.put(booking.id, new Hold(booking.tableNumber, held));
+                        logger.info("Table {} held for reservation {} at {}", booking.tableNumber, booking.id,
+                            booking.startTime);
+                    }
+                }
+            }
+
+            // Cancelled, seated by hand, rescheduled or ended since their table was held
+            holds.forEach((id, hold) -> {
+                if (!due.contains(id)) {
+                    Booking booking = get(id);
+                    if (booking == null || booking.status != Reservation.Status.SEATED) {
+                        tableStatusBoard.release(hold.tableNumber, hold.state);
+                    }
+                    holds.remove(id);
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("Reservation timer failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Set by the timer, only while the reservation is still BOOKED in the database
+     */
+    private void changeStatus(Booking booking, Reservation.Status status) {
+        try {
+            if (jdbcTemplate.update(UPDATE_STATUS_SQL, status.name(), booking.id) == 0) {
+                return;
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Cannot mark reservation {} as {}: {}", booking.id, status, e.getMessage());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (bookings.get(booking.id) == booking) {
+                delete(booking);
+                Booking changed = booking.withStatus(status);
+                if (changed.holdsTable()) {
+                    insert(changed);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Reservation {} for table {} marked {}", booking.id, booking.tableNumber, status);
+    }
+
+    private void removeEnded(long nowKey) {
+        List<Booking> ended = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            trees.values().forEach(tree -> tree.collectEnded(nowKey, ended));
+            ended.forEach(this::delete);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Booking get(Long id) {
+        lock.readLock().lock();
+        try {
+            return bookings.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the lock
+    private boolean isFree(Integer tableNumber, long fromKey, long toKey, Long ignoreId) {
+        IntervalTree tree = trees.get(tableNumber);
+        return tree == null || !tree.overlaps(fromKey, toKey, ignoreId);
+    }
+
+    private void insert(Booking booking) {
+        trees.computeIfAbsent(booking.tableNumber, n -> new IntervalTree()).insert(booking);
+        bookings.put(booking.id, booking);
+    }
+
+    private void delete(Booking booking) {
+        IntervalTree tree = trees.get(booking.tableNumber);
+        if (tree != null && tree.remove(booking) && tree.size() == 0) {
+            trees.remove(booking.tableNumber);
+        }
+        bookings.remove(booking.id);
+    }
+
+    static long key(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // Table held for a reservation, with the board state set then
+    private static final class Hold {
+        private final Integer tableNumber;
+        private final TableState state;
+
+        private Hold(Integer tableNumber, TableState state) {
+            this.tableNumber = tableNumber;
+            this.state = state;
+        }
+    }
+
+    /**
+     * Immutable copy of a reservation as kept in the book
+     */
+    public static final class Booking {
+        private final Long id;
+        private final Integer tableNumber;
+        private final Integer partySize;
+        private final String customerName;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final Reservation.Status status;
+        private final long startKey;
+        private final long endKey;
+
+        private Booking(Long id, Integer tableNumber, Integer partySize, String customerName,
+                        LocalDateTime startTime, LocalDateTime endTime, Reservation.Status status) {
+            this.id = id;
+            this.tableNumber = tableNumber;
+            this.partySize = partySize;
+            this.customerName = customerName;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.status = status;
+            this.startKey = key(startTime);
+            this.endKey = key(endTime);
+        }
+
+        static Booking of(Reservation reservation) {
+            return new Booking(reservation.getId(), reservation.getTableNumber(), reservation.getPartySize(),
+                reservation.getCustomerName(), reservation.getStartTime(), reservation.getEndTime(),
+                reservation.getStatus());
+        }
+
+        Booking withStatus(Reservation.Status newStatus) {
+            return new Booking(id, tableNumber, partySize, customerName, startTime, endTime, newStatus);
+        }
+
+        boolean holdsTable() {
+            return status == Reservation.Status.BOOKED || status == Reservation.Status.SEATED;
+        }
+
+        public Long getId() { return id; }
+        public Integer getTableNumber() { return tableNumber; }
+        public Integer getPartySize() { return partySize; }
+        public String getCustomerName() { return customerName; }
+        public LocalDateTime getStartTime() { return startTime; }
+        public LocalDateTime getEndTime() { return endTime; }
+        public Reservation.Status getStatus() { return status; }
+
+        long getStartKey() { return startKey; }
+        long getEndKey() { return endKey; }
+    }
+}
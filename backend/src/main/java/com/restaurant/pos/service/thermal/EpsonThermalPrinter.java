@@ -3,6 +3,8 @@ package com.restaurant.pos.service.thermal;
 import com.restaurant.pos.entity.Order;
 import com.restaurant.pos.entity.OrderItem;
 import com.restaurant.pos.entity.MenuItem;
+import com.restaurant.pos.service.printing.StationTicket;
+import com.restaurant.pos.service.printing.TicketLine;
 import com.github.anastaciocintra.escpos.EscPos;
 import com.github.anastaciocintra.escpos.EscPosConst;
 import com.github.anastaciocintra.escpos.Style;
@@ -11,10 +13,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.print.PrintService;
-import javax.print.PrintServiceLookup;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
@@ -34,6 +40,15 @@ public class EpsonThermalPrinter {
     private static final Charset PRINTER_CHARSET = Charset.forName("CP866");
     private static final int CYRILLIC_CODEPAGE = 17; // ESC t 17 for CP866
     
+    // Network timeouts so a hanging printer fails fast and routing can fail over
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final int SOCKET_TIMEOUT_MS = 10000;
+    private static final int STATUS_TIMEOUT_MS = 1000;
+    
+    // ESC/POS real-time status request (DLE EOT n)
+    private static final int STATUS_OFFLINE_CAUSE = 2;
+    private static final int STATUS_PAPER_SENSOR = 4;
+    
     private String printerName;
     private String connectionType; // USB, NETWORK
     private String ipAddress;
@@ -64,37 +79,58 @@ public class EpsonThermalPrinter {
         }
     }
     
+    /**
+     * Query real-time status (paper, cover, errors). Network printers answer DLE EOT requests;
+     * for USB printers only whether the print service exists is known.
+     */
+    public PrinterStatus queryStatus() {
+        long now = System.currentTimeMillis();
+        if ("NETWORK".equals(connectionType)) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(ipAddress, port), CONNECT_TIMEOUT_MS);
+                socket.setSoTimeout(STATUS_TIMEOUT_MS);
+                OutputStream out = socket.getOutputStream();
+                InputStream in = socket.getInputStream();
+                int offlineStatus = requestStatus(out, in, STATUS_OFFLINE_CAUSE);
+                int paperStatus = requestStatus(out, in, STATUS_PAPER_SENSOR);
+                return PrinterStatus.fromStatusBytes(offlineStatus, paperStatus, now);
+            } catch (SocketTimeoutException e) {
+                // Connected, but the printer does not answer status requests
+                return PrinterStatus.reachable(now);
+            } catch (Exception e) {
+                return PrinterStatus.offline(now, e.getMessage());
+            }
+        } else if ("USB".equals(connectionType)) {
+            return findPrintService(printerName) != null
+                ? PrinterStatus.reachable(now)
+                : PrinterStatus.offline(now, "Print service not found");
+        }
+        return PrinterStatus.offline(now, "Unsupported connection type " + connectionType);
+    }
+    
+    private int requestStatus(OutputStream out, InputStream in, int statusType) throws IOException {
+        out.write(new byte[]{0x10, 0x04, (byte) statusType});
+        out.flush();
+        int status = in.read();
+        if (status < 0) {
+            throw new EOFException("Printer closed connection");
+        }
+        return status;
+    }
+    
     /**
      * FIXED: Initialize printer with proper Cyrillic support
+     * Written at the start of every rendered payload, so a stored payload prints the same when replayed
      */
     private void initializePrinterEncoding(OutputStream rawStream) throws IOException {
-        if (rawStream == null) {
-            logger.warn("Raw stream is null, cannot set encoding");
-            return;
-        }
+        // STEP 1: Initialize printer
+        rawStream.write(new byte[]{0x1B, 0x40}); // ESC @ - Initialize printer
         
-        try {
-            // STEP 1: Initialize printer
-            rawStream.write(new byte[]{0x1B, 0x40}); // ESC @ - Initialize printer
-            rawStream.flush();
-            Thread.sleep(100);
-            
-            // STEP 2: Set codepage to CP866 (Cyrillic)
-            rawStream.write(new byte[]{0x1B, 0x74, CYRILLIC_CODEPAGE}); // ESC t 17
-            rawStream.flush();
-            Thread.sleep(50);
-            
-            // STEP 3: Set international character set to Cyrillic
-            rawStream.write(new byte[]{0x1B, 0x52, 0x07}); // ESC R 7 - Cyrillic character set
-            rawStream.flush();
-            Thread.sleep(50);
-            
-            logger.info("✅ Printer encoding initialized: CP866 Cyrillic");
-            
-        } catch (Exception e) {
-            logger.error("❌ Failed to initialize printer encoding: {}", e.getMessage());
-            throw new IOException("Failed to set printer encoding", e);
-        }
+        // STEP 2: Set codepage to CP866 (Cyrillic)
+        rawStream.write(new byte[]{0x1B, 0x74, CYRILLIC_CODEPAGE}); // ESC t 17
+        
+        // STEP 3: Set international character set to Cyrillic
+        rawStream.write(new byte[]{0x1B, 0x52, 0x07}); // ESC R 7 - Cyrillic character set
     }
     
     /**
@@ -153,136 +189,32 @@ public class EpsonThermalPrinter {
     }
     
     /**
-     * Print kitchen ticket - NEW items only + FIXED encoding
+     * Print kitchen/bar ticket for one destination + FIXED encoding
      */
-    public void printKitchenTicket(Order order, List<OrderItem> items) throws IOException {
-        logger.info("Printing kitchen ticket for order {} with FIXED encoding", order.getId());
-        
-        // Filter to only NEW items (pending quantity > 0)  
-        List<OrderItem> newItems = items.stream()
-            .filter(item -> {
-                int totalQty = item.getQuantity() != null ? item.getQuantity() : 0;
-                int sentQty = item.getSentQuantity() != null ? item.getSentQuantity() : 0;
-                int pendingQty = totalQty - sentQty;
-                
-                logger.debug("Item: {}, Total: {}, Sent: {}, Pending: {}", 
-                    item.getMenuItem().getName(), totalQty, sentQty, pendingQty);
-                
-                return pendingQty > 0;
-            })
-            .toList();
-        
-        if (newItems.isEmpty()) {
-            logger.info("No new kitchen items to print for order {}", order.getId());
-            return;
-        }
-        
-        logger.info("Printing {} new kitchen items with FIXED Cyrillic support", newItems.size());
-        
-        EscPos escpos = createEscPosInstance();
-        if (escpos == null) {
-            throw new IOException("Cannot create ESC/POS printer instance");
-        }
-        
-        try {
-            // FIXED: Initialize encoding FIRST
-            OutputStream rawStream = escpos.getOutputStream();
-            initializePrinterEncoding(rawStream);
-            
-            // Define styles
-            Style headerStyle = new Style()
-                .setFontSize(Style.FontSize._2, Style.FontSize._2)
-                .setJustification(EscPosConst.Justification.Center)
-                .setBold(true);
-            
-            Style itemStyle = new Style()
-                .setFontSize(Style.FontSize._1, Style.FontSize._1)
-                .setJustification(EscPosConst.Justification.Left_Default);
-            
-            // FIXED: Print header with proper encoding
-            writeEncodedText(escpos, headerStyle, "========== КУЈНА ==========");
-            escpos.feed(1);
-            
-            writeEncodedText(escpos, itemStyle, "Маса: " + getTableDisplayName(order));
-            escpos.feed(1);
-            writeEncodedText(escpos, itemStyle, "Време: " + DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy").format(order.getCreatedAt()));
-            escpos.feed(1);
-            writeEncodedText(escpos, itemStyle, "===========================");
-            escpos.feed(2);
-            
-            // FIXED: Print NEW items with proper encoding
-            for (OrderItem item : newItems) {
-                int totalQty = item.getQuantity() != null ? item.getQuantity() : 0;
-                int sentQty = item.getSentQuantity() != null ? item.getSentQuantity() : 0;
-                int pendingQty = totalQty - sentQty;
-                
-                Style quantityStyle = new Style()
-                    .setFontSize(Style.FontSize._2, Style.FontSize._2)
-                    .setBold(true);
-                
-                // Print quantity (numbers work fine)
-                escpos.write(quantityStyle, pendingQty + "x ");
-                
-                // FIXED: Print item name with encoding
-                writeEncodedText(escpos, itemStyle, item.getMenuItem().getName());
-                escpos.feed(1);
-                
-                if (item.getNotes() != null && !item.getNotes().trim().isEmpty()) {
-                    Style noteStyle = new Style()
-                        .setFontSize(Style.FontSize._1, Style.FontSize._1);
-                    writeEncodedText(escpos, noteStyle, "   Забелешка: " + item.getNotes());
-                    escpos.feed(1);
-                }
-                escpos.feed(1);
-            }
-            
-            writeEncodedText(escpos, itemStyle, "===========================");
-            escpos.feed(3);
-            escpos.cut(EscPos.CutMode.FULL);
-            
-            logger.info("✅ Kitchen ticket printed successfully with Cyrillic support");
-            
-        } finally {
-            escpos.close();
+    public void printStationTicket(StationTicket ticket) throws IOException {
+        byte[] payload = renderStationTicket(ticket);
+        if (payload.length > 0) {
+            printRaw(payload);
         }
     }
     
     /**
-     * Print bar ticket - NEW items only + FIXED encoding
+     * Render kitchen/bar ticket to ESC/POS bytes (empty when there is nothing to print)
      */
-    public void printBarTicket(Order order, List<OrderItem> items) throws IOException {
-        logger.info("Printing bar ticket for order {} with FIXED encoding", order.getId());
-        
-        // Filter to only NEW items (pending quantity > 0)
-        List<OrderItem> newItems = items.stream()
-            .filter(item -> {
-                int totalQty = item.getQuantity() != null ? item.getQuantity() : 0;
-                int sentQty = item.getSentQuantity() != null ? item.getSentQuantity() : 0;
-                int pendingQty = totalQty - sentQty;
-                
-                logger.debug("Item: {}, Total: {}, Sent: {}, Pending: {}", 
-                    item.getMenuItem().getName(), totalQty, sentQty, pendingQty);
-                
-                return pendingQty > 0;
-            })
-            .toList();
-        
-        if (newItems.isEmpty()) {
-            logger.info("No new bar items to print for order {}", order.getId());
-            return;
+    public byte[] renderStationTicket(StationTicket ticket) throws IOException {
+        if (ticket.getLines().isEmpty()) {
+            logger.info("No new {} items to print for order {}", ticket.getDestination(), ticket.getOrderId());
+            return new byte[0];
         }
         
-        logger.info("Printing {} new bar items with FIXED Cyrillic support", newItems.size());
+        logger.info("Rendering {} new {} items with FIXED Cyrillic support", ticket.getLines().size(), ticket.getDestination());
         
-        EscPos escpos = createEscPosInstance();
-        if (escpos == null) {
-            throw new IOException("Cannot create ESC/POS printer instance");
-        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        EscPos escpos = new EscPos(buffer);
         
         try {
             // FIXED: Initialize encoding FIRST
-            OutputStream rawStream = escpos.getOutputStream();
-            initializePrinterEncoding(rawStream);
+            initializePrinterEncoding(buffer);
             
             // Define styles
             Style headerStyle = new Style()
@@ -295,37 +227,33 @@ public class EpsonThermalPrinter {
                 .setJustification(EscPosConst.Justification.Left_Default);
             
             // FIXED: Print header with proper encoding
-            writeEncodedText(escpos, headerStyle, "=========== БАР ===========");
+            writeEncodedText(escpos, headerStyle, ticket.getHeader());
             escpos.feed(1);
             
-            writeEncodedText(escpos, itemStyle, "Маса: " + getTableDisplayName(order));
+            writeEncodedText(escpos, itemStyle, "Маса: " + ticket.getTableDisplayName());
             escpos.feed(1);
-            writeEncodedText(escpos, itemStyle, "Време: " + DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy").format(order.getCreatedAt()));
+            writeEncodedText(escpos, itemStyle, "Време: " + DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy").format(ticket.getOrderCreatedAt()));
             escpos.feed(1);
             writeEncodedText(escpos, itemStyle, "===========================");
             escpos.feed(2);
             
             // FIXED: Print NEW items with proper encoding
-            for (OrderItem item : newItems) {
-                int totalQty = item.getQuantity() != null ? item.getQuantity() : 0;
-                int sentQty = item.getSentQuantity() != null ? item.getSentQuantity() : 0;
-                int pendingQty = totalQty - sentQty;
-                
+            for (TicketLine line : ticket.getLines()) {
                 Style quantityStyle = new Style()
                     .setFontSize(Style.FontSize._2, Style.FontSize._2)
                     .setBold(true);
                 
                 // Print quantity (numbers work fine)
-                escpos.write(quantityStyle, pendingQty + "x ");
+                escpos.write(quantityStyle, line.getQuantity() + "x ");
                 
                 // FIXED: Print item name with encoding
-                writeEncodedText(escpos, itemStyle, item.getMenuItem().getName());
+                writeEncodedText(escpos, itemStyle, line.getName());
                 escpos.feed(1);
                 
-                if (item.getNotes() != null && !item.getNotes().trim().isEmpty()) {
+                if (line.hasNotes()) {
                     Style noteStyle = new Style()
                         .setFontSize(Style.FontSize._1, Style.FontSize._1);
-                    writeEncodedText(escpos, noteStyle, "   Забелешка: " + item.getNotes());
+                    writeEncodedText(escpos, noteStyle, "   Забелешка: " + line.getNotes());
                     escpos.feed(1);
                 }
                 escpos.feed(1);
@@ -335,28 +263,32 @@ public class EpsonThermalPrinter {
             escpos.feed(3);
             escpos.cut(EscPos.CutMode.FULL);
             
-            logger.info("✅ Bar ticket printed successfully with Cyrillic support");
-            
         } finally {
             escpos.close();
         }
+        
+        return buffer.toByteArray();
     }
     
     /**
      * Print receipt - All items + FIXED encoding
      */
     public void printReceipt(Order order) throws IOException {
-        logger.info("Printing receipt for order {} with FIXED encoding", order.getId());
+        printRaw(renderReceipt(order));
+    }
+    
+    /**
+     * Render receipt to ESC/POS bytes - All items + FIXED encoding
+     */
+    public byte[] renderReceipt(Order order) throws IOException {
+        logger.info("Rendering receipt for order {} with FIXED encoding", order.getId());
         
-        EscPos escpos = createEscPosInstance();
-        if (escpos == null) {
-            throw new IOException("Cannot create ESC/POS printer instance");
-        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(2048);
+        EscPos escpos = new EscPos(buffer);
         
         try {
             // FIXED: Initialize encoding FIRST
-            OutputStream rawStream = escpos.getOutputStream();
-            initializePrinterEncoding(rawStream);
+            initializePrinterEncoding(buffer);
             
             Style headerStyle = new Style()
                 .setFontSize(Style.FontSize._2, Style.FontSize._2)
@@ -417,11 +349,29 @@ public class EpsonThermalPrinter {
             escpos.feed(3);
             escpos.cut(EscPos.CutMode.FULL);
             
-            logger.info("✅ Receipt printed successfully with Cyrillic support");
-            
         } finally {
             escpos.close();
         }
+        
+        return buffer.toByteArray();
+    }
+    
+    /**
+     * Send already rendered ESC/POS bytes to the printer
+     */
+    public void printRaw(byte[] payload) throws IOException {
+        OutputStream outputStream = openPrinterStream();
+        if (outputStream == null) {
+            throw new IOException("Cannot create ESC/POS printer instance");
+        }
+        
+        try {
+            outputStream.write(payload);
+            outputStream.flush();
+            logger.info("✅ Printed {} bytes on {}", payload.length, printerName);
+        } finally {
+            outputStream.close();
+        }
     }
     
     /**
@@ -442,11 +392,7 @@ public class EpsonThermalPrinter {
         List<String> printers = new ArrayList<>();
         
         try {
-            PrintService[] printServices = PrintServiceLookup.lookupPrintServices(null, null);
-            for (PrintService printService : printServices) {
-                String printerName = printService.getName();
-                printers.add(printerName);
-            }
+            printers.addAll(PrintServiceRegistry.getInstance().getPrinterNames());
         } catch (Exception e) {
             logger.error("Error getting available printers", e);
         }
@@ -470,19 +416,19 @@ public class EpsonThermalPrinter {
     }
     
     /**
-     * Create EscPos instance - UNCHANGED
+     * Open output stream to the printer (closing it releases the connection)
      */
-    private EscPos createEscPosInstance() throws IOException {
+    private OutputStream openPrinterStream() throws IOException {
         try {
             if ("NETWORK".equals(connectionType)) {
-                Socket socket = new Socket(ipAddress, port);
-                OutputStream outputStream = socket.getOutputStream();
-                return new EscPos(outputStream);
+                Socket socket = new Socket();
+                socket.connect(new InetSocketAddress(ipAddress, port), CONNECT_TIMEOUT_MS);
+                socket.setSoTimeout(SOCKET_TIMEOUT_MS);
+                return socket.getOutputStream();
             } else if ("USB".equals(connectionType)) {
                 PrintService printService = findPrintService(printerName);
                 if (printService != null) {
-                    PrinterOutputStream printerOutputStream = new PrinterOutputStream(printService);
-                    return new EscPos(printerOutputStream);
+                    return new PrinterOutputStream(printService);
                 }
             }
             return null;
@@ -493,32 +439,18 @@ public class EpsonThermalPrinter {
     }
     
     /**
-     * Find print service - UNCHANGED
+     * Find print service - resolved from the cached registry
      */
     private PrintService findPrintService(String printerName) {
-        PrintService[] printServices = PrintServiceLookup.lookupPrintServices(null, null);
-        
-        for (PrintService printService : printServices) {
-            if (printService.getName().contains(printerName) || 
-                printerName.contains(printService.getName())) {
-                return printService;
-            }
-        }
-        
-        if (printServices.length > 0) {
-            logger.warn("Printer '{}' not found, using first available: {}", 
-                printerName, printServices[0].getName());
-            return printServices[0];
-        }
-        
-        return null;
+        return PrintServiceRegistry.getInstance().resolve(printerName);
     }
     
     /**
      * Test methods - UNCHANGED
      */
     private boolean testNetworkConnection() {
-        try (Socket socket = new Socket(ipAddress, port)) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(ipAddress, port), CONNECT_TIMEOUT_MS);
             return socket.isConnected();
         } catch (Exception e) {
             logger.error("Network connection test failed", e);
@@ -0,0 +1,139 @@
+package com.restaurant.pos.service.thermal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.print.PrintService;
+import javax.print.PrintServiceLookup;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared cache of the OS print services used by USB thermal printers.
+ *
+ * Enumerating print services is slow on CUPS hosts, so it is done once and then
+ * refreshed in the background (or on demand from the admin UI). Name lookups are
+ * memoized, so resolving the printer of a ticket is a single map lookup.
+ */
+public final class PrintServiceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrintServiceRegistry.class);
+
+    private static final long REFRESH_INTERVAL_MINUTES = 5;
+    // A missing printer triggers at most one extra enumeration per interval (e.g. just plugged in)
+    private static final long MISS_REFRESH_INTERVAL_MS = 30_000;
+
+    private static final PrintServiceRegistry INSTANCE = new PrintServiceRegistry();
+
+    // Exact name -> service, replaced as a whole on every refresh
+    private volatile Map<String, PrintService> servicesByName = Map.of();
+    // Requested name -> resolved service (names are matched loosely, see resolve)
+    private final Map<String, Optional<PrintService>> resolved = new ConcurrentHashMap<>();
+
+    private volatile long lastRefreshAt;
+    private volatile boolean loaded;
+    private ScheduledExecutorService refresher;
+
+    private PrintServiceRegistry() {
+    }
+
+    public static PrintServiceRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Print service for a printer name, falling back to the first available one
+     */
+    public PrintService resolve(String printerName) {
+        ensureLoaded();
+        String key = printerName != null ? printerName : "";
+
+        Optional<PrintService> service = resolved.computeIfAbsent(key, this::match);
+        if (service.isEmpty() && System.currentTimeMillis() - lastRefreshAt > MISS_REFRESH_INTERVAL_MS) {
+            refresh();
+            service = resolved.computeIfAbsent(key, this::match);
+        }
+        return service.orElse(null);
+    }
+
+    /**
+     * Names of all print services known to the OS
+     */
+    public List<String> getPrinterNames() {
+        ensureLoaded();
+        return new ArrayList<>(servicesByName.keySet());
+    }
+
+    /**
+     * Enumerate print services again and drop memoized lookups
+     */
+    public synchronized void refresh() {
+        try {
+            PrintService[] printServices = PrintServiceLookup.lookupPrintServices(null, null);
+            Map<String, PrintService> updated = new LinkedHashMap<>();
+            for (PrintService printService : printServices) {
+                updated.put(printService.getName(), printService);
+            }
+            servicesByName = Collections.unmodifiableMap(updated);
+            resolved.clear();
+            logger.debug("Print service registry refreshed: {} printers", updated.size());
+        } catch (Exception e) {
+            logger.error("Error enumerating print services", e);
+        } finally {
+            lastRefreshAt = System.currentTimeMillis();
+            loaded = true;
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            refresh();
+            startBackgroundRefresh();
+        }
+    }
+
+    private void startBackgroundRefresh() {
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "print-service-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, REFRESH_INTERVAL_MINUTES, REFRESH_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    private Optional<PrintService> match(String printerName) {
+        Map<String, PrintService> services = servicesByName;
+
+        PrintService exact = services.get(printerName);
+        if (exact != null) {
+            return Optional.of(exact);
+        }
+        for (PrintService printService : services.values()) {
+            if (printService.getName().contains(printerName) ||
+                printerName.contains(printService.getName())) {
+                return Optional.of(printService);
+            }
+        }
+
+        if (!services.isEmpty()) {
+            PrintService first = services.values().iterator().next();
+            logger.warn("Printer '{}' not found, using first available: {}", printerName, first.getName());
+            return Optional.of(first);
+        }
+        return Optional.empty();
+    }
+}
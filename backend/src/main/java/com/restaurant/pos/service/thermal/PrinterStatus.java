@@ -0,0 +1,101 @@
+package com.restaurant.pos.service.thermal;
+
+/**
+ * Real-time printer status, parsed from the ESC/POS DLE EOT replies.
+ * USB printers cannot answer, so for them only reachability is known.
+ */
+public final class PrinterStatus {
+
+    // DLE EOT 2 - offline cause
+    private static final int OFFLINE_COVER_OPEN = 0x04;
+    private static final int OFFLINE_PAPER_END_STOP = 0x20;
+    private static final int OFFLINE_ERROR = 0x40;
+    // DLE EOT 4 - roll paper sensor
+    private static final int PAPER_NEAR_END = 0x0C;
+    private static final int PAPER_END = 0x60;
+
+    private final boolean reachable;
+    private final boolean statusKnown;
+    private final boolean coverOpen;
+    private final boolean paperNearEnd;
+    private final boolean paperOut;
+    private final boolean error;
+    private final long checkedAt;
+    private final String message;
+
+    private PrinterStatus(boolean reachable, boolean statusKnown, boolean coverOpen, boolean paperNearEnd,
+                          boolean paperOut, boolean error, long checkedAt, String message) {
+        this.reachable = reachable;
+        this.statusKnown = statusKnown;
+        this.coverOpen = coverOpen;
+        this.paperNearEnd = paperNearEnd;
+        this.paperOut = paperOut;
+        this.error = error;
+        this.checkedAt = checkedAt;
+        this.message = message;
+    }
+
+    /**
+     * Status from the DLE EOT 2 (offline cause) and DLE EOT 4 (paper sensor) replies
+     */
+    public static PrinterStatus fromStatusBytes(int offlineStatus, int paperStatus, long checkedAt) {
+        if (!isStatusByte(offlineStatus) || !isStatusByte(paperStatus)) {
+            return reachable(checkedAt);
+        }
+        return new PrinterStatus(true, true,
+            (offlineStatus & OFFLINE_COVER_OPEN) != 0,
+            (paperStatus & PAPER_NEAR_END) != 0,
+            (paperStatus & PAPER_END) != 0 || (offlineStatus & OFFLINE_PAPER_END_STOP) != 0,
+            (offlineStatus & OFFLINE_ERROR) != 0,
+            checkedAt, null);
+    }
+
+    /**
+     * Printer answers on its connection but does not report status
+     */
+    public static PrinterStatus reachable(long checkedAt) {
+        return new PrinterStatus(true, false, false, false, false, false, checkedAt, null);
+    }
+
+    public static PrinterStatus offline(long checkedAt, String message) {
+        return new PrinterStatus(false, false, false, false, false, false, checkedAt, message);
+    }
+
+    /**
+     * Reachable and able to print right now
+     */
+    public boolean canPrint() {
+        return reachable && !coverOpen && !paperOut && !error;
+    }
+
+    /**
+     * Not printing because of something staff can fix on the spot (paper, cover)
+     */
+    public boolean isWaitingForStaff() {
+        return reachable && !error && (coverOpen || paperOut);
+    }
+
+    public String getState() {
+        if (!reachable) return "OFFLINE";
+        if (error) return "ERROR";
+        if (coverOpen) return "COVER_OPEN";
+        if (paperOut) return "PAPER_OUT";
+        if (paperNearEnd) return "PAPER_NEAR_END";
+        return "OK";
+    }
+
+    // Fixed bits of every real-time status byte: bit 1 and 4 set, bit 0 and 7 clear
+    private static boolean isStatusByte(int value) {
+        return value >= 0 && (value & 0x93) == 0x12;
+    }
+
+    // Getters
+    public boolean isReachable() { return reachable; }
+    public boolean isStatusKnown() { return statusKnown; }
+    public boolean isCoverOpen() { return coverOpen; }
+    public boolean isPaperNearEnd() { return paperNearEnd; }
+    public boolean isPaperOut() { return paperOut; }
+    public boolean isError() { return error; }
+    public long getCheckedAt() { return checkedAt; }
+    public String getMessage() { return message; }
+}
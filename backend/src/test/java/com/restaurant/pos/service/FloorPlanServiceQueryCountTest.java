@@ -0,0 +1,79 @@
+package com.restaurant.pos.service;
+
+import com.restaurant.pos.entity.Area;
+import com.restaurant.pos.entity.FloorPlan;
+import com.restaurant.pos.entity.RestaurantTable;
+import com.restaurant.pos.service.floorplan.FloorPlanView;
+import com.restaurant.pos.service.floorplan.TableNumberAllocator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Loading a floor plan view takes the same number of statements however many areas it has
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({FloorPlanService.class, TableNumberAllocator.class})
+class FloorPlanServiceQueryCountTest {
+
+    private static final int TABLES_PER_AREA = 3;
+
+    @Autowired
+    private FloorPlanService floorPlanService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private int nextTableNumber = 1;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void loadsViewWithConstantQueryCount() {
+        Long onePlanId = seedPlan("Мал план", 1);
+        Long manyPlanId = seedPlan("Голем план", 12);
+
+        long oneAreaStatements = countStatements(onePlanId, 1);
+        long manyAreaStatements = countStatements(manyPlanId, 12);
+
+        assertEquals(oneAreaStatements, manyAreaStatements,
+            "Loading 12 areas should take as many statements as loading 1");
+    }
+
+    private long countStatements(Long floorPlanId, int expectedAreas) {
+        entityManager.clear();
+        statistics.clear();
+
+        FloorPlanView view = floorPlanService.getFloorPlanById(floorPlanId).orElseThrow();
+
+        assertEquals(expectedAreas, view.getAreas().size());
+        assertEquals(expectedAreas * TABLES_PER_AREA, view.getTotalTables());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Long seedPlan(String name, int areas) {
+        FloorPlan floorPlan = entityManager.persist(new FloorPlan(name, null));
+        for (int a = 0; a < areas; a++) {
+            Area area = entityManager.persist(new Area("Област " + a, Area.AreaType.DINING, floorPlan));
+            for (int t = 0; t < TABLES_PER_AREA; t++) {
+                RestaurantTable table = new RestaurantTable(nextTableNumber++, 4, area);
+                table.setPositionX(t * 100);
+                entityManager.persist(table);
+            }
+        }
+        entityManager.flush();
+        return floorPlan.getId();
+    }
+}
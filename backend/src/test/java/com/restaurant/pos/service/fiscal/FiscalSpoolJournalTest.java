@@ -0,0 +1,120 @@
+package com.restaurant.pos.service.fiscal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Append, roll-over and replay of the fiscal spool journal
+ */
+class FiscalSpoolJournalTest {
+
+    // Header (16 bytes) then fixed 40 byte records
+    private static final int FIRST_RECORD = 16;
+    private static final int RECORD_SIZE = 40;
+
+    @TempDir
+    Path directory;
+
+    private final List<FiscalSpoolJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() {
+        opened.forEach(FiscalSpoolJournal::close);
+    }
+
+    @Test
+    void replaysOpenJobsAfterRollOver() throws Exception {
+        FiscalSpoolJournal journal = open();
+
+        long printed = journal.accept(1L, new BigDecimal("120.00"));
+        journal.framesSent(printed);
+        journal.deviceAcknowledged(printed);
+        journal.closed(printed);
+
+        long acknowledged = journal.accept(2L, new BigDecimal("80.50"));
+        journal.framesSent(acknowledged);
+        journal.deviceAcknowledged(acknowledged);
+
+        long pending = journal.accept(3L, new BigDecimal("45.90"));
+        journal.framesSent(pending);
+        long acceptedAt = journal.getIncompleteJob(pending).getAcceptedAt();
+        Thread.sleep(5);
+
+        // A 4 KB segment holds 102 records, so this rolls over more than once
+        for (long order = 100; order < 250; order++) {
+            journal.aborted(journal.accept(order, BigDecimal.ONE));
+        }
+        journal.close();
+
+        FiscalSpoolJournal replayed = open();
+        List<FiscalSpoolJournal.Job> incomplete = replayed.getIncompleteJobs();
+
+        // The acknowledged job is closed on replay, only the one without a device answer stays open
+        assertEquals(1, incomplete.size());
+        FiscalSpoolJournal.Job job = incomplete.get(0);
+        assertEquals(pending, job.getJobId());
+        assertEquals(3L, job.getOrderId());
+        assertEquals(4590, job.getAmountCents());
+        assertEquals(FiscalSpoolJournal.RecordType.FRAMES_SENT, job.getState());
+        assertEquals(acceptedAt, job.getAcceptedAt());
+        assertTrue(replayed.accept(4L, BigDecimal.TEN) > pending);
+    }
+
+    @Test
+    void replayStopsAtTornRecord() throws Exception {
+        FiscalSpoolJournal journal = open();
+        long first = journal.accept(1L, BigDecimal.TEN);
+        journal.accept(2L, BigDecimal.TEN);
+        journal.accept(3L, BigDecimal.TEN);
+        journal.close();
+
+        // Tear the second record as a crash in the middle of writing it would
+        tearRecord(1);
+
+        FiscalSpoolJournal replayed = open();
+        List<FiscalSpoolJournal.Job> incomplete = replayed.getIncompleteJobs();
+        assertEquals(1, incomplete.size());
+        assertEquals(first, incomplete.get(0).getJobId());
+
+        // New records go where the torn one was, and replay up to them again
+        long next = replayed.accept(4L, BigDecimal.TEN);
+        replayed.close();
+
+        List<FiscalSpoolJournal.Job> again = open().getIncompleteJobs();
+        assertEquals(2, again.size());
+        assertEquals(first, again.get(0).getJobId());
+        assertEquals(next, again.get(1).getJobId());
+    }
+
+    private FiscalSpoolJournal open() throws IOException {
+        FiscalSpoolJournal journal = new FiscalSpoolJournal();
+        ReflectionTestUtils.setField(journal, "journalPath", directory.resolve("fiscal-spool").toString());
+        ReflectionTestUtils.setField(journal, "journalSizeKb", 4);
+        journal.open();
+        opened.add(journal);
+        return journal;
+    }
+
+    private void tearRecord(int index) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("fiscal-spool-0.journal").toFile(), "rw")) {
+            // Amount field of the record, covered by its CRC
+            long position = FIRST_RECORD + (long) index * RECORD_SIZE + 28;
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0xFF);
+        }
+    }
+}
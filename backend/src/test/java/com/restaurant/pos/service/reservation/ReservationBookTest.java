@@ -0,0 +1,153 @@
+package com.restaurant.pos.service.reservation;
+
+import com.restaurant.pos.entity.Reservation;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Interval tree overlap search and the reservation book built on it
+ */
+class ReservationBookTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 3, 1, 0, 0);
+
+    @Test
+    void touchingBookingsDoNotOverlap() {
+        ReservationBook book = new ReservationBook();
+        book.put(reservation(1L, 5, 18, 20));
+
+        assertTrue(book.isFree(5, at(16), at(18)));
+        assertTrue(book.isFree(5, at(20), at(22)));
+        assertFalse(book.isFree(5, at(17), at(19)));
+        assertFalse(book.isFree(5, at(19), at(21)));
+
+        // Back to back bookings are allowed
+        book.put(reservation(2L, 5, 20, 22));
+        assertEquals(Set.of(6), book.findFree(List.of(5, 6), at(19), at(21)));
+        assertEquals(Set.of(5, 6), book.findFree(List.of(5, 6), at(22), at(23)));
+        assertThrows(IllegalStateException.class, () -> book.put(reservation(3L, 5, 21, 23)));
+    }
+
+    @Test
+    void cancelledBookingFreesTheTable() {
+        ReservationBook book = new ReservationBook();
+        book.put(reservation(1L, 5, 18, 20));
+        book.put(reservation(2L, 5, 20, 22));
+
+        Reservation cancelled = reservation(1L, 5, 18, 20);
+        cancelled.setStatus(Reservation.Status.CANCELLED);
+        book.put(cancelled);
+
+        assertEquals(Set.of(5), book.findFree(List.of(5), at(18), at(20)));
+        assertEquals(Set.of(), book.findFree(List.of(5), at(19), at(21)));
+    }
+
+    @Test
+    void rollbackRestoresThePreviousBooking() {
+        ReservationBook book = new ReservationBook();
+        book.put(reservation(1L, 5, 18, 20));
+
+        inRolledBackTransaction(() -> {
+            book.put(reservation(1L, 5, 12, 14));
+            book.put(reservation(2L, 5, 18, 20));
+        });
+
+        assertFalse(book.isFree(5, at(18), at(20)));
+        assertTrue(book.isFree(5, at(12), at(14)));
+        assertEquals(1, book.getBookings(5, at(0), at(24)).size());
+        assertEquals(18, book.get(1L).getStartTime().getHour());
+    }
+
+    @Test
+    void overlapSearchMatchesScanAfterInsertsAndDeletes() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        Map<Long, ReservationBook.Booking> live = new HashMap<>();
+        // Many short bookings in start order force rotations, the long ones test the max end upkeep
+        for (long id = 1; id <= 300; id++) {
+            int start = (int) id * 10;
+            int length = id % 50 == 0 ? 300 : 5 + random.nextInt(30);
+            ReservationBook.Booking booking = booking(id, start, start + length);
+            tree.insert(booking);
+            live.put(id, booking);
+        }
+        List<Long> ids = new ArrayList<>(live.keySet());
+        for (int i = 0; i < 150; i++) {
+            Long id = ids.remove(random.nextInt(ids.size()));
+            assertTrue(tree.remove(live.remove(id)));
+        }
+        assertEquals(live.size(), tree.size());
+
+        long day = ReservationBook.key(DAY);
+        for (int i = 0; i < 2000; i++) {
+            long from = day + random.nextInt(3500);
+            long to = from + 1 + random.nextInt(60);
+            List<Long> expected = new ArrayList<>();
+            for (ReservationBook.Booking booking : live.values()) {
+                if (booking.getStartKey() < to && booking.getEndKey() > from) {
+                    expected.add(booking.getId());
+                }
+            }
+            List<ReservationBook.Booking> found = new ArrayList<>();
+            tree.collect(from, to, found);
+
+            assertEquals(expected.size(), found.size(), "bookings overlapping second " + (from - day));
+            assertTrue(found.stream().allMatch(booking -> expected.contains(booking.getId())));
+            assertEquals(!expected.isEmpty(), tree.overlaps(from, to, null));
+            if (expected.size() == 1) {
+                assertFalse(tree.overlaps(from, to, expected.get(0)));
+            }
+        }
+    }
+
+    private static void inRolledBackTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // Starts and ends are seconds after the test day
+    private static ReservationBook.Booking booking(long id, int startSecond, int endSecond) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setTableNumber(1);
+        reservation.setPartySize(2);
+        reservation.setStartTime(DAY.plusSeconds(startSecond));
+        reservation.setEndTime(DAY.plusSeconds(endSecond));
+        return ReservationBook.Booking.of(reservation);
+    }
+
+    private static Reservation reservation(Long id, Integer tableNumber, int startHour, int endHour) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setTableNumber(tableNumber);
+        reservation.setPartySize(2);
+        reservation.setStartTime(at(startHour));
+        reservation.setEndTime(at(endHour));
+        return reservation;
+    }
+
+    private static LocalDateTime at(int hour) {
+        return DAY.plusHours(hour);
+    }
+}
@@ -19,6 +19,7 @@ const areaTypes = {
 const FloorPlanManager = ({ onBack }) => {
     const [floorPlan, setFloorPlan] = useState(null);
     const [areas, setAreas] = useState([]);
+    const [tableStatuses, setTableStatuses] = useState({});
     const [loading, setLoading] = useState(false);
     const [error, setError] = useState('');
     const [editingTable, setEditingTable] = useState(null);
@@ -37,6 +38,7 @@ const FloorPlanManager = ({ onBack }) => {
                 const response = await floorPlanAPI.getActive();
                 setFloorPlan(response.data);
                 setAreas(response.data.areas || []);
+                await loadTableStatuses();
             } catch (err) {
                 if (err.response?.status === 404) {
                     await createDefaultFloorPlan();
@@ -73,6 +75,7 @@ const FloorPlanManager = ({ onBack }) => {
             const response = await floorPlanAPI.getActive();
             setFloorPlan(response.data);
             setAreas(response.data.areas || []);
+            await loadTableStatuses();
 
             console.log('Floor plan refreshed successfully');
 
@@ -85,6 +88,18 @@ const FloorPlanManager = ({ onBack }) => {
         }
     };
 
+    // The floor plan layout has no statuses; they come from the table status board
+    const loadTableStatuses = async () => {
+        try {
+            const response = await tableAPI.getStatuses();
+            setTableStatuses(response.data.tables || {});
+        } catch (err) {
+            console.error('Error loading table statuses:', err);
+        }
+    };
+
+    const statusOf = (table) => tableStatuses[table.tableNumber]?.status || table.status || 'AVAILABLE';
+
     const addTableToArea = async (areaId) => {
         try {
             setError('');
@@ -200,8 +215,7 @@ const FloorPlanManager = ({ onBack }) => {
             const response = await tableAPI.update(tableId, {
                 tableNumber: tableNum,
                 capacity: currentTable.capacity,
-                shape: currentTable.shape || 'RECTANGLE',
-                status: currentTable.status || 'AVAILABLE'
+                shape: currentTable.shape || 'RECTANGLE'
             });
 
             console.log('Table update response:', response.data);
@@ -314,14 +328,14 @@ const FloorPlanManager = ({ onBack }) => {
                                 <div className="text-sm text-gray-600 mb-2">
                                     {table.capacity} места
                                 </div>
-                                <div className={`inline-block px-2 py-1 rounded text-xs font-medium ${table.status === 'AVAILABLE' ? 'bg-green-100 text-green-700' :
-                                        table.status === 'OCCUPIED' ? 'bg-red-100 text-red-700' :
-                                            table.status === 'RESERVED' ? 'bg-yellow-100 text-yellow-700' :
+                                <div className={`inline-block px-2 py-1 rounded text-xs font-medium ${statusOf(table) === 'AVAILABLE' ? 'bg-green-100 text-green-700' :
+                                        statusOf(table) === 'OCCUPIED' ? 'bg-red-100 text-red-700' :
+                                            statusOf(table) === 'RESERVED' ? 'bg-yellow-100 text-yellow-700' :
                                                 'bg-gray-100 text-gray-700'
                                     }`}>
-                                    {table.status === 'AVAILABLE' ? 'Достапна' :
-                                        table.status === 'OCCUPIED' ? 'Зафатена' :
-                                            table.status === 'RESERVED' ? 'Резервирана' : table.status}
+                                    {statusOf(table) === 'AVAILABLE' ? 'Достапна' :
+                                        statusOf(table) === 'OCCUPIED' ? 'Зафатена' :
+                                            statusOf(table) === 'RESERVED' ? 'Резервирана' : statusOf(table)}
                                 </div>
                             </div>
 
@@ -444,7 +458,7 @@ const FloorPlanManager = ({ onBack }) => {
                         <h3 className="font-bold text-gray-800 mb-2">Достапни</h3>
                         <p className="text-2xl font-bold text-emerald-600">
                             {areas.reduce((total, area) =>
-                                total + (area.tables ? area.tables.filter(table => table.status === 'AVAILABLE').length : 0), 0
+                                total + (area.tables ? area.tables.filter(table => statusOf(table) === 'AVAILABLE').length : 0), 0
                             )}
                         </p>
                     </div>
@@ -69,6 +69,45 @@ export const menuAPI = {
     // Toggle item availability
     toggleAvailability: (id) => api.patch(`/menu-items/${id}/toggle-availability`),
 
+    // Bulk import from a CSV or JSON file
+    importFile: (file) => api.post('/menu-items/import', file, {
+        headers: { 'Content-Type': file.name.endsWith('.json') ? 'application/json' : 'text/csv' }
+    }),
+
+    // Bulk export URL (csv or json)
+    getExportUrl: (format = 'csv') => `${api.defaults.baseURL}/menu-items/export?format=${format}`,
+
+    // Get menu changes since a catalog version (full menu when `full` is true)
+    getChanges: (since, terminal) => api.get('/menu-items/changes', {
+        params: { since, terminal }
+    }),
+
+    // Scheduled prices (happy hour, weekend) of an item
+    getPrices: (id) => api.get(`/menu-items/${id}/prices`),
+
+    // Add a scheduled price: { price, label, daysOfWeek: ['FRIDAY'], startTime: '17:00', endTime: '19:00', validFrom, validTo }
+    addPrice: (id, price) => api.post(`/menu-items/${id}/prices`, price),
+
+    // Remove a scheduled price
+    deletePrice: (priceId) => api.delete(`/menu-items/prices/${priceId}`),
+
+    // Scheduled prices in effect right now ({ prices: { menuItemId: price }, nextSwitch })
+    getCurrentPrices: () => api.get('/menu-items/prices/current'),
+
+    // Availability schedules (breakfast, lunch, late menu)
+    getSchedules: () => api.get('/menu-items/schedules'),
+
+    // Add a schedule for an item or a category: { menuItemId | category, label, daysOfWeek, startTime, endTime }
+    addSchedule: (schedule) => api.post('/menu-items/schedules', schedule),
+
+    // Remove an availability schedule
+    deleteSchedule: (scheduleId) => api.delete(`/menu-items/schedules/${scheduleId}`),
+
+    // Get best selling items (optionally for one category)
+    getTop: (limit = 10, category) => api.get('/menu-items/top', {
+        params: { limit, category }
+    }),
+
     // ENHANCED: Search menu items with better error handling
     search: async (query) => {
         try {
@@ -146,6 +185,9 @@ export const floorPlanAPI = {
     // Get active floor plan
     getActive: () => api.get('/floor-plans/active'),
 
+    // Active plan layout plus the active order of each table ({ layout, orders: { tableNumber: summary }, version })
+    getActiveBoard: () => api.get('/floor-plans/active/board'),
+
     // Get floor plan by ID
     getById: (id) => api.get(`/floor-plans/${id}`),
 
@@ -164,6 +206,15 @@ export const floorPlanAPI = {
     // Create default floor plan
     createDefault: () => api.post('/floor-plans/default'),
 
+    // Whole plan (areas and tables) as a JSON file
+    getExportUrl: (id) => `${api.defaults.baseURL}/floor-plans/${id}/export`,
+
+    // Create a plan from an exported JSON file, optionally renamed and made active
+    importFile: (file, { name, activate = false } = {}) => api.post('/floor-plans/import', file, {
+        headers: { 'Content-Type': 'application/json' },
+        params: { name, activate }
+    }),
+
     // Get areas for floor plan
     getAreas: (floorPlanId) => api.get(`/floor-plans/${floorPlanId}/areas`),
 
@@ -200,6 +251,15 @@ export const areaAPI = {
     // Add table to area
     addTable: (areaId, tableData) => api.post(`/floor-plans/areas/${areaId}/tables`, tableData),
 
+    // Soft delete all tables of the area at once
+    deactivateTables: (areaId) => api.post(`/floor-plans/areas/${areaId}/tables/deactivate`),
+
+    // Bring back the deleted tables of the area
+    reactivateTables: (areaId) => api.post(`/floor-plans/areas/${areaId}/tables/reactivate`),
+
+    // Move tables (all when tableIds is omitted) to another area
+    moveTables: (areaId, targetAreaId, tableIds) => api.post(`/floor-plans/areas/${areaId}/tables/move`, { targetAreaId, tableIds }),
+
     // Update table using the correct TableController endpoint
     updateTable: (tableId, tableData) => api.put(`/tables/${tableId}`, tableData),
 
@@ -227,13 +287,52 @@ export const tableAPI = {
     // Update table position
     updatePosition: (id, position) => api.patch(`/tables/${id}/position`, position),
 
+    // Move/resize many tables and areas at once: { tables: [{ id, x, y, width, height }], areas: [...] }
+    updateLayout: (layout) => api.patch('/tables/layout', layout),
+
+    // Table under a point of the area, 404 when there is none
+    getAt: (areaId, x, y) => api.get(`/tables/area/${areaId}/at`, { params: { x, y } }),
+
+    // Tables intersecting a rectangle of the area
+    getWithin: (areaId, x, y, width, height) => api.get(`/tables/area/${areaId}/within`, { params: { x, y, width, height } }),
+
+    // Overlapping tables and tables outside the area
+    getConflicts: (areaId) => api.get(`/tables/area/${areaId}/conflicts`),
+
     // Update table status
     updateStatus: (id, status) => api.patch(`/tables/${id}/status`, { status }),
 
+    // Status of every table (status, since, orderId) by table number
+    getStatuses: () => api.get('/tables/statuses'),
+
     // Delete table
     delete: (id) => api.delete(`/tables/${id}`)
 };
 
+// Reservation API (times as ISO local date-times, e.g. 2026-10-24T20:00:00)
+export const reservationAPI = {
+    // Reservations overlapping a window, cancelled and no-show ones included
+    getAll: (from, to) => api.get('/reservations', { params: { from, to } }),
+
+    getById: (id) => api.get(`/reservations/${id}`),
+
+    // Upcoming bookings of a table (or all tables)
+    getBookings: (from, to, tableNumber) => api.get('/reservations/bookings', { params: { from, to, tableNumber } }),
+
+    // Tables seating partySize that are free for the whole window, smallest first
+    findAvailable: (from, to, partySize, areaId) =>
+        api.get('/reservations/availability', { params: { from, to, partySize, areaId } }),
+
+    // { tableNumber, partySize, startTime, endTime, customerName, phone, notes }; 409 when the slot is taken
+    create: (reservation) => api.post('/reservations', reservation),
+
+    update: (id, reservation) => api.put(`/reservations/${id}`, reservation),
+
+    cancel: (id) => api.post(`/reservations/${id}/cancel`),
+
+    seat: (id) => api.post(`/reservations/${id}/seat`)
+};
+
 // Admin API
 export const adminAPI = {
     // Admin login
@@ -263,7 +362,43 @@ export const printerAPI = {
     }),
 
     // Get available thermal printers
-    getAvailablePrinters: (adminCode) => api.get('/printer/thermal-printers', {
+    getAvailablePrinters: (adminCode, refresh = false) => api.get('/printer/thermal-printers', {
+        params: { refresh },
+        headers: { 'Admin-Code': adminCode }
+    }),
+
+    // Get simulated tickets/receipts of an order
+    getSimulatedPrintouts: (orderId, adminCode) => api.get(`/printer/virtual/order/${orderId}`, {
+        headers: { 'Admin-Code': adminCode }
+    }),
+
+    // Get real-time printer status (paper out, cover open)
+    getPrinterStatus: (refresh = false) => api.get('/printer/status', {
+        params: { refresh }
+    }),
+
+    // Get kitchen/bar printer routes
+    getRoutes: (adminCode) => api.get('/printer/routes', {
+        headers: { 'Admin-Code': adminCode }
+    }),
+
+    // Update kitchen/bar printer routes
+    updateRoutes: (routes, adminCode) => api.put('/printer/routes', routes, {
+        headers: { 'Admin-Code': adminCode }
+    }),
+
+    // Get incomplete fiscal receipts from the spool journal
+    getFiscalSpool: (adminCode) => api.get('/printer/fiscal/spool', {
+        headers: { 'Admin-Code': adminCode }
+    }),
+
+    // Re-issue an incomplete fiscal receipt
+    reissueFiscalJob: (jobId, adminCode) => api.post(`/printer/fiscal/spool/${jobId}/reissue`, {}, {
+        headers: { 'Admin-Code': adminCode }
+    }),
+
+    // Mark an incomplete fiscal receipt as checked on the device
+    resolveFiscalJob: (jobId, adminCode) => api.post(`/printer/fiscal/spool/${jobId}/resolve`, {}, {
         headers: { 'Admin-Code': adminCode }
     }),
 
@@ -272,6 +407,16 @@ export const printerAPI = {
         headers: { 'Admin-Code': adminCode }
     }),
 
+    // Get stored tickets/receipts of an order
+    getPrintouts: (orderId, adminCode) => api.get(`/printer/reprint/order/${orderId}`, {
+        headers: { 'Admin-Code': adminCode }
+    }),
+
+    // Reprint a stored ticket/receipt
+    reprint: (jobId, adminCode) => api.post(`/printer/reprint/${jobId}`, {}, {
+        headers: { 'Admin-Code': adminCode }
+    }),
+
     // Get supported fiscal printer types
     getFiscalTypes: () => api.get('/printer/fiscal-types'),
 